@@ -0,0 +1,207 @@
+package williamchik.com.dragswitchlayout;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.test.ActivityInstrumentationTestCase2;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.BaseAdapter;
+
+import com.williamchik.dragswitchlayout.DragSwitchLayout;
+import com.williamchik.dragswitchlayout.MainActivity;
+import com.williamchik.dragswitchlayout.SwitchFrameMetrics;
+
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DragSwitchLayout 的硬件层：打开和关闭时分别统计滑动过程中页面的 invalidate() 和 draw() 次数。
+ * <p/>
+ * 两次连续的滑动：先滑到第 1 页，滑动结束的回调中立即滑回第 0 页。第一次滑动结束后 Adapter 模式在下一次消息循环中才添加第 2 页，
+ * 这时第二次滑动已经开始，新添加的页面也要切换为硬件层。
+ */
+public class DragSwitchLayoutLayerTest extends ActivityInstrumentationTestCase2<MainActivity> {
+
+  private static final int PAGE_COUNT = 5;
+  private static final long SETTLE_TIMEOUT = 5000;
+  // 使用硬件层时，每个页面只在绘制到 layer 中和恢复为没有 layer 时各绘制一次，和滑动的帧数无关
+  private static final int MAX_LAYERED_DRAWS_PER_PAGE = 2;
+
+  private DragSwitchLayout mLayout;
+  private final ArrayList<CountingPage> mPages = new ArrayList<CountingPage>();
+  private final ArrayList<int[]> mSettleMetrics = new ArrayList<int[]>();
+  private CountDownLatch mSettled;
+  private volatile boolean mSettling;
+
+  public DragSwitchLayoutLayerTest() {
+    super(MainActivity.class);
+  }
+
+  public void testSettle_withHardwareLayers() throws Throwable {
+    settleTwice(true);
+
+    // 第二次滑动中添加的第 2 页也被切换为硬件层
+    assertEquals(2, mSettleMetrics.size());
+    assertEquals(2, mSettleMetrics.get(0)[1]);
+    assertEquals(3, mSettleMetrics.get(1)[1]);
+    assertEquals(3, mPages.size());
+    int frameCount = mSettleMetrics.get(0)[0] + mSettleMetrics.get(1)[0];
+    for (CountingPage page : mPages) {
+      assertEquals(0, page.mInvalidateCount);
+      assertEquals(0, page.mDrawsWithoutLayer);
+      assertTrue("page drawn " + page.mDrawCount + " times in " + frameCount + " frames",
+          page.mDrawCount <= MAX_LAYERED_DRAWS_PER_PAGE);
+      // 静止后恢复为没有 layer
+      assertEquals(View.LAYER_TYPE_NONE, page.getLayerType());
+    }
+  }
+
+  public void testSettle_withoutHardwareLayers() throws Throwable {
+    settleTwice(false);
+
+    assertEquals(2, mSettleMetrics.size());
+    assertEquals(0, mSettleMetrics.get(0)[1]);
+    assertEquals(0, mSettleMetrics.get(1)[1]);
+    assertEquals(3, mPages.size());
+    for (CountingPage page : mPages) {
+      // 页面只通过 translation 移动，布局不会让页面的内容失效
+      assertEquals(0, page.mInvalidateCount);
+      assertEquals(0, page.mDrawsWithLayer);
+    }
+  }
+
+  private void settleTwice(final boolean layerEnabled) throws Throwable {
+    final Context context = getActivity();
+    mSettled = new CountDownLatch(1);
+    runTestOnUiThread(new Runnable() {
+
+      @Override
+      public void run() {
+        mLayout = new DragSwitchLayout(context);
+        mLayout.setHardwareLayerEnabled(layerEnabled);
+        mLayout.setAdapter(new CountingAdapter());
+        mLayout.setFrameMetricsSink(new SwitchFrameMetrics.Sink() {
+
+          @Override
+          public void onSessionFinished(SwitchFrameMetrics metrics) {
+            if (metrics.getSessionType() == SwitchFrameMetrics.SESSION_SETTLE) {
+              mSettleMetrics.add(new int[]{metrics.getFrameCount(), metrics.getLayeredPageCount()});
+            }
+          }
+        });
+        mLayout.setDragSwitchListener(new DragSwitchLayout.SimpleDragSwitchListener() {
+
+          @Override
+          public void onSettleStarted(int targetPage) {
+            mSettling = true;
+          }
+
+          @Override
+          public void onSettleFinished(int page) {
+            mSettling = false;
+            if (page == 1) {
+              mLayout.setCurrentPage(0, true);
+            } else {
+              mSettled.countDown();
+            }
+          }
+        });
+        getActivity().setContentView(mLayout);
+      }
+    });
+    getInstrumentation().waitForIdleSync();
+    // 只统计滑动过程中的绘制
+    for (CountingPage page : mPages) {
+      page.resetCounts();
+    }
+
+    runTestOnUiThread(new Runnable() {
+
+      @Override
+      public void run() {
+        mLayout.setCurrentPage(1, true);
+      }
+    });
+    assertTrue(mSettled.await(SETTLE_TIMEOUT, TimeUnit.MILLISECONDS));
+    getInstrumentation().waitForIdleSync();
+  }
+
+  /**
+   * 每个位置一个新的 CountingPage，回收池中的页面不复用，方便按页面统计
+   */
+  private final class CountingAdapter extends BaseAdapter {
+
+    @Override
+    public int getCount() {
+      return PAGE_COUNT;
+    }
+
+    @Override
+    public Object getItem(int position) {
+      return position;
+    }
+
+    @Override
+    public long getItemId(int position) {
+      return position;
+    }
+
+    @Override
+    public int getItemViewType(int position) {
+      return IGNORE_ITEM_VIEW_TYPE;
+    }
+
+    @Override
+    public View getView(int position, View convertView, ViewGroup parent) {
+      CountingPage page = new CountingPage(parent.getContext());
+      page.setBackgroundColor(position % 2 == 0 ? Color.WHITE : Color.GRAY);
+      mPages.add(page);
+      return page;
+    }
+  }
+
+  /**
+   * 统计 invalidate() 和 draw() 次数的页面，分别记录滑动过程中有硬件层和没有 layer 时的绘制
+   */
+  private final class CountingPage extends View {
+
+    private int mInvalidateCount;
+    private int mDrawCount;
+    private int mDrawsWithLayer;
+    private int mDrawsWithoutLayer;
+
+    CountingPage(Context context) {
+      super(context);
+    }
+
+    void resetCounts() {
+      mInvalidateCount = 0;
+      mDrawCount = 0;
+      mDrawsWithLayer = 0;
+      mDrawsWithoutLayer = 0;
+    }
+
+    @Override
+    public void invalidate() {
+      if (mSettling) {
+        mInvalidateCount++;
+      }
+      super.invalidate();
+    }
+
+    @Override
+    public void draw(Canvas canvas) {
+      if (mSettling) {
+        mDrawCount++;
+        if (getLayerType() == LAYER_TYPE_HARDWARE) {
+          mDrawsWithLayer++;
+        } else {
+          mDrawsWithoutLayer++;
+        }
+      }
+      super.draw(canvas);
+    }
+  }
+}
\ No newline at end of file
@@ -0,0 +1,83 @@
+package williamchik.com.dragswitchlayout;
+
+import android.content.Context;
+import android.os.Parcelable;
+import android.test.AndroidTestCase;
+import android.util.SparseArray;
+import android.view.View;
+import android.widget.FrameLayout;
+
+import com.williamchik.dragswitchlayout.DragSwitchLayout;
+
+/**
+ * DragSwitchLayout 旋转屏幕重建时的状态恢复：恢复后的第一次 layout 中页面就停在保存的页面，不会再请求额外的 layout
+ */
+public class DragSwitchLayoutRestoreTest extends AndroidTestCase {
+
+  private static final int LAYOUT_ID = 1;
+  private static final int WIDTH = 480;
+  private static final int HEIGHT = 800;
+
+  public void testRestore_appliesPageInOneLayoutPass() {
+    CountingDragSwitchLayout oldLayout = new CountingDragSwitchLayout(getContext());
+    layout(oldLayout, HEIGHT, WIDTH);
+    oldLayout.setCurrentPage(1, false);
+    SparseArray<Parcelable> states = new SparseArray<Parcelable>();
+    oldLayout.saveHierarchyState(states);
+
+    // 重建后尺寸发生变化，和旋转屏幕一样
+    CountingDragSwitchLayout newLayout = new CountingDragSwitchLayout(getContext());
+    newLayout.restoreHierarchyState(states);
+    assertEquals(1, newLayout.getCurrentPage());
+    newLayout.resetCounts();
+    layout(newLayout, WIDTH, HEIGHT);
+
+    assertEquals(1, newLayout.mLayoutCount);
+    assertEquals(0, newLayout.mLayoutRequestCount);
+    assertFalse(newLayout.isLayoutRequested());
+    // 页面的位置在这一次 layout 中已经按新的尺寸生效
+    assertEquals(-HEIGHT, newLayout.getChildAt(0).getTranslationY(), 0);
+    assertEquals(0, newLayout.getChildAt(1).getTranslationY(), 0);
+  }
+
+  private static void layout(View view, int width, int height) {
+    view.measure(View.MeasureSpec.makeMeasureSpec(width, View.MeasureSpec.EXACTLY),
+        View.MeasureSpec.makeMeasureSpec(height, View.MeasureSpec.EXACTLY));
+    view.layout(0, 0, width, height);
+  }
+
+  /**
+   * 统计 layout 和 requestLayout() 次数的 DragSwitchLayout，两个页面都是空的 FrameLayout
+   */
+  private static final class CountingDragSwitchLayout extends DragSwitchLayout {
+
+    private int mLayoutCount;
+    private int mLayoutRequestCount;
+
+    CountingDragSwitchLayout(Context context) {
+      super(context);
+      setId(LAYOUT_ID);
+      addView(new FrameLayout(context));
+      addView(new FrameLayout(context));
+      // 和从 xml 中 inflate 一样初始化页面
+      onFinishInflate();
+    }
+
+    void resetCounts() {
+      mLayoutCount = 0;
+      mLayoutRequestCount = 0;
+    }
+
+    @Override
+    protected void onLayout(boolean changed, int l, int t, int r, int b) {
+      mLayoutCount++;
+      super.onLayout(changed, l, t, r, b);
+    }
+
+    @Override
+    public void requestLayout() {
+      mLayoutRequestCount++;
+      super.requestLayout();
+    }
+  }
+}
\ No newline at end of file
@@ -0,0 +1,77 @@
+package com.williamchik.dragswitchlayout;
+
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+
+/**
+ * 按目标尺寸缩放解码图片：先只解码尺寸，按目标尺寸计算采样率，再把图片解码到复用池中的 bitmap 里。
+ */
+final class BitmapDecoder {
+
+  private BitmapDecoder() {
+  }
+
+  /**
+   * 解码资源中的图片，不按屏幕密度缩放，只按目标尺寸缩放
+   */
+  static Bitmap decodeResource(Resources res, int resId, int reqWidth, int reqHeight, BitmapPool pool) {
+    return decode(res, resId, null, reqWidth, reqHeight, pool);
+  }
+
+  /**
+   * 解码文件中的图片
+   */
+  static Bitmap decodeFile(String path, int reqWidth, int reqHeight, BitmapPool pool) {
+    return decode(null, 0, path, reqWidth, reqHeight, pool);
+  }
+
+  /**
+   * 计算采样率，取最大的 2 的幂，使解码后的宽高都不小于目标尺寸，centerCrop 显示时不会模糊
+   */
+  static int calculateInSampleSize(int width, int height, int reqWidth, int reqHeight) {
+    int inSampleSize = 1;
+    if (reqWidth <= 0 || reqHeight <= 0) {
+      return inSampleSize;
+    }
+    while (width / (inSampleSize * 2) >= reqWidth && height / (inSampleSize * 2) >= reqHeight) {
+      inSampleSize *= 2;
+    }
+    return inSampleSize;
+  }
+
+  private static Bitmap decode(Resources res, int resId, String path, int reqWidth, int reqHeight, BitmapPool pool) {
+    BitmapFactory.Options options = new BitmapFactory.Options();
+    options.inScaled = false;
+    options.inJustDecodeBounds = true;
+    decode(res, resId, path, options);
+    if (options.outWidth <= 0 || options.outHeight <= 0) {
+      // 不是有效的图片
+      return null;
+    }
+
+    options.inSampleSize = calculateInSampleSize(options.outWidth, options.outHeight, reqWidth, reqHeight);
+    options.inJustDecodeBounds = false;
+    options.inPreferredConfig = Bitmap.Config.ARGB_8888;
+    // 解码出的 bitmap 必须是可变的，之后才能放回复用池
+    options.inMutable = true;
+    options.inBitmap = pool.get(options);
+    try {
+      return decode(res, resId, path, options);
+    } catch (IllegalArgumentException e) {
+      if (options.inBitmap == null) {
+        throw e;
+      }
+      // 复用的 bitmap 和图片不兼容，不复用重新解码
+      options.inBitmap = null;
+      return decode(res, resId, path, options);
+    }
+  }
+
+  private static Bitmap decode(Resources res, int resId, String path, BitmapFactory.Options options) {
+    if (path != null) {
+      return BitmapFactory.decodeFile(path, options);
+    }
+    return BitmapFactory.decodeResource(res, resId, options);
+  }
+}
\ No newline at end of file
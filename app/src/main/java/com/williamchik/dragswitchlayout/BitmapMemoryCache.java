@@ -0,0 +1,104 @@
+package com.williamchik.dragswitchlayout;
+
+import android.graphics.Bitmap;
+import android.os.Build;
+import android.util.LruCache;
+
+/**
+ * 解码后图片的 LRU 内存缓存，容量按应用可用的堆内存计算。被淘汰的 bitmap 如果没有在显示，就放入复用池供下一次解码使用；
+ * 仍在显示的等到不再显示时再放入。线程安全。
+ */
+final class BitmapMemoryCache {
+
+  // 缓存占用可用堆内存的比例
+  private static final int HEAP_FRACTION = 8;
+
+  private final LruCache<String, Bitmap> mCache;
+  private final BitmapPool mPool;
+  // 正在显示的 bitmap 和显示它的 ImageView 数量，以及被淘汰后仍在显示的 bitmap
+  private final InUseTracker<Bitmap> mInUse = new InUseTracker<Bitmap>();
+
+  BitmapMemoryCache(BitmapPool pool) {
+    mPool = pool;
+    // 容量的单位是 KB
+    int maxSize = (int) (Runtime.getRuntime().maxMemory() / 1024 / HEAP_FRACTION);
+    mCache = new LruCache<String, Bitmap>(maxSize) {
+
+      @Override
+      protected int sizeOf(String key, Bitmap value) {
+        return Math.max(1, getBitmapSize(value) / 1024);
+      }
+
+      @Override
+      protected void entryRemoved(boolean evicted, String key, Bitmap oldValue, Bitmap newValue) {
+        if (oldValue != newValue) {
+          onBitmapRemoved(oldValue);
+        }
+      }
+    };
+  }
+
+  /**
+   * 取出缓存的图片并标记为正在使用，之后必须调用一次 {@link #release(Bitmap)}。取出和标记之间不会被淘汰到复用池
+   */
+  synchronized Bitmap getAndAcquire(String key) {
+    Bitmap bitmap = mCache.get(key);
+    if (bitmap != null) {
+      acquire(bitmap);
+    }
+    return bitmap;
+  }
+
+  /**
+   * 放入缓存并标记为正在使用，之后必须调用一次 {@link #release(Bitmap)}。在交给 ImageView 之前被淘汰也不会被复用
+   */
+  synchronized void putAndAcquire(String key, Bitmap bitmap) {
+    acquire(bitmap);
+    mCache.put(key, bitmap);
+  }
+
+  /**
+   * 清空缓存，不在显示的 bitmap 放入复用池
+   */
+  void clear() {
+    mCache.evictAll();
+  }
+
+  /**
+   * 缩减到原来容量的一半
+   */
+  void trimToHalf() {
+    mCache.trimToSize(mCache.maxSize() / 2);
+  }
+
+  /**
+   * 标记 bitmap 正在使用
+   */
+  synchronized void acquire(Bitmap bitmap) {
+    mInUse.acquire(bitmap);
+  }
+
+  /**
+   * bitmap 不再使用，所有的使用都结束并且已经被淘汰时放入复用池
+   */
+  synchronized void release(Bitmap bitmap) {
+    if (mInUse.release(bitmap)) {
+      // 已经不在缓存中，也不再显示，可以复用
+      mPool.put(bitmap);
+    }
+  }
+
+  private synchronized void onBitmapRemoved(Bitmap bitmap) {
+    if (mInUse.onEvicted(bitmap)) {
+      mPool.put(bitmap);
+    }
+  }
+
+  private static int getBitmapSize(Bitmap bitmap) {
+    if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT) {
+      // 复用的 bitmap 实际占用的内存可能比图片大
+      return bitmap.getAllocationByteCount();
+    }
+    return bitmap.getByteCount();
+  }
+}
\ No newline at end of file
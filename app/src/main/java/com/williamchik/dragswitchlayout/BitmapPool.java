@@ -0,0 +1,75 @@
+package com.williamchik.dragswitchlayout;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.os.Build;
+
+import java.lang.ref.SoftReference;
+import java.util.ArrayList;
+
+/**
+ * 可以复用内存的 bitmap 池，解码时通过 {@link BitmapFactory.Options#inBitmap} 把新的图片解码到已有的 bitmap 中，
+ * 不需要重新分配大块内存，减少 GC。池中的 bitmap 都是软引用，内存紧张时可以被回收。线程安全。
+ */
+final class BitmapPool {
+
+  // 池中最多保留的 bitmap 数量
+  private static final int MAX_SIZE = 8;
+  // 解码统一使用 ARGB_8888，每个像素 4 字节
+  private static final int BYTES_PER_PIXEL = 4;
+
+  private final ArrayList<SoftReference<Bitmap>> mBitmaps = new ArrayList<SoftReference<Bitmap>>();
+
+  /**
+   * 放入一个不再显示的 bitmap，只有可变的 bitmap 才能被复用
+   */
+  synchronized void put(Bitmap bitmap) {
+    if (bitmap == null || bitmap.isRecycled() || !bitmap.isMutable()) {
+      return;
+    }
+    if (mBitmaps.size() >= MAX_SIZE) {
+      mBitmaps.remove(0);
+    }
+    mBitmaps.add(new SoftReference<Bitmap>(bitmap));
+  }
+
+  /**
+   * 取出一个可以用于这次解码的 bitmap，取出后不再属于复用池
+   *
+   * @param options 已经解码过尺寸并计算了 inSampleSize 的参数
+   * @return 没有合适的 bitmap 时返回 null
+   */
+  synchronized Bitmap get(BitmapFactory.Options options) {
+    for (int i = mBitmaps.size() - 1; i >= 0; i--) {
+      Bitmap candidate = mBitmaps.get(i).get();
+      if (candidate == null || candidate.isRecycled()) {
+        // 已经被回收
+        mBitmaps.remove(i);
+        continue;
+      }
+      if (canUseForInBitmap(candidate, options)) {
+        mBitmaps.remove(i);
+        return candidate;
+      }
+    }
+    return null;
+  }
+
+  synchronized void clear() {
+    mBitmaps.clear();
+  }
+
+  /**
+   * 4.4 开始只要 bitmap 的内存足够大就可以复用，之前的版本要求尺寸完全相同，并且不能缩放解码
+   */
+  private static boolean canUseForInBitmap(Bitmap candidate, BitmapFactory.Options options) {
+    int sampleSize = Math.max(1, options.inSampleSize);
+    if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT) {
+      // 缩放解码后的尺寸按向上取整估算
+      int width = (options.outWidth + sampleSize - 1) / sampleSize;
+      int height = (options.outHeight + sampleSize - 1) / sampleSize;
+      return (long) width * height * BYTES_PER_PIXEL <= candidate.getAllocationByteCount();
+    }
+    return sampleSize == 1 && candidate.getWidth() == options.outWidth && candidate.getHeight() == options.outHeight;
+  }
+}
\ No newline at end of file
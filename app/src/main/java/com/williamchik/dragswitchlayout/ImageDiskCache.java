@@ -0,0 +1,134 @@
+package com.williamchik.dragswitchlayout;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * 下载图片的磁盘缓存，文件名是 url 的 MD5。超过容量时按最近使用的时间删除最久没有使用的文件。
+ * 已经缓存的图片在没有网络时也可以显示。线程安全。
+ */
+final class ImageDiskCache {
+
+  // 下载中的临时文件后缀，下载完成后才改名为正式的缓存文件
+  private static final String TEMP_SUFFIX = ".tmp";
+  private static final int BUFFER_SIZE = 8 * 1024;
+
+  private final File mDirectory;
+  private final long mMaxSize;
+
+  /**
+   * @param directory 缓存目录
+   * @param maxSize   缓存的容量，单位是字节
+   */
+  ImageDiskCache(File directory, long maxSize) {
+    mDirectory = directory;
+    mMaxSize = maxSize;
+  }
+
+  /**
+   * @return 缓存的文件，没有缓存时返回 null
+   */
+  synchronized File get(String key) {
+    File file = new File(mDirectory, hashKey(key));
+    if (!file.exists()) {
+      return null;
+    }
+    // 更新最近使用的时间
+    file.setLastModified(System.currentTimeMillis());
+    return file;
+  }
+
+  /**
+   * 把输入流写入缓存。先写入临时文件，写完后再改名，写到一半失败时不会留下损坏的缓存
+   *
+   * @return 缓存的文件
+   */
+  File put(String key, InputStream in) throws IOException {
+    String fileName = hashKey(key);
+    if (!mDirectory.exists() && !mDirectory.mkdirs() && !mDirectory.exists()) {
+      throw new IOException("can not create cache directory " + mDirectory);
+    }
+    File tempFile = new File(mDirectory, fileName + "." + Thread.currentThread().getId() + TEMP_SUFFIX);
+    OutputStream out = new FileOutputStream(tempFile);
+    try {
+      byte[] buffer = new byte[BUFFER_SIZE];
+      int count;
+      while ((count = in.read(buffer)) != -1) {
+        out.write(buffer, 0, count);
+      }
+    } catch (IOException e) {
+      out.close();
+      tempFile.delete();
+      throw e;
+    }
+    out.close();
+
+    synchronized (this) {
+      File file = new File(mDirectory, fileName);
+      if (!tempFile.renameTo(file)) {
+        tempFile.delete();
+        throw new IOException("can not rename " + tempFile);
+      }
+      trimToSize();
+      return file;
+    }
+  }
+
+  /**
+   * 删除最久没有使用的文件，直到不超过容量
+   */
+  private void trimToSize() {
+    File[] files = mDirectory.listFiles();
+    if (files == null) {
+      return;
+    }
+    long size = 0;
+    for (File file : files) {
+      size += file.length();
+    }
+    if (size <= mMaxSize) {
+      return;
+    }
+    Arrays.sort(files, new Comparator<File>() {
+
+      @Override
+      public int compare(File lhs, File rhs) {
+        long l = lhs.lastModified();
+        long r = rhs.lastModified();
+        return l < r ? -1 : (l == r ? 0 : 1);
+      }
+    });
+    for (int i = 0; i < files.length && size > mMaxSize; i++) {
+      if (files[i].getName().endsWith(TEMP_SUFFIX)) {
+        // 其他线程正在下载
+        continue;
+      }
+      long length = files[i].length();
+      if (files[i].delete()) {
+        size -= length;
+      }
+    }
+  }
+
+  private static String hashKey(String key) {
+    try {
+      byte[] digest = MessageDigest.getInstance("MD5").digest(key.getBytes("UTF-8"));
+      StringBuilder builder = new StringBuilder(digest.length * 2);
+      for (byte b : digest) {
+        builder.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+      }
+      return builder.toString();
+    } catch (NoSuchAlgorithmException e) {
+      return String.valueOf(key.hashCode());
+    } catch (IOException e) {
+      return String.valueOf(key.hashCode());
+    }
+  }
+}
\ No newline at end of file
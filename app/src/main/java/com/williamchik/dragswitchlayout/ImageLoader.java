@@ -0,0 +1,319 @@
+package com.williamchik.dragswitchlayout;
+
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.res.Configuration;
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import android.util.Log;
+import android.view.ViewGroup;
+import android.widget.ImageView;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.WeakReference;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.WeakHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * 进程内共享的图片加载器。图片在后台线程按 ImageView 的尺寸缩放解码，解码时复用不再显示的 bitmap 的内存。
+ * 解码后的图片放入内存缓存，网络图片同时缓存到磁盘，已经缓存的图片没有网络时也能显示。
+ * 除了后台的解码，只能在主线程中使用。
+ */
+public class ImageLoader implements ComponentCallbacks2 {
+
+  private static final String TAG = "ImageLoader";
+  // 解码线程数
+  private static final int THREAD_COUNT = 2;
+  // 磁盘缓存的容量
+  private static final long DISK_CACHE_SIZE = 20 * 1024 * 1024;
+  private static final int CONNECT_TIMEOUT = 10000;
+  private static final int READ_TIMEOUT = 15000;
+
+  private static ImageLoader sInstance;
+
+  private final Context mAppContext;
+  private final Resources mResources;
+  private final BitmapPool mBitmapPool;
+  private final BitmapMemoryCache mMemoryCache;
+  private final ImageDiskCache mDiskCache;
+  private final ExecutorService mExecutor;
+  private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+  // 每个 ImageView 正在进行的加载请求，同一个 ImageView 只保留最新的请求
+  private final WeakHashMap<ImageView, LoadRequest> mRequests = new WeakHashMap<ImageView, LoadRequest>();
+  // 每个 ImageView 当前显示的由加载器解码的图片
+  private final WeakHashMap<ImageView, Bitmap> mBoundBitmaps = new WeakHashMap<ImageView, Bitmap>();
+
+  private ImageLoader(Context context) {
+    mAppContext = context.getApplicationContext();
+    mResources = mAppContext.getResources();
+    mBitmapPool = new BitmapPool();
+    mMemoryCache = new BitmapMemoryCache(mBitmapPool);
+    mDiskCache = new ImageDiskCache(new File(mAppContext.getCacheDir(), "images"), DISK_CACHE_SIZE);
+    mExecutor = Executors.newFixedThreadPool(THREAD_COUNT, new ThreadFactory() {
+
+      @Override
+      public Thread newThread(final Runnable runnable) {
+        return new Thread(new Runnable() {
+
+          @Override
+          public void run() {
+            // 解码线程使用后台优先级，不和主线程争抢 CPU
+            Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+            runnable.run();
+          }
+        }, TAG);
+      }
+    });
+    // 内存紧张时由系统回调 onTrimMemory()，释放内存缓存
+    mAppContext.registerComponentCallbacks(this);
+  }
+
+  public static ImageLoader getInstance(Context context) {
+    if (sInstance == null) {
+      sInstance = new ImageLoader(context);
+    }
+    return sInstance;
+  }
+
+  /**
+   * 加载资源中的图片
+   */
+  public void load(ImageView imageView, int resId) {
+    load(imageView, null, resId);
+  }
+
+  /**
+   * 加载网络图片，优先使用磁盘缓存
+   */
+  public void load(ImageView imageView, String url) {
+    load(imageView, url, 0);
+  }
+
+  /**
+   * 取消 ImageView 正在进行的加载
+   */
+  public void cancel(ImageView imageView) {
+    LoadRequest request = mRequests.remove(imageView);
+    if (request != null) {
+      request.mCancelled = true;
+    }
+  }
+
+  /**
+   * 取消加载并移除 ImageView 上的图片，图片不再显示后可以被复用。ImageView 不再使用时调用
+   */
+  public void unbind(ImageView imageView) {
+    cancel(imageView);
+    Bitmap bitmap = mBoundBitmaps.remove(imageView);
+    if (bitmap != null) {
+      imageView.setImageDrawable(null);
+      mMemoryCache.release(bitmap);
+    }
+  }
+
+  private void load(ImageView imageView, String url, int resId) {
+    int reqWidth = getTargetSize(imageView.getWidth(), getLayoutParamsWidth(imageView),
+        mResources.getDisplayMetrics().widthPixels);
+    int reqHeight = getTargetSize(imageView.getHeight(), getLayoutParamsHeight(imageView),
+        mResources.getDisplayMetrics().heightPixels);
+    // 同一张图片按不同的尺寸解码，缓存的 key 包含尺寸
+    String key = (url != null ? url : "res:" + resId) + "@" + reqWidth + "x" + reqHeight;
+
+    LoadRequest current = mRequests.get(imageView);
+    if (current != null && current.mKey.equals(key)) {
+      // 同一张图片正在加载
+      return;
+    }
+    cancel(imageView);
+    Bitmap cached = mMemoryCache.getAndAcquire(key);
+    if (cached != null) {
+      bind(imageView, cached);
+      return;
+    }
+    LoadRequest request = new LoadRequest(imageView, key, url, resId, reqWidth, reqHeight);
+    mRequests.put(imageView, request);
+    mExecutor.execute(request);
+  }
+
+  /**
+   * 把图片设置到 ImageView 上，原来的图片不再显示后可以被复用。调用前 bitmap 已经被标记为正在使用，这个标记转交给 ImageView
+   */
+  private void bind(ImageView imageView, Bitmap bitmap) {
+    Bitmap oldBitmap = mBoundBitmaps.put(imageView, bitmap);
+    if (oldBitmap == bitmap) {
+      // 已经在显示，ImageView 只需要一个标记
+      mMemoryCache.release(bitmap);
+      return;
+    }
+    imageView.setImageBitmap(bitmap);
+    if (oldBitmap != null) {
+      mMemoryCache.release(oldBitmap);
+    }
+  }
+
+  /**
+   * 在主线程中把解码结果交给 ImageView，请求已经被取消或者被新的请求替换时丢弃
+   */
+  private void deliver(LoadRequest request, Bitmap bitmap) {
+    if (bitmap == null) {
+      return;
+    }
+    ImageView imageView = request.mImageViewRef.get();
+    if (imageView == null || request.mCancelled || mRequests.get(imageView) != request) {
+      // 解码的图片留在缓存中，不再标记为正在使用
+      mMemoryCache.release(bitmap);
+      return;
+    }
+    mRequests.remove(imageView);
+    bind(imageView, bitmap);
+  }
+
+  /**
+   * 在后台线程中解码，网络图片先查磁盘缓存，没有缓存时下载
+   */
+  private Bitmap decode(LoadRequest request) {
+    if (request.mUrl == null) {
+      return BitmapDecoder.decodeResource(mResources, request.mResId, request.mReqWidth, request.mReqHeight,
+          mBitmapPool);
+    }
+    File file = mDiskCache.get(request.mUrl);
+    if (file != null) {
+      Bitmap bitmap = BitmapDecoder.decodeFile(file.getPath(), request.mReqWidth, request.mReqHeight, mBitmapPool);
+      if (bitmap != null) {
+        return bitmap;
+      }
+      // 缓存文件在 get() 之后被其他线程的 trimToSize() 删除了，或者已经损坏，重新下载
+    }
+    file = download(request.mUrl);
+    if (file == null) {
+      return null;
+    }
+    return BitmapDecoder.decodeFile(file.getPath(), request.mReqWidth, request.mReqHeight, mBitmapPool);
+  }
+
+  private File download(String url) {
+    HttpURLConnection connection = null;
+    try {
+      connection = (HttpURLConnection) new URL(url).openConnection();
+      connection.setConnectTimeout(CONNECT_TIMEOUT);
+      connection.setReadTimeout(READ_TIMEOUT);
+      if (connection.getResponseCode() != HttpURLConnection.HTTP_OK) {
+        Log.w(TAG, "download " + url + " failed, response code " + connection.getResponseCode());
+        return null;
+      }
+      InputStream in = connection.getInputStream();
+      try {
+        return mDiskCache.put(url, in);
+      } finally {
+        in.close();
+      }
+    } catch (IOException e) {
+      Log.w(TAG, "download " + url + " failed", e);
+      return null;
+    } finally {
+      if (connection != null) {
+        connection.disconnect();
+      }
+    }
+  }
+
+  /**
+   * 目标尺寸依次取视图的实际尺寸、LayoutParams 中的固定尺寸和屏幕尺寸
+   */
+  private static int getTargetSize(int viewSize, int paramsSize, int screenSize) {
+    if (viewSize > 0) {
+      return viewSize;
+    }
+    if (paramsSize > 0) {
+      return paramsSize;
+    }
+    return screenSize;
+  }
+
+  private static int getLayoutParamsWidth(ImageView imageView) {
+    ViewGroup.LayoutParams params = imageView.getLayoutParams();
+    return params != null ? params.width : 0;
+  }
+
+  private static int getLayoutParamsHeight(ImageView imageView) {
+    ViewGroup.LayoutParams params = imageView.getLayoutParams();
+    return params != null ? params.height : 0;
+  }
+
+  @Override
+  public void onTrimMemory(int level) {
+    if (level >= TRIM_MEMORY_BACKGROUND) {
+      // 应用已经退到后台，清空内存缓存
+      mMemoryCache.clear();
+      mBitmapPool.clear();
+    } else if (level >= TRIM_MEMORY_RUNNING_LOW) {
+      // 前台运行但内存偏低，释放一半内存缓存
+      mMemoryCache.trimToHalf();
+    }
+  }
+
+  @Override
+  public void onLowMemory() {
+    mMemoryCache.clear();
+    mBitmapPool.clear();
+  }
+
+  @Override
+  public void onConfigurationChanged(Configuration newConfig) {
+  }
+
+  /**
+   * 一次图片加载请求，在解码线程中执行
+   */
+  private class LoadRequest implements Runnable {
+
+    final WeakReference<ImageView> mImageViewRef;
+    final String mKey;
+    final String mUrl;
+    final int mResId;
+    final int mReqWidth;
+    final int mReqHeight;
+    volatile boolean mCancelled;
+
+    LoadRequest(ImageView imageView, String key, String url, int resId, int reqWidth, int reqHeight) {
+      mImageViewRef = new WeakReference<ImageView>(imageView);
+      mKey = key;
+      mUrl = url;
+      mResId = resId;
+      mReqWidth = reqWidth;
+      mReqHeight = reqHeight;
+    }
+
+    @Override
+    public void run() {
+      if (mCancelled) {
+        return;
+      }
+      // 图片在交给 ImageView 之前一直标记为正在使用，不会被淘汰到复用池中被其他解码覆盖
+      Bitmap bitmap = mMemoryCache.getAndAcquire(mKey);
+      if (bitmap == null) {
+        bitmap = decode(this);
+        if (bitmap != null) {
+          mMemoryCache.putAndAcquire(mKey, bitmap);
+        }
+      }
+      final Bitmap result = bitmap;
+      mMainHandler.post(new Runnable() {
+
+        @Override
+        public void run() {
+          deliver(LoadRequest.this, result);
+        }
+      });
+    }
+  }
+}
\ No newline at end of file
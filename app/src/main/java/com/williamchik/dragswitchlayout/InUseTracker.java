@@ -0,0 +1,65 @@
+package com.williamchik.dragswitchlayout;
+
+import java.util.HashMap;
+import java.util.HashSet;
+
+/**
+ * 记录缓存中的对象被多少个使用者持有，决定对象被淘汰后什么时候可以复用：淘汰时没有在使用的立即可以复用，
+ * 仍在使用的等到最后一个使用者释放后才可以复用。
+ * <p/>
+ * 纯计算，不依赖 Bitmap，由 {@link BitmapMemoryCache} 在自己的锁中调用，本身不是线程安全的。
+ */
+final class InUseTracker<T> {
+
+  // 正在使用的对象，以及使用者的数量
+  private final HashMap<T, Integer> mInUse = new HashMap<T, Integer>();
+  // 已经被淘汰但仍在使用的对象
+  private final HashSet<T> mEvictedInUse = new HashSet<T>();
+
+  /**
+   * 增加一个使用者
+   */
+  void acquire(T value) {
+    Integer count = mInUse.get(value);
+    mInUse.put(value, count == null ? 1 : count + 1);
+  }
+
+  /**
+   * 减少一个使用者，没有在使用的对象忽略
+   *
+   * @return 最后一个使用者释放，并且对象已经被淘汰，此时可以复用
+   */
+  boolean release(T value) {
+    Integer count = mInUse.get(value);
+    if (count == null) {
+      return false;
+    }
+    if (count > 1) {
+      mInUse.put(value, count - 1);
+      return false;
+    }
+    mInUse.remove(value);
+    return mEvictedInUse.remove(value);
+  }
+
+  /**
+   * 对象被淘汰出缓存
+   *
+   * @return 没有在使用，可以立即复用；仍在使用时返回 false，最后一次 {@link #release(Object)} 时返回 true
+   */
+  boolean onEvicted(T value) {
+    if (mInUse.containsKey(value)) {
+      mEvictedInUse.add(value);
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * @return 使用者的数量
+   */
+  int getUseCount(T value) {
+    Integer count = mInUse.get(value);
+    return count == null ? 0 : count;
+  }
+}
\ No newline at end of file
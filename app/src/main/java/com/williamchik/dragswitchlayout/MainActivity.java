@@ -7,6 +7,7 @@ import android.support.v4.app.Fragment;
 import android.support.v4.app.FragmentManager;
 import android.support.v7.app.AppCompatActivity;
 import android.support.v7.widget.Toolbar;
+import android.util.Log;
 import android.view.View;
 import android.view.Menu;
 import android.view.MenuItem;
@@ -15,10 +16,15 @@ import com.williamchik.dragswitchlayout.fragment.BottomBarFragment;
 import com.williamchik.dragswitchlayout.fragment.ImgDeatailFragment;
 import com.williamchik.dragswitchlayout.fragment.TitleFragment;
 
+import williamchik.com.dragswitchlayout.BuildConfig;
 import williamchik.com.dragswitchlayout.R;
 
 public class MainActivity extends AppCompatActivity {
 
+  private static final String TAG = "MainActivity";
+  // 顶部视图滑动超过这个比例时开始预加载图文详情
+  private static final float PRELOAD_FRACTION = 0.5f;
+
   // 拖拽自动切换布局的容器
   private DragSwitchLayout mMainContainer;
   // 标题模块
@@ -38,33 +44,71 @@ public class MainActivity extends AppCompatActivity {
   private void initUI() {
     final FragmentManager fragmentManager = getSupportFragmentManager();
     mTitleFragment = (TitleFragment) fragmentManager.findFragmentById(R.id.fragment_good_detail_title);
-    mImgDeatailFragment = new ImgDeatailFragment();
+    // 重建时 FragmentManager 已经恢复了之前加载的图文详情，直接复用，不再重新加载
+    Fragment restoredFragment = fragmentManager.findFragmentById(R.id.sv_good_detail_img_detail_container);
+    if (restoredFragment instanceof ImgDeatailFragment) {
+      mImgDeatailFragment = (ImgDeatailFragment) restoredFragment;
+      mIsFirstLoad = false;
+    } else {
+      mImgDeatailFragment = new ImgDeatailFragment();
+    }
     mMainContainer = (DragSwitchLayout) findViewById(R.id.svc_good_detail_main_container);
-    mMainContainer.setTopViewScrollListener(new CustomScrollView.ScrollListener() {
+    mMainContainer.setHardwareLayerEnabled(true);
+    // 商品详情滚动到底部后继续上滑直接拖拽到图文详情，不需要松手重新拖拽
+    mMainContainer.setNestedScrollMode(true);
+    mMainContainer.addTopViewScrollListener(new DragSwitchLayout.TopViewScrollListener() {
 
       @Override
-      public void onScrollChanged(CustomScrollView scrollView, int l, int t, int oldl, int oldt) {
+      public void onTopViewScrolled(ScrollablePage topPage, int scrollY, int deltaY, float fraction) {
         // 主布局的顶部视图上下滑动时，顶部 fragment 的透明度动态变化
-        mTitleFragment.setAlpha((float) t / (t + scrollView.getScrollToBottomY()));
+        mTitleFragment.setAlpha(fraction);
+      }
+    });
+    mMainContainer.setDragSwitchListener(new DragSwitchLayout.SimpleDragSwitchListener() {
+
+      @Override
+      public void onSettleFinished(int page) {
+        // 页面静止后再切换头部标题，标题的切换动画不和页面的滑动动画争抢帧
+        mTitleFragment.switchTitle(page);
+      }
+    });
+    mImgDeatailFragment.setOnContentReadyListener(new ImgDeatailFragment.OnContentReadyListener() {
+
+      @Override
+      public void onContentReady() {
+        mMainContainer.notifyBottomContentReady();
       }
     });
-    mMainContainer.setDragSwitchListener(new DragSwitchLayout.DragSwitchListener() {
+    mMainContainer.setPreloadListener(PRELOAD_FRACTION, new DragSwitchLayout.PreloadListener() {
 
       @Override
-      public void onDragToBottomView() {
-        // 初次滑动到图文详情，开始加载图文详情模块
+      public void onPreload() {
+        // 顶部视图滑动到一定比例，或者初次滑动到图文详情，开始加载图文详情模块
         if (mIsFirstLoad) {
-          fragmentManager.beginTransaction().replace(R.id.sv_good_detail_img_detail_container, mImgDeatailFragment).commit();
           mIsFirstLoad = false;
+          // 松手切换时也会开始加载，Fragment 的提交等到页面静止后再执行
+          mMainContainer.runWhenIdle(new Runnable() {
+
+            @Override
+            public void run() {
+              fragmentManager.beginTransaction().replace(R.id.sv_good_detail_img_detail_container, mImgDeatailFragment)
+                  .commit();
+            }
+          });
         }
-        // 头部标题切换
-        mTitleFragment.switchTitle();
       }
 
       @Override
-      public void onDragToTopView() {
-        // 头部标题切换
-        mTitleFragment.switchTitle();
+      public void onPreloadCancelled() {
+        mImgDeatailFragment.stopLoading();
+      }
+
+      @Override
+      public void onBottomContentShown(long latencyMillis) {
+        // 只在调试包中输出，release 包不拼接日志字符串
+        if (BuildConfig.DEBUG) {
+          Log.d(TAG, "img detail shown in " + latencyMillis + "ms");
+        }
       }
     });
   }
@@ -0,0 +1,151 @@
+package com.williamchik.dragswitchlayout;
+
+import android.support.v4.view.ViewCompat;
+import android.view.View;
+import android.view.ViewTreeObserver;
+import android.widget.ImageView;
+
+import java.util.ArrayList;
+
+/**
+ * 只加载视口附近图片的加载器，适合放在 CustomScrollView 这类长页面中的多张大图。
+ * 图片先登记，滚动或者布局变化时只加载上下各一屏范围内的图片，离得远的图片等滚动到附近时再加载。
+ * 只能在主线程中使用。
+ */
+public class ViewportImageLoader {
+
+  private final View mHost;
+  private final ImageLoader mImageLoader;
+  // 还没有开始加载的图片
+  private final ArrayList<Entry> mPendingEntries = new ArrayList<Entry>();
+  // 已经开始加载的图片，释放时解除绑定
+  private final ArrayList<ImageView> mLoadedViews = new ArrayList<ImageView>();
+  private final int[] mLocation = new int[2];
+  private final ViewTreeObserver.OnScrollChangedListener mOnScrollChangedListener =
+      new ViewTreeObserver.OnScrollChangedListener() {
+
+        @Override
+        public void onScrollChanged() {
+          checkViewport();
+        }
+      };
+  private final ViewTreeObserver.OnGlobalLayoutListener mOnGlobalLayoutListener =
+      new ViewTreeObserver.OnGlobalLayoutListener() {
+
+        @Override
+        public void onGlobalLayout() {
+          checkViewport();
+        }
+      };
+  private final View.OnAttachStateChangeListener mOnAttachStateChangeListener = new View.OnAttachStateChangeListener() {
+
+    @Override
+    public void onViewAttachedToWindow(View v) {
+      registerTreeObserver();
+    }
+
+    @Override
+    public void onViewDetachedFromWindow(View v) {
+      unregisterTreeObserver();
+    }
+  };
+
+  /**
+   * @param host 图片所在页面的根视图，它的滚动和布局变化会触发检查
+   */
+  public ViewportImageLoader(View host) {
+    mHost = host;
+    mImageLoader = ImageLoader.getInstance(host.getContext());
+    mHost.addOnAttachStateChangeListener(mOnAttachStateChangeListener);
+    if (ViewCompat.isAttachedToWindow(mHost)) {
+      registerTreeObserver();
+    }
+  }
+
+  /**
+   * 登记一张网络图片
+   */
+  public void add(ImageView imageView, String url) {
+    mPendingEntries.add(new Entry(imageView, url, 0));
+    checkViewport();
+  }
+
+  /**
+   * 登记一张资源中的图片
+   */
+  public void add(ImageView imageView, int resId) {
+    mPendingEntries.add(new Entry(imageView, null, resId));
+    checkViewport();
+  }
+
+  /**
+   * 页面销毁时调用，取消还没有完成的加载，已经显示的图片可以被复用
+   */
+  public void release() {
+    unregisterTreeObserver();
+    mHost.removeOnAttachStateChangeListener(mOnAttachStateChangeListener);
+    for (int i = 0; i < mLoadedViews.size(); i++) {
+      mImageLoader.unbind(mLoadedViews.get(i));
+    }
+    mLoadedViews.clear();
+    mPendingEntries.clear();
+  }
+
+  private void registerTreeObserver() {
+    ViewTreeObserver observer = mHost.getViewTreeObserver();
+    observer.addOnScrollChangedListener(mOnScrollChangedListener);
+    observer.addOnGlobalLayoutListener(mOnGlobalLayoutListener);
+  }
+
+  private void unregisterTreeObserver() {
+    ViewTreeObserver observer = mHost.getViewTreeObserver();
+    observer.removeOnScrollChangedListener(mOnScrollChangedListener);
+    observer.removeOnGlobalLayoutListener(mOnGlobalLayoutListener);
+  }
+
+  /**
+   * 加载进入视口上下各一屏范围内的图片
+   */
+  private void checkViewport() {
+    if (mPendingEntries.isEmpty() || !ViewCompat.isAttachedToWindow(mHost)) {
+      return;
+    }
+    int windowHeight = mHost.getRootView().getHeight();
+    if (windowHeight <= 0) {
+      // 还没有完成 layout
+      return;
+    }
+    for (int i = mPendingEntries.size() - 1; i >= 0; i--) {
+      Entry entry = mPendingEntries.get(i);
+      entry.mImageView.getLocationInWindow(mLocation);
+      int top = mLocation[1];
+      int bottom = top + entry.mImageView.getHeight();
+      if (bottom < -windowHeight || top > windowHeight * 2) {
+        continue;
+      }
+      mPendingEntries.remove(i);
+      mLoadedViews.add(entry.mImageView);
+      if (entry.mUrl != null) {
+        mImageLoader.load(entry.mImageView, entry.mUrl);
+      } else {
+        mImageLoader.load(entry.mImageView, entry.mResId);
+      }
+    }
+  }
+
+  /**
+   * 登记的图片
+   */
+  private static class Entry {
+
+    final ImageView mImageView;
+    final String mUrl;
+    final int mResId;
+
+    Entry(ImageView imageView, String url, int resId) {
+      mImageView = imageView;
+      mUrl = url;
+      mResId = resId;
+    }
+  }
+}
\ No newline at end of file
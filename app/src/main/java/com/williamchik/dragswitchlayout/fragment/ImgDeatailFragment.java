@@ -1,6 +1,12 @@
 package com.williamchik.dragswitchlayout.fragment;
 
+import android.os.Bundle;
+import android.view.ViewGroup;
 import android.webkit.WebView;
+import android.webkit.WebViewClient;
+
+import com.williamchik.dragswitchlayout.CustomWebView;
+import com.williamchik.dragswitchlayout.CustomWebViewPool;
 
 import williamchik.com.dragswitchlayout.R;
 
@@ -11,8 +17,25 @@ import williamchik.com.dragswitchlayout.R;
  */
 public class ImgDeatailFragment extends BaseBizFragment {
 
-  // 图文详情 WebView
-  private WebView mWebView;
+  // 保存 WebView 状态的 key
+  private static final String STATE_WEB_VIEW = "img_detail_web_view";
+  // 图文详情的地址
+  private static final String URL = "https://app.bishe.com//?fenlicore_c=goods&fenlicore_a=goodsDesc&m=wap&goodsId=64";
+
+  // 图文详情 WebView，从 CustomWebViewPool 中复用
+  private CustomWebView mWebView;
+  // 图文详情加载完成的监听
+  private OnContentReadyListener mOnContentReadyListener;
+  // 保存的 WebView 状态，重建时恢复，不再重新加载图文详情
+  private Bundle mWebViewState;
+
+  @Override
+  public void onCreate(Bundle savedInstanceState) {
+    super.onCreate(savedInstanceState);
+    if (savedInstanceState != null) {
+      mWebViewState = savedInstanceState.getBundle(STATE_WEB_VIEW);
+    }
+  }
 
   @Override
   protected int getFragmentResId() {
@@ -21,7 +44,71 @@ public class ImgDeatailFragment extends BaseBizFragment {
 
   @Override
   protected void initUI() {
-    mWebView = (WebView) mRootView.findViewById(R.id.wv_good_detail_desc_webview);
-    mWebView.loadUrl("https://app.bishe.com//?fenlicore_c=goods&fenlicore_a=goodsDesc&m=wap&goodsId=64");
+    ViewGroup container = (ViewGroup) mRootView.findViewById(R.id.fl_good_detail_desc_webview_container);
+    mWebView = CustomWebViewPool.getInstance(getActivity()).obtain(getActivity());
+    container.addView(mWebView, new ViewGroup.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT,
+        ViewGroup.LayoutParams.WRAP_CONTENT));
+    mWebView.setWebViewClient(new WebViewClient() {
+
+      @Override
+      public void onPageFinished(WebView view, String url) {
+        if (mOnContentReadyListener != null) {
+          mOnContentReadyListener.onContentReady();
+        }
+      }
+    });
+    // 旋转屏幕等重建时恢复之前加载的页面和历史记录，恢复失败时才重新加载
+    boolean restored = mWebViewState != null && mWebView.restoreState(mWebViewState) != null;
+    mWebViewState = null;
+    if (!restored) {
+      mWebView.loadUrl(URL);
+    }
+  }
+
+  @Override
+  public void onSaveInstanceState(Bundle outState) {
+    super.onSaveInstanceState(outState);
+    Bundle webViewState = mWebViewState;
+    if (mWebView != null) {
+      webViewState = new Bundle();
+      mWebView.saveState(webViewState);
+    }
+    if (webViewState != null) {
+      outState.putBundle(STATE_WEB_VIEW, webViewState);
+    }
+  }
+
+  @Override
+  public void onDestroyView() {
+    super.onDestroyView();
+    // WebView 放回复用池，供下一个详情页使用
+    if (mWebView != null) {
+      // 视图销毁后 fragment 仍可能保存状态，例如在回退栈中，先保存 WebView 的状态再放回复用池
+      mWebViewState = new Bundle();
+      mWebView.saveState(mWebViewState);
+      CustomWebViewPool.getInstance(getActivity()).release(mWebView);
+      mWebView = null;
+    }
+  }
+
+  public void setOnContentReadyListener(OnContentReadyListener onContentReadyListener) {
+    mOnContentReadyListener = onContentReadyListener;
+  }
+
+  /**
+   * 停止加载图文详情，预加载被取消时调用
+   */
+  public void stopLoading() {
+    if (mWebView != null) {
+      mWebView.stopLoading();
+    }
+  }
+
+  /**
+   * 图文详情加载完成的监听器
+   */
+  public interface OnContentReadyListener {
+
+    void onContentReady();
   }
 }
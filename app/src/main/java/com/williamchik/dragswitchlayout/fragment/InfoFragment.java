@@ -3,6 +3,8 @@ package com.williamchik.dragswitchlayout.fragment;
 import android.util.DisplayMetrics;
 import android.widget.ImageView;
 
+import com.williamchik.dragswitchlayout.ViewportImageLoader;
+
 import williamchik.com.dragswitchlayout.R;
 
 /**
@@ -12,6 +14,9 @@ import williamchik.com.dragswitchlayout.R;
  */
 public class InfoFragment extends BaseBizFragment {
 
+  // 商品图片只在滚动到附近时才按显示尺寸解码
+  private ViewportImageLoader mViewportImageLoader;
+
   @Override
   protected int getFragmentResId() {
     return R.layout.info_fragment;
@@ -22,5 +27,16 @@ public class InfoFragment extends BaseBizFragment {
     ImageView img = (ImageView) mRootView.findViewById(R.id.img);
     DisplayMetrics metrics = getActivity().getApplicationContext().getResources().getDisplayMetrics();
     img.getLayoutParams().height = metrics.widthPixels;
+    mViewportImageLoader = new ViewportImageLoader(mRootView);
+    mViewportImageLoader.add(img, R.drawable.detail_img);
+  }
+
+  @Override
+  public void onDestroyView() {
+    super.onDestroyView();
+    if (mViewportImageLoader != null) {
+      mViewportImageLoader.release();
+      mViewportImageLoader = null;
+    }
   }
 }
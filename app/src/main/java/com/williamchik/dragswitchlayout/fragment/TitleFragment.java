@@ -1,8 +1,7 @@
 package com.williamchik.dragswitchlayout.fragment;
 
-import android.view.View;
-
 import com.williamchik.dragswitchlayout.AutoSwitchLayout;
+import com.williamchik.dragswitchlayout.ViewAlphaFader;
 
 import williamchik.com.dragswitchlayout.R;
 
@@ -13,10 +12,11 @@ import williamchik.com.dragswitchlayout.R;
  */
 public class TitleFragment extends BaseBizFragment {
 
-  private View mMainContainer;
   private AutoSwitchLayout mAutoSwitchLayout;
-  private View mOvalBackBtn;
-  private View mDivider;
+  // 标题栏主体的透明度渐变，分割线在主体内部，跟随主体一起渐变
+  private ViewAlphaFader mMainContainerFader;
+  // 圆形返回按钮的透明度渐变，和标题栏主体相反
+  private ViewAlphaFader mOvalBackBtnFader;
 
   @Override
   protected int getFragmentResId() {
@@ -25,11 +25,9 @@ public class TitleFragment extends BaseBizFragment {
 
   @Override
   protected void initUI() {
-    mMainContainer = mRootView.findViewById(R.id.ll_good_detail_header_main_container);
-    mMainContainer.setAlpha(0);
-    mDivider = mRootView.findViewById(R.id.v_good_detail_header_divider);
-    mDivider.setAlpha(0);
-    mOvalBackBtn = mRootView.findViewById(R.id.iv_good_detail_oval_back_btn);
+    mMainContainerFader = new ViewAlphaFader(mRootView.findViewById(R.id.ll_good_detail_header_main_container));
+    mOvalBackBtnFader = new ViewAlphaFader(mRootView.findViewById(R.id.iv_good_detail_oval_back_btn));
+    setAlpha(0);
     mAutoSwitchLayout = (AutoSwitchLayout) mRootView.findViewById(R.id.good_detail_auto_switch_layout);
   }
 
@@ -39,15 +37,22 @@ public class TitleFragment extends BaseBizFragment {
    * @param alpha alpha 值
    */
   public void setAlpha(float alpha) {
-    mMainContainer.setAlpha(alpha);
-    mDivider.setAlpha(alpha);
-    mOvalBackBtn.setAlpha(1 - alpha);
+    // 量化后没有变化的透明度不会修改视图
+    mMainContainerFader.setAlpha(alpha);
+    mOvalBackBtnFader.setAlpha(1 - alpha);
   }
 
   /**
-   * 头部 title 切换
+   * 头部 title 切换，切换到后面的标题时向上滚动，切换到前面的标题时向下滚动。
+   * 页面可能比标题多（例如 Adapter 提供的页面），超出范围的位置显示最后一个标题
+   *
+   * @param index 标题的位置，通常就是页面的位置
    */
-  public void switchTitle() {
-    mAutoSwitchLayout.switchView();
+  public void switchTitle(int index) {
+    int titleCount = mAutoSwitchLayout.getChildCount();
+    if (titleCount == 0) {
+      return;
+    }
+    mAutoSwitchLayout.switchTo(Math.max(0, Math.min(index, titleCount - 1)));
   }
 }
@@ -0,0 +1,38 @@
+package com.williamchik.dragswitchlayout;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * {@link BitmapDecoder#calculateInSampleSize(int, int, int, int)} 的测试：取最大的 2 的幂，解码后的宽高都不小于目标尺寸。
+ */
+public class BitmapDecoderTest {
+
+  @Test
+  public void sampleSize_isOneWhenImageIsNotLarger() {
+    assertEquals(1, BitmapDecoder.calculateInSampleSize(400, 300, 400, 300));
+    assertEquals(1, BitmapDecoder.calculateInSampleSize(200, 100, 400, 300));
+  }
+
+  @Test
+  public void sampleSize_isLargestPowerOfTwoKeepingBothSides() {
+    // 4000 / 8 = 500 >= 480，3000 / 8 = 375 >= 360，再翻倍后宽高都小于目标尺寸
+    assertEquals(8, BitmapDecoder.calculateInSampleSize(4000, 3000, 480, 360));
+    // 正好等于目标尺寸时仍然可以翻倍
+    assertEquals(4, BitmapDecoder.calculateInSampleSize(1600, 1200, 400, 300));
+  }
+
+  @Test
+  public void sampleSize_isLimitedByTheTighterSide() {
+    // 宽度还可以缩小到 1/16，高度只能缩小到 1/2，centerCrop 显示时高度不能模糊
+    assertEquals(2, BitmapDecoder.calculateInSampleSize(8000, 800, 400, 400));
+    assertEquals(2, BitmapDecoder.calculateInSampleSize(800, 8000, 400, 400));
+  }
+
+  @Test
+  public void sampleSize_isOneWithoutTargetSize() {
+    assertEquals(1, BitmapDecoder.calculateInSampleSize(4000, 3000, 0, 300));
+    assertEquals(1, BitmapDecoder.calculateInSampleSize(4000, 3000, 400, -1));
+  }
+}
\ No newline at end of file
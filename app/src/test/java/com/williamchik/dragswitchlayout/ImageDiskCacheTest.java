@@ -0,0 +1,145 @@
+package com.williamchik.dragswitchlayout;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * {@link ImageDiskCache} 的测试，缓存目录是每个测试单独的临时目录。
+ */
+public class ImageDiskCacheTest {
+
+  private static final int FILE_SIZE = 100;
+  // 可以放下两个文件
+  private static final long MAX_SIZE = 2 * FILE_SIZE + FILE_SIZE / 2;
+
+  private File mDirectory;
+  private ImageDiskCache mCache;
+
+  @Before
+  public void setUp() throws IOException {
+    mDirectory = File.createTempFile("image-cache", "");
+    assertTrue(mDirectory.delete());
+    mCache = new ImageDiskCache(mDirectory, MAX_SIZE);
+  }
+
+  @After
+  public void tearDown() {
+    File[] files = mDirectory.listFiles();
+    if (files != null) {
+      for (File file : files) {
+        file.delete();
+      }
+    }
+    mDirectory.delete();
+  }
+
+  @Test
+  public void put_writesContentAndLeavesNoTempFile() throws IOException {
+    assertNull(mCache.get("a"));
+    File file = mCache.put("a", content(FILE_SIZE, 7));
+
+    assertEquals(file, mCache.get("a"));
+    assertEquals(FILE_SIZE, file.length());
+    assertEquals(7, readFirstByte(file));
+    assertEquals(1, mDirectory.listFiles().length);
+    assertFalse(file.getName().endsWith(".tmp"));
+  }
+
+  @Test
+  public void failedPut_leavesNoFile() throws IOException {
+    InputStream failing = new InputStream() {
+
+      private int mRead;
+
+      @Override
+      public int read() throws IOException {
+        if (++mRead > FILE_SIZE / 2) {
+          throw new IOException("connection reset");
+        }
+        return 1;
+      }
+    };
+    try {
+      mCache.put("a", failing);
+      fail("put should fail");
+    } catch (IOException expected) {
+      // 写到一半失败
+    }
+    assertNull(mCache.get("a"));
+    assertEquals(0, mDirectory.listFiles().length);
+  }
+
+  @Test
+  public void put_replacesExistingFile() throws IOException {
+    mCache.put("a", content(FILE_SIZE, 1));
+    File file = mCache.put("a", content(FILE_SIZE, 2));
+    assertEquals(2, readFirstByte(file));
+    assertEquals(1, mDirectory.listFiles().length);
+  }
+
+  @Test
+  public void trim_deletesLeastRecentlyUsed() throws IOException {
+    File a = mCache.put("a", content(FILE_SIZE, 1));
+    File b = mCache.put("b", content(FILE_SIZE, 2));
+    // a 先写入，b 后写入；之后读取 a，a 变为最近使用的
+    long now = System.currentTimeMillis();
+    assertTrue(a.setLastModified(now - 20000));
+    assertTrue(b.setLastModified(now - 10000));
+    assertNotNull(mCache.get("a"));
+
+    File c = mCache.put("c", content(FILE_SIZE, 3));
+    assertTrue(a.exists());
+    assertFalse(b.exists());
+    assertTrue(c.exists());
+    assertNull(mCache.get("b"));
+  }
+
+  @Test
+  public void trim_keepsOtherThreadsTempFiles() throws IOException {
+    mCache.put("a", content(FILE_SIZE, 1));
+    // 其他线程正在下载的临时文件，最久没有修改也不删除
+    File temp = new File(mDirectory, "downloading.99.tmp");
+    FileOutputStream out = new FileOutputStream(temp);
+    out.write(new byte[FILE_SIZE]);
+    out.close();
+    assertTrue(temp.setLastModified(System.currentTimeMillis() - 60000));
+
+    File b = mCache.put("b", content(FILE_SIZE, 2));
+    assertTrue(temp.exists());
+    assertTrue(b.exists());
+    // 只能删除缓存文件来腾出空间
+    assertNull(mCache.get("a"));
+  }
+
+  private static InputStream content(int size, int value) {
+    byte[] bytes = new byte[size];
+    for (int i = 0; i < size; i++) {
+      bytes[i] = (byte) value;
+    }
+    return new ByteArrayInputStream(bytes);
+  }
+
+  private static int readFirstByte(File file) throws IOException {
+    InputStream in = new FileInputStream(file);
+    try {
+      return in.read();
+    } finally {
+      in.close();
+    }
+  }
+}
\ No newline at end of file
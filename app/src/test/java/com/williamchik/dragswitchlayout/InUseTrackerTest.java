@@ -0,0 +1,73 @@
+package com.williamchik.dragswitchlayout;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link InUseTracker} 的测试，对应 {@link BitmapMemoryCache} 中 bitmap 什么时候可以放入复用池。
+ */
+public class InUseTrackerTest {
+
+  private final InUseTracker<Object> mTracker = new InUseTracker<Object>();
+  private final Object mBitmap = new Object();
+
+  @Test
+  public void evictedWhileUnused_isPooledImmediately() {
+    assertTrue(mTracker.onEvicted(mBitmap));
+  }
+
+  @Test
+  public void evictedWhileBound_isPooledOnlyAfterLastRelease() {
+    // 两个 ImageView 显示同一张图片
+    mTracker.acquire(mBitmap);
+    mTracker.acquire(mBitmap);
+    assertEquals(2, mTracker.getUseCount(mBitmap));
+
+    assertFalse(mTracker.onEvicted(mBitmap));
+    assertFalse(mTracker.release(mBitmap));
+    assertEquals(1, mTracker.getUseCount(mBitmap));
+    assertTrue(mTracker.release(mBitmap));
+    assertEquals(0, mTracker.getUseCount(mBitmap));
+
+    // 已经放入复用池，多余的 release 不会再放一次
+    assertFalse(mTracker.release(mBitmap));
+  }
+
+  @Test
+  public void releasedBeforeEviction_isPooledOnEviction() {
+    mTracker.acquire(mBitmap);
+    assertFalse(mTracker.release(mBitmap));
+    assertTrue(mTracker.onEvicted(mBitmap));
+  }
+
+  @Test
+  public void reacquiredAfterRelease_isNotPooledByOldEviction() {
+    mTracker.acquire(mBitmap);
+    assertFalse(mTracker.onEvicted(mBitmap));
+    assertTrue(mTracker.release(mBitmap));
+
+    // 同一个对象之后重新被缓存和使用，之前的淘汰记录已经清除，释放时不会再次复用
+    mTracker.acquire(mBitmap);
+    assertFalse(mTracker.release(mBitmap));
+  }
+
+  @Test
+  public void releaseWithoutAcquire_isIgnored() {
+    assertFalse(mTracker.release(mBitmap));
+    assertEquals(0, mTracker.getUseCount(mBitmap));
+  }
+
+  @Test
+  public void trackedObjects_areIndependent() {
+    Object other = new Object();
+    mTracker.acquire(mBitmap);
+    mTracker.acquire(other);
+    assertFalse(mTracker.onEvicted(mBitmap));
+    assertFalse(mTracker.release(other));
+    assertTrue(mTracker.onEvicted(other));
+    assertTrue(mTracker.release(mBitmap));
+  }
+}
\ No newline at end of file
@@ -0,0 +1,401 @@
+package com.williamchik.dragswitchlayout;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Rect;
+import android.os.Parcel;
+import android.os.Parcelable;
+import android.os.SystemClock;
+import android.support.v4.view.ViewCompat;
+import android.util.AttributeSet;
+import android.view.View;
+import android.view.animation.AnimationUtils;
+import android.widget.RelativeLayout;
+
+/**
+ * 带滚动效果的视图切换容器，可以在任意数量的子视图间轮流切换，支持垂直和水平两种切换方向，切换的排队和进度由 {@link SwitchStepQueue} 计算。
+ * <p/>
+ * 所有子视图都布局在同一个位置，切换时只有正在离开和正在进入的两个子视图通过 translation 移动，其他子视图不参与绘制。
+ * 切换动画进行中收到的新切换不会被丢弃：{@link #switchToNext()} 和 {@link #switchToPrevious()} 会排队，当前动画结束后接着切换；
+ * {@link #switchTo(int)} 会改变最终要到达的视图，如果方向相反，当前动画从当前位置直接掉头。排队的切换会适当缩短动画时长。
+ * 所有切换共用一个动画，动画只根据帧时间计算进度，过程中不分配对象。
+ *
+ * @author WilliamChik on 2016/01/12 16:30.
+ */
+public class AutoSwitchLayout extends RelativeLayout {
+
+  // 水平切换，下一个视图从右侧进入，和 DragSwitchLayout.HORIZONTAL 取值相同
+  public static final int HORIZONTAL = SwitchOrientation.HORIZONTAL;
+  // 垂直切换，下一个视图从底部进入，和 DragSwitchLayout.VERTICAL 取值相同
+  public static final int VERTICAL = SwitchOrientation.VERTICAL;
+
+  // 当前视图、正在进入的视图、排队的切换和切换进度
+  private final SwitchStepQueue mQueue = new SwitchStepQueue();
+  // 切换动画的帧统计
+  private FrameMetricsTracker mFrameMetricsTracker;
+  // 切换方向
+  private int mOrientation = VERTICAL;
+  // 定时轮播的调度器，跟随视图的生命周期暂停和恢复
+  private RotationScheduler mRotationScheduler;
+  // 轮播时判断是否在屏幕上可见
+  private final Rect mVisibleRect = new Rect();
+
+  public AutoSwitchLayout(Context context) {
+    super(context);
+    init(context);
+  }
+
+  public AutoSwitchLayout(Context context, AttributeSet attrs) {
+    super(context, attrs);
+    init(context);
+  }
+
+  private void init(Context context) {
+    mFrameMetricsTracker = new FrameMetricsTracker(context);
+    mRotationScheduler = new RotationScheduler(new RotationScheduler.Timer() {
+
+      @Override
+      public long uptimeMillis() {
+        return SystemClock.uptimeMillis();
+      }
+
+      @Override
+      public void postDelayed(Runnable runnable, long delayMillis) {
+        AutoSwitchLayout.this.postDelayed(runnable, delayMillis);
+      }
+
+      @Override
+      public void removeCallbacks(Runnable runnable) {
+        AutoSwitchLayout.this.removeCallbacks(runnable);
+      }
+    }, new Runnable() {
+
+      @Override
+      public void run() {
+        // 被滑出屏幕时跳过这一次轮播，不浪费绘制
+        if (getLocalVisibleRect(mVisibleRect)) {
+          switchToNext();
+        }
+      }
+    });
+  }
+
+  /**
+   * 开始定时轮播，每隔 intervalMillis 切换到下一个视图。视图离开窗口、不可见或者窗口失去焦点时自动暂停，恢复后继续
+   */
+  public void startAutoSwitch(long intervalMillis) {
+    mRotationScheduler.start(intervalMillis);
+  }
+
+  /**
+   * 停止定时轮播
+   */
+  public void stopAutoSwitch() {
+    mRotationScheduler.stop();
+  }
+
+  /**
+   * 设置切换动画的帧统计数据的接收者，每次切换动画结束时回调一次。为空时不做统计
+   */
+  public void setFrameMetricsSink(SwitchFrameMetrics.Sink sink) {
+    mFrameMetricsTracker.setSink(sink);
+  }
+
+  /**
+   * 设置切换方向，{@link #VERTICAL} 或 {@link #HORIZONTAL}，默认是垂直切换。正在进行的切换会直接结束
+   */
+  public void setOrientation(int orientation) {
+    SwitchOrientation.checkOrientation(orientation);
+    if (orientation == mOrientation) {
+      return;
+    }
+    finishSwitching();
+    mOrientation = orientation;
+    resetChildPositions();
+  }
+
+  public int getOrientation() {
+    return mOrientation;
+  }
+
+  /**
+   * @return 当前显示的视图位置，动画进行中返回即将显示的视图位置
+   */
+  public int getCurrentIndex() {
+    return mQueue.getTargetIndex();
+  }
+
+  /**
+   * 切换到下一个视图，最后一个视图之后回到第一个视图。动画进行中调用时排队，当前动画结束后再切换
+   */
+  public void switchToNext() {
+    mQueue.enqueue(1);
+    startNextStepIfIdle();
+  }
+
+  /**
+   * 切换到上一个视图，第一个视图之前回到最后一个视图。动画进行中调用时排队，当前动画结束后再切换
+   */
+  public void switchToPrevious() {
+    mQueue.enqueue(-1);
+    startNextStepIfIdle();
+  }
+
+  /**
+   * 切换到指定的视图，位置比当前视图大时向后切换，否则向前切换，中间的视图依次经过。
+   * 动画进行中调用时，之前排队的切换被取消，改为切换到这个视图
+   */
+  public void switchTo(int index) {
+    if (index < 0 || index >= getChildCount()) {
+      throw new IndexOutOfBoundsException("index " + index + " out of range, child count " + getChildCount());
+    }
+    if (mQueue.switchTo(index, getSwitchSize(), AnimationUtils.currentAnimationTimeMillis())) {
+      // 当前动画掉头，正在进入的视图变为正在离开的视图，从当前位置滑回去
+      applySwitchProgress(mQueue.getProgress());
+    } else {
+      startNextStepIfIdle();
+    }
+  }
+
+  /**
+   * 切换显示的视图，兼容原来在两个视图间切换的用法，等同于 {@link #switchToNext()}
+   */
+  public void switchView() {
+    switchToNext();
+  }
+
+  /**
+   * 布局尺寸变化时，正在进行的切换动画按新的尺寸重新计算位置
+   */
+  @Override
+  protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+    super.onSizeChanged(w, h, oldw, oldh);
+    int size = SwitchOrientation.along(mOrientation, w, h);
+    int oldSize = SwitchOrientation.along(mOrientation, oldw, oldh);
+    mQueue.resize(oldSize, size, AnimationUtils.currentAnimationTimeMillis());
+  }
+
+  @Override
+  protected void onLayout(boolean changed, int l, int t, int r, int b) {
+    // 所有子视图布局在同一个位置，切换时只通过 translation 移动
+    int childCount = getChildCount();
+    for (int i = 0; i < childCount; i++) {
+      getChildAt(i).layout(0, 0, r - l, b - t);
+    }
+    if (mQueue.getCurrentIndex() >= childCount) {
+      // 子视图被移除，回到第一个视图
+      finishSwitching();
+      mQueue.setCurrentIndex(0);
+    }
+    if (mQueue.isSwitching()) {
+      applySwitchProgress(mQueue.getProgress());
+    } else {
+      resetChildPositions();
+    }
+  }
+
+  @Override
+  protected void onAttachedToWindow() {
+    super.onAttachedToWindow();
+    mRotationScheduler.setVisible(isShown() && getWindowVisibility() == VISIBLE);
+    mRotationScheduler.setWindowFocused(hasWindowFocus());
+    mRotationScheduler.setAttached(true);
+  }
+
+  @Override
+  protected void onDetachedFromWindow() {
+    super.onDetachedFromWindow();
+    mRotationScheduler.setAttached(false);
+  }
+
+  @Override
+  protected void onVisibilityChanged(View changedView, int visibility) {
+    super.onVisibilityChanged(changedView, visibility);
+    // 自己或者任意一个父视图的可见性变化都会回调到这里，部分系统版本在构造过程中就会回调
+    if (mRotationScheduler != null) {
+      mRotationScheduler.setVisible(isShown() && getWindowVisibility() == VISIBLE);
+    }
+  }
+
+  @Override
+  protected void onWindowVisibilityChanged(int visibility) {
+    super.onWindowVisibilityChanged(visibility);
+    mRotationScheduler.setVisible(isShown() && visibility == VISIBLE);
+  }
+
+  @Override
+  public void onWindowFocusChanged(boolean hasWindowFocus) {
+    super.onWindowFocusChanged(hasWindowFocus);
+    mRotationScheduler.setWindowFocused(hasWindowFocus);
+  }
+
+  @Override
+  protected Parcelable onSaveInstanceState() {
+    SavedState ss = new SavedState(super.onSaveInstanceState());
+    ss.mCurrentIndex = getCurrentIndex();
+    return ss;
+  }
+
+  /**
+   * 恢复状态时直接显示保存的视图，没有切换动画
+   */
+  @Override
+  protected void onRestoreInstanceState(Parcelable state) {
+    if (!(state instanceof SavedState)) {
+      super.onRestoreInstanceState(state);
+      return;
+    }
+    SavedState ss = (SavedState) state;
+    super.onRestoreInstanceState(ss.getSuperState());
+    finishSwitching();
+    mQueue.setCurrentIndex(Math.max(0, Math.min(ss.mCurrentIndex, getChildCount() - 1)));
+    resetChildPositions();
+  }
+
+  @Override
+  protected void onFinishInflate() {
+    super.onFinishInflate();
+    if (getChildCount() < 2) {
+      throw new IllegalStateException("AutoSwitchLayout must host at least 2 elements");
+    }
+  }
+
+  /**
+   * 只绘制当前显示的视图，以及切换过程中正在进入的视图，其他视图都在布局之外
+   */
+  @Override
+  protected boolean drawChild(Canvas canvas, View child, long drawingTime) {
+    if (child != getChildAt(mQueue.getCurrentIndex())
+        && (!mQueue.isSwitching() || child != getChildAt(mQueue.getNextIndex()))) {
+      return false;
+    }
+    return super.drawChild(canvas, child, drawingTime);
+  }
+
+  @Override
+  public void computeScroll() {
+    if (!mQueue.isSwitching()) {
+      return;
+    }
+    long computeBegin = mFrameMetricsTracker.beginCompute();
+    // 当前的切换结束时，有排队的切换直接开始下一次切换
+    int result = mQueue.computeFrame(getChildCount(), getSwitchSize(), AnimationUtils.currentAnimationTimeMillis());
+    if (result == SwitchStepQueue.FRAME_MOVED) {
+      applySwitchProgress(mQueue.getProgress());
+    } else {
+      // 上一个离开的视图已经移出布局，不再绘制
+      resetChildPositions();
+      if (result == SwitchStepQueue.FRAME_NEXT_STEP) {
+        applySwitchProgress(0);
+      }
+    }
+    mFrameMetricsTracker.endCompute(computeBegin);
+    if (result == SwitchStepQueue.FRAME_FINISHED) {
+      mFrameMetricsTracker.end();
+    } else {
+      ViewCompat.postInvalidateOnAnimation(this);
+    }
+  }
+
+  /**
+   * 没有正在进行的切换时，开始排队的切换
+   */
+  private void startNextStepIfIdle() {
+    if (mQueue.startIfIdle(getChildCount(), getSwitchSize(), AnimationUtils.currentAnimationTimeMillis())) {
+      mFrameMetricsTracker.begin(SwitchFrameMetrics.SESSION_AUTO_SWITCH);
+      applySwitchProgress(0);
+      // start() 并不会启动动画，需要触发重绘，在 computeScroll() 中逐帧计算
+      ViewCompat.postInvalidateOnAnimation(this);
+    }
+  }
+
+  /**
+   * 直接结束正在进行的切换和所有排队的切换
+   */
+  private void finishSwitching() {
+    if (mQueue.finish()) {
+      resetChildPositions();
+      mFrameMetricsTracker.end();
+    }
+  }
+
+  /**
+   * 根据切换的进度移动正在离开和正在进入的两个视图，每一帧只修改这两个视图
+   *
+   * @param progress 已经切换的距离，取值 [0, 切换方向上的尺寸]
+   */
+  private void applySwitchProgress(int progress) {
+    int size = getSwitchSize();
+    int direction = mQueue.getDirection();
+    setChildOffset(getChildAt(mQueue.getCurrentIndex()), -direction * progress);
+    setChildOffset(getChildAt(mQueue.getNextIndex()), direction * (size - progress));
+  }
+
+  /**
+   * 静止时当前视图回到原位，其他视图都移到布局之外
+   */
+  private void resetChildPositions() {
+    int size = getSwitchSize();
+    int childCount = getChildCount();
+    for (int i = 0; i < childCount; i++) {
+      View child = getChildAt(i);
+      // 切换方向改变时，另一个方向上的偏移也要清除
+      child.setTranslationX(0);
+      child.setTranslationY(0);
+      if (i != mQueue.getCurrentIndex()) {
+        setChildOffset(child, size);
+      }
+    }
+  }
+
+  private void setChildOffset(View child, int offset) {
+    if (mOrientation == VERTICAL) {
+      child.setTranslationY(offset);
+    } else {
+      child.setTranslationX(offset);
+    }
+  }
+
+  /**
+   * @return 切换方向上的尺寸，即每次切换移动的距离
+   */
+  private int getSwitchSize() {
+    return SwitchOrientation.along(mOrientation, getWidth(), getHeight());
+  }
+
+  /**
+   * 保存当前显示的视图位置
+   */
+  static class SavedState extends BaseSavedState {
+
+    int mCurrentIndex;
+
+    SavedState(Parcelable superState) {
+      super(superState);
+    }
+
+    private SavedState(Parcel in) {
+      super(in);
+      mCurrentIndex = in.readInt();
+    }
+
+    @Override
+    public void writeToParcel(Parcel out, int flags) {
+      super.writeToParcel(out, flags);
+      out.writeInt(mCurrentIndex);
+    }
+
+    public static final Parcelable.Creator<SavedState> CREATOR = new Parcelable.Creator<SavedState>() {
+
+      @Override
+      public SavedState createFromParcel(Parcel in) {
+        return new SavedState(in);
+      }
+
+      @Override
+      public SavedState[] newArray(int size) {
+        return new SavedState[size];
+      }
+    };
+  }
+}
\ No newline at end of file
@@ -0,0 +1,219 @@
+package com.williamchik.dragswitchlayout;
+
+import android.content.Context;
+import android.util.AttributeSet;
+import android.view.MotionEvent;
+import android.view.View;
+import android.widget.OverScroller;
+import android.widget.ScrollView;
+
+/**
+ * 详情页专属定制的 ScrollView，滑动到底部时需要再次向上滑动才能拖拽到底部视图。作为 DragSwitchLayout 的页面时不需要包装
+ */
+public class CustomScrollView extends ScrollView implements ScrollablePage {
+
+  // 滑动到底部后向上拖拽时，把 touch 事件交给父视图
+  private final EdgeHandoffController mEdgeHandoffController = new EdgeHandoffController(this,
+      EdgeHandoffController.EDGE_BOTTOM, new EdgeHandoffController.EdgeCallback() {
+
+    @Override
+    public boolean isAtEdge() {
+      return isAtBottom();
+    }
+  });
+
+  private ScrollListener mScrollListener;
+  private OnPageScrollListener mOnPageScrollListener;
+  // 内容的总高度，只在 layout 时重新计算，避免每次查询都调用 computeVerticalScrollRange()
+  private int mContentHeight;
+  // 离底部小于等于这个距离（像素）时认为已经滑动到底部，高密度屏幕上的小数滚动位置也能到达底部
+  private int mEdgeTolerance;
+  // 和 ScrollView 自己的 fling 同步计算的 fling，用来获取到达底部时的速度
+  private OverScroller mFlingTracker;
+  // 向底部的 fling 是否还没有到达底部
+  private boolean mFlingToBottom;
+
+  public CustomScrollView(Context context) {
+    super(context);
+    init();
+  }
+
+  public CustomScrollView(Context context, AttributeSet attrs) {
+    super(context, attrs);
+    init();
+  }
+
+  public CustomScrollView(Context context, AttributeSet attrs, int defStyleAttr) {
+    super(context, attrs, defStyleAttr);
+    init();
+  }
+
+  private void init() {
+    // 默认容差为 1dp
+    mEdgeTolerance = (int) Math.ceil(getResources().getDisplayMetrics().density);
+    mFlingTracker = new OverScroller(getContext());
+  }
+
+  /**
+   * 设置判断是否滑动到底部的容差，离底部小于等于这个距离时认为已经滑动到底部
+   *
+   * @param edgeTolerance 容差，单位是像素
+   */
+  public void setEdgeTolerance(int edgeTolerance) {
+    mEdgeTolerance = edgeTolerance;
+  }
+
+  public void setScrollListener(ScrollListener scrollListener) {
+    mScrollListener = scrollListener;
+  }
+
+  /**
+   * 重写 ScrollView 的 dispatchTouchEvent() 方法，自定义 touch 事件的分发流程。
+   * 1. 默认情况下，ScrollView 内部的滚动优先，即由 ScrollView 处理 touch 事件。
+   * 2. 当 ScrollView 滚动到底部时，此时再次向上拖拽，则将 touch 事件交给父视图处理，其他情况，都是由 ScrollView 来处理 touch 事件
+   */
+  @Override
+  public boolean dispatchTouchEvent(MotionEvent ev) {
+    if (ev.getActionMasked() == MotionEvent.ACTION_DOWN) {
+      // 手指按下会停止 fling
+      stopFlingTracking();
+    }
+    if (mEdgeHandoffController.onDispatchTouchEvent(ev)) {
+      // ScrollView 滑动到底部后再次向上拖拽，touch 事件交给父视图处理
+      return false;
+    }
+    boolean handled = super.dispatchTouchEvent(ev);
+    mEdgeHandoffController.onDispatchFinished(ev);
+    return handled;
+  }
+
+  /**
+   * 向底部 fling 时同步跟踪 fling 的速度，到达底部时把剩余的速度交给父视图
+   */
+  @Override
+  public void fling(int velocityY) {
+    super.fling(velocityY);
+    int scrollRange = mContentHeight - getHeight();
+    if (velocityY <= 0 || scrollRange <= 0 || isAtBottom()) {
+      stopFlingTracking();
+      return;
+    }
+    mFlingTracker.fling(0, getScrollY(), 0, velocityY, 0, 0, 0, scrollRange);
+    mFlingToBottom = true;
+  }
+
+  @Override
+  protected void onScrollChanged(int l, int t, int oldl, int oldt) {
+    super.onScrollChanged(l, t, oldl, oldt);
+    if (mFlingToBottom && isAtBottom()) {
+      // fling 到达底部，剩余的速度由父视图继续，例如滑动到下一页
+      mFlingTracker.computeScrollOffset();
+      float velocity = mFlingTracker.getCurrVelocity();
+      stopFlingTracking();
+      mEdgeHandoffController.dispatchEdgeFling(velocity);
+    }
+    if (mScrollListener != null) {
+      mScrollListener.onScrollChanged(this, l, t, oldl, oldt);
+    }
+    if (mOnPageScrollListener != null) {
+      mOnPageScrollListener.onPageScrolled(this);
+    }
+  }
+
+  private void stopFlingTracking() {
+    if (mFlingToBottom) {
+      mFlingToBottom = false;
+      mFlingTracker.abortAnimation();
+    }
+  }
+
+  @Override
+  protected void onLayout(boolean changed, int l, int t, int r, int b) {
+    super.onLayout(changed, l, t, r, b);
+    // 只有子视图重新 layout 时内容高度才会变化，在这里更新缓存
+    mContentHeight = computeVerticalScrollRange();
+  }
+
+  @Override
+  public View getView() {
+    return this;
+  }
+
+  @Override
+  public boolean isAtTop() {
+    return getScrollY() <= 0;
+  }
+
+  /**
+   * @return ScrollView 是否滑动到底部，离底部的距离在容差以内也算
+   */
+  @Override
+  public boolean isAtBottom() {
+    return getScrollToBottomY() <= mEdgeTolerance;
+  }
+
+  /**
+   * 当前时刻 ScrollView 滑动到底部需要滑动的Y轴距离
+   */
+  public int getScrollToBottomY() {
+    return mContentHeight - getScrollY() - getHeight();
+  }
+
+  /**
+   * @return 当前滑动距离占可滑动范围的比例，取值 [0, 1]，内容不足一屏时为 0
+   */
+  @Override
+  public float getScrollFraction() {
+    int scrollRange = mContentHeight - getHeight();
+    if (scrollRange <= 0) {
+      return 0;
+    }
+    return Math.max(0, Math.min(1, (float) getScrollY() / scrollRange));
+  }
+
+  @Override
+  public int getPageScrollY() {
+    return getScrollY();
+  }
+
+  @Override
+  public void scrollPageTo(int scrollY) {
+    scrollTo(0, scrollY);
+  }
+
+  @Override
+  public void setOnPageScrollListener(OnPageScrollListener listener) {
+    mOnPageScrollListener = listener;
+  }
+
+  /**
+   * 一次获取滑动比例和到底部的距离
+   *
+   * @param outPosition 用于接收结果，可以复用，避免每次滑动都创建对象
+   */
+  public void getScrollPosition(ScrollPosition outPosition) {
+    outPosition.fraction = getScrollFraction();
+    outPosition.scrollToBottomY = getScrollToBottomY();
+    outPosition.atBottom = outPosition.scrollToBottomY <= mEdgeTolerance;
+  }
+
+  /**
+   * ScrollView 的滑动位置
+   */
+  public static class ScrollPosition {
+
+    // 滑动距离占可滑动范围的比例
+    public float fraction;
+    // 滑动到底部需要滑动的Y轴距离
+    public int scrollToBottomY;
+    // 是否滑动到底部（容差以内）
+    public boolean atBottom;
+  }
+
+  public interface ScrollListener {
+
+    void onScrollChanged(CustomScrollView scrollView, int l, int t, int oldl, int oldt);
+
+  }
+
+}
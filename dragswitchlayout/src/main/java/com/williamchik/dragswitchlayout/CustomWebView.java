@@ -0,0 +1,125 @@
+package com.williamchik.dragswitchlayout;
+
+import android.content.Context;
+import android.util.AttributeSet;
+import android.view.MotionEvent;
+import android.view.ViewParent;
+import android.webkit.WebView;
+import android.webkit.WebViewClient;
+
+/**
+ * 详情页专属定制的 WebView，滑动到顶部时需要再次向下滑动才能拖拽到顶部视图
+ */
+public class CustomWebView extends WebView {
+
+  // 放回复用池时加载的空白页
+  static final String BLANK_URL = "about:blank";
+
+  // 滑动到顶部后向下拖拽时，把 touch 事件交给父视图
+  private final EdgeHandoffController mEdgeHandoffController = new EdgeHandoffController(this,
+      EdgeHandoffController.EDGE_TOP, new EdgeHandoffController.EdgeCallback() {
+
+    @Override
+    public boolean isAtEdge() {
+      return isAtTop();
+    }
+  });
+  // 是否正在加载空白页，加载完成后才能清除历史记录
+  private boolean mResetting;
+
+  public CustomWebView(Context context) {
+    super(context);
+  }
+
+  public CustomWebView(Context context, AttributeSet attrs) {
+    super(context, attrs);
+  }
+
+  public CustomWebView(Context context, AttributeSet attrs, int defStyleAttr) {
+    super(context, attrs, defStyleAttr);
+  }
+
+  /**
+   * 重写 WebView 的 dispatchTouchEvent() 方法，自定义 touch 事件的分发流程。
+   * 1. 默认情况下，WebView 内部的滚动优先，即由 WebView 处理 touch 事件。
+   * 2. 当 WebView 滚动到顶部时，此时再次向下拖拽，则将 touch 事件交给父视图处理，其他情况，都是由 WebView 来处理 touch 事件
+   */
+  @Override
+  public boolean dispatchTouchEvent(MotionEvent ev) {
+    if (mEdgeHandoffController.onDispatchTouchEvent(ev)) {
+      // WebView 滑动到顶部后再次向下拖拽，touch 事件交给父视图处理
+      return false;
+    }
+    boolean handled = super.dispatchTouchEvent(ev);
+    mEdgeHandoffController.onDispatchFinished(ev);
+    return handled;
+  }
+
+  @Override
+  protected void onAttachedToWindow() {
+    super.onAttachedToWindow();
+    // 通知所在的 DragSwitchLayout 页面中的 WebView 发生了变化，不需要在每次 layout 时查找
+    DragSwitchLayout layout = findDragSwitchLayout();
+    if (layout != null) {
+      layout.onWebViewAttached(this);
+    }
+  }
+
+  @Override
+  protected void onDetachedFromWindow() {
+    DragSwitchLayout layout = findDragSwitchLayout();
+    if (layout != null) {
+      layout.onWebViewDetached(this);
+    }
+    super.onDetachedFromWindow();
+  }
+
+  /**
+   * 重置 WebView 的状态，放回复用池前调用。加载空白页是异步的，历史记录在空白页加载完成后由 {@link #onResetFinished()} 清除
+   *
+   * @param resetClient 空白页加载完成时调用 {@link #onResetFinished()} 的 WebViewClient
+   */
+  void reset(WebViewClient resetClient) {
+    stopLoading();
+    setWebViewClient(resetClient);
+    setWebChromeClient(null);
+    mResetting = true;
+    loadUrl(BLANK_URL);
+    scrollTo(0, 0);
+    mEdgeHandoffController.reset();
+  }
+
+  /**
+   * 空白页加载完成，此时清除历史记录才不会留下之前的页面
+   */
+  void onResetFinished() {
+    if (!mResetting) {
+      return;
+    }
+    mResetting = false;
+    clearHistory();
+    setWebViewClient(null);
+  }
+
+  /**
+   * @return 是否还在加载重置时的空白页
+   */
+  boolean isResetting() {
+    return mResetting;
+  }
+
+  private DragSwitchLayout findDragSwitchLayout() {
+    ViewParent parent = getParent();
+    while (parent != null && !(parent instanceof DragSwitchLayout)) {
+      parent = parent.getParent();
+    }
+    return (DragSwitchLayout) parent;
+  }
+
+  /**
+   * @return WebView 是否滑动到顶部
+   */
+  private boolean isAtTop() {
+    return getScrollY() == 0;
+  }
+}
@@ -0,0 +1,139 @@
+package com.williamchik.dragswitchlayout;
+
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.MutableContextWrapper;
+import android.content.res.Configuration;
+import android.view.ViewGroup;
+import android.view.ViewParent;
+import android.webkit.WebView;
+import android.webkit.WebViewClient;
+
+import java.util.Iterator;
+import java.util.LinkedList;
+
+/**
+ * 进程内共享的 CustomWebView 复用池。WebView 的创建代价很大，详情页之间复用同一批 WebView，避免每次打开详情页都重新创建。
+ * 只能在主线程中使用。
+ */
+public class CustomWebViewPool implements ComponentCallbacks2 {
+
+  // 复用池默认的容量
+  private static final int DEFAULT_MAX_SIZE = 2;
+
+  private static CustomWebViewPool sInstance;
+
+  private final Context mAppContext;
+  // 空闲可复用的 WebView
+  private final LinkedList<CustomWebView> mIdleWebViews = new LinkedList<CustomWebView>();
+  // 复用池的容量
+  private int mMaxSize = DEFAULT_MAX_SIZE;
+  // 放回复用池的 WebView 加载完空白页后清除历史记录
+  private final WebViewClient mResetClient = new WebViewClient() {
+
+    @Override
+    public void onPageFinished(WebView view, String url) {
+      if (CustomWebView.BLANK_URL.equals(url)) {
+        ((CustomWebView) view).onResetFinished();
+      }
+    }
+  };
+
+  private CustomWebViewPool(Context context) {
+    mAppContext = context.getApplicationContext();
+    // 内存紧张时由系统回调 onTrimMemory()，释放空闲的 WebView
+    mAppContext.registerComponentCallbacks(this);
+  }
+
+  public static CustomWebViewPool getInstance(Context context) {
+    if (sInstance == null) {
+      sInstance = new CustomWebViewPool(context);
+    }
+    return sInstance;
+  }
+
+  /**
+   * 设置复用池的容量，超出容量的空闲 WebView 会被销毁
+   */
+  public void setMaxSize(int maxSize) {
+    mMaxSize = maxSize;
+    trimToSize(maxSize);
+  }
+
+  /**
+   * 从复用池中取出一个 WebView，复用池中没有已经重置完成的 WebView 时新建一个
+   *
+   * @param context 使用 WebView 的页面 context
+   */
+  public CustomWebView obtain(Context context) {
+    CustomWebView webView = pollResetWebView();
+    if (webView == null) {
+      // 通过 MutableContextWrapper 创建，WebView 回收后可以切换到 application context，避免持有页面的引用
+      return new CustomWebView(new MutableContextWrapper(context));
+    }
+    ((MutableContextWrapper) webView.getContext()).setBaseContext(context);
+    return webView;
+  }
+
+  /**
+   * 取出一个已经重置完成的 WebView。还在加载空白页的 WebView 留在复用池中，此时取出会在新页面的历史记录中留下空白页
+   */
+  private CustomWebView pollResetWebView() {
+    Iterator<CustomWebView> iterator = mIdleWebViews.iterator();
+    while (iterator.hasNext()) {
+      CustomWebView webView = iterator.next();
+      if (!webView.isResetting()) {
+        iterator.remove();
+        return webView;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * WebView 用完后放回复用池，复用池已满时直接销毁
+   */
+  public void release(CustomWebView webView) {
+    ViewParent parent = webView.getParent();
+    if (parent instanceof ViewGroup) {
+      ((ViewGroup) parent).removeView(webView);
+    }
+
+    if (mIdleWebViews.size() >= mMaxSize || !(webView.getContext() instanceof MutableContextWrapper)) {
+      webView.destroy();
+      return;
+    }
+    webView.reset(mResetClient);
+    ((MutableContextWrapper) webView.getContext()).setBaseContext(mAppContext);
+    mIdleWebViews.add(webView);
+  }
+
+  /**
+   * 销毁空闲的 WebView，直到空闲数量不超过 size
+   */
+  private void trimToSize(int size) {
+    while (mIdleWebViews.size() > size) {
+      mIdleWebViews.removeLast().destroy();
+    }
+  }
+
+  @Override
+  public void onTrimMemory(int level) {
+    if (level >= TRIM_MEMORY_BACKGROUND) {
+      // 应用已经退到后台，空闲的 WebView 全部销毁
+      trimToSize(0);
+    } else if (level >= TRIM_MEMORY_RUNNING_LOW) {
+      // 前台运行但内存偏低，释放一半空闲的 WebView
+      trimToSize(mIdleWebViews.size() / 2);
+    }
+  }
+
+  @Override
+  public void onLowMemory() {
+    trimToSize(0);
+  }
+
+  @Override
+  public void onConfigurationChanged(Configuration newConfig) {
+  }
+}
@@ -0,0 +1,18 @@
+package com.williamchik.dragswitchlayout;
+
+/**
+ * DragSwitchLayout 拖拽时的阻力曲线，把手指的移动增量换算为页面的移动增量。
+ * <p/>
+ * 返回值可以带小数，小数部分由 DragSwitchLayout 在帧之间累加，慢速拖拽时不会丢失移动距离。实现必须是无状态的纯计算，
+ * 每个 MotionEvent 都会调用一次，不能分配对象。
+ */
+public interface DragResistance {
+
+  /**
+   * @param dy         手指的移动增量
+   * @param dragOffset 当前页离开静止位置的距离，负数表示向上拖拽
+   * @param pageHeight 页面的高度
+   * @return 页面的移动增量
+   */
+  float apply(int dy, int dragOffset, int pageHeight);
+}
@@ -0,0 +1,74 @@
+package com.williamchik.dragswitchlayout;
+
+/**
+ * 把手指的移动换算为拖拽偏移量的增量：先经过阻力曲线，不足 1 像素的部分累加到下一次，第一页和最后一页最多拖回静止位置。
+ * 松手时由 {@link #decideTargetPage(int, int, int, float, float, int)} 决定目标页。
+ * 纯计算，不依赖 View，可以在 JVM 上直接回放手势。
+ */
+final class DragStepCalculator {
+
+  // 换算后不足 1 像素的部分，累加到下一次
+  private float mRemainder;
+
+  /**
+   * @param resistance  阻力曲线
+   * @param dy          手指的移动距离，向下为正
+   * @param dragOffset  当前的拖拽偏移量
+   * @param pageHeight  页面的高度
+   * @param isFirstPage 当前页是否第一页，第一页不能向下拖
+   * @param isLastPage  当前页是否最后一页，最后一页不能向上拖
+   * @return 拖拽偏移量的增量
+   */
+  int computeDy(DragResistance resistance, int dy, int dragOffset, int pageHeight, boolean isFirstPage,
+      boolean isLastPage) {
+    float resistedDy = resistance.apply(dy, dragOffset, pageHeight) + mRemainder;
+    int finalDy = (int) resistedDy;
+    mRemainder = resistedDy - finalDy;
+
+    int nextDragOffset = dragOffset + finalDy;
+    if (nextDragOffset > 0 && isFirstPage) {
+      // 第一页不让往下拖，因为顶部会白板，最多回到静止位置
+      finalDy = -dragOffset;
+      mRemainder = 0;
+    } else if (nextDragOffset < 0 && isLastPage) {
+      // 最后一页不让往上拖，因为底部会白板，最多回到静止位置
+      finalDy = -dragOffset;
+      mRemainder = 0;
+    }
+    return finalDy;
+  }
+
+  /**
+   * 松手时决定目标页：向上的速度足够大或者向上拖拽超过距离阈值时到下一页，向下时到上一页，否则回到当前页
+   *
+   * @param currentPage       当前页
+   * @param pageCount         页面的数量
+   * @param dragOffset        松手时的拖拽偏移量，负数表示向上拖拽
+   * @param velocity          松手时的速度，向下为正
+   * @param velocityThreshold 切换页面需要的最小速度
+   * @param distanceThreshold 切换页面需要的最小拖拽距离
+   */
+  static int decideTargetPage(int currentPage, int pageCount, int dragOffset, float velocity, float velocityThreshold,
+      int distanceThreshold) {
+    if (dragOffset <= 0 && currentPage < pageCount - 1) {
+      // 当前页被向上拖动
+      if (velocity < -velocityThreshold || dragOffset < -distanceThreshold) {
+        return currentPage + 1;
+      }
+    }
+    if (dragOffset >= 0 && currentPage > 0) {
+      // 当前页被向下拖动
+      if (velocity > velocityThreshold || dragOffset > distanceThreshold) {
+        return currentPage - 1;
+      }
+    }
+    return currentPage;
+  }
+
+  /**
+   * 清空累加的部分，新的拖拽开始或者页面回到静止位置时调用
+   */
+  void reset() {
+    mRemainder = 0;
+  }
+}
\ No newline at end of file
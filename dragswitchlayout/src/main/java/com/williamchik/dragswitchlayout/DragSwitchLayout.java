@@ -0,0 +1,1577 @@
+package com.williamchik.dragswitchlayout;
+
+import android.content.Context;
+import android.database.DataSetObserver;
+import android.graphics.Canvas;
+import android.os.Parcel;
+import android.os.Parcelable;
+import android.os.SystemClock;
+import android.support.v4.view.NestedScrollingParent;
+import android.support.v4.view.NestedScrollingParentHelper;
+import android.support.v4.view.ViewCompat;
+import android.support.v4.widget.ViewDragHelper;
+import android.util.AttributeSet;
+import android.util.DisplayMetrics;
+import android.util.SparseArray;
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.ViewParent;
+import android.view.animation.AnimationUtils;
+import android.webkit.WebView;
+import android.widget.Adapter;
+import android.widget.RelativeLayout;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * 商品详情专属定制的布局容器，实现拖动时上下两个布局自动切换，通过 ViewDragHelper 来实现。
+ * <p/>
+ * 所有页面都布局在同一个固定的位置，页面的移动只通过 translationY（横向切换时是 translationX）实现，每个页面的位置都由当前页和
+ * 同一个拖拽偏移量计算得出。拖拽、松手后的滑动和 {@link #scrollToTop()} 都只修改这个拖拽偏移量，页面内容的 requestLayout 不会影响页面的位置。
+ * <p/>
+ * 默认上下切换页面，通过 {@link #setOrientation(int)} 可以改为左右切换，例如从图片页左滑到详情页，不需要再嵌套 ViewPager。
+ * <p/>
+ * 页面内容的滚动状态通过 {@link ScrollablePage} 获取：实现了 ScrollablePage 的页面（例如 CustomScrollView）会被自动识别，
+ * 普通的 ScrollView、WebView、RecyclerView 通过 {@link #setScrollablePage(int, ScrollablePage)} 登记包装类。页面内容没有滚动到
+ * 拖拽方向的边缘时，布局不拦截 touch 事件。第一页的滚动还用于预加载、滑动监听和状态保存。
+ * <p/>
+ * 默认在 xml 中声明的子布局间切换。也可以通过 {@link #setAdapter(Adapter)} 由 Adapter
+ * 提供任意数量的页面，此时只有当前页和相邻的两页会被添加到布局中，离开的页面会被移除并放入回收池，供后面的页面复用。
+ * <p/>
+ * 通过 {@link #setNestedScrollMode(boolean)} 打开嵌套滑动模式后，页面中的可滚动视图滚动不完的移动和 fling 会交给本布局，
+ * 同一个手势可以先滚动内容再拖拽页面，fling 到达内容边缘时剩余的速度会延续到页面的切换中。
+ * <p/>
+ * 完全移出布局的页面不会被绘制。页面中的 WebView 在页面隐藏时暂停（只调用这个 WebView 的 onPause()），
+ * 开始拖拽或滑动时相邻的页面先恢复，页面移入布局之前 WebView 已经恢复运行，见 {@link #setPauseOffscreenWebViews(boolean)}。
+ *
+ * @author WilliaRelativeLayout16/01/12 14:20.
+ */
+public class DragSwitchLayout extends RelativeLayout implements NestedScrollingParent {
+
+  // 默认只把不超过一屏大小的页面切换为硬件层
+  private static final float DEFAULT_LAYER_MAX_SCREENS = 1f;
+
+  // Adapter 模式下，当前页的上下两侧各保留的页面数
+  private static final int OFFSCREEN_PAGE_LIMIT = 1;
+
+  // 左右拖拽切换页面，页面从左到右排列，和 AutoSwitchLayout.HORIZONTAL、LinearLayout.HORIZONTAL 取值相同
+  public static final int HORIZONTAL = SwitchOrientation.HORIZONTAL;
+  // 上下拖拽切换页面，和 AutoSwitchLayout.VERTICAL、LinearLayout.VERTICAL 取值相同
+  public static final int VERTICAL = SwitchOrientation.VERTICAL;
+
+  private static final int SCROLL_STATE_IDLE = PageSwitchController.SCROLL_STATE_IDLE;
+  private static final int SCROLL_STATE_DRAGGING = PageSwitchController.SCROLL_STATE_DRAGGING;
+  private static final int SCROLL_STATE_SETTLING = PageSwitchController.SCROLL_STATE_SETTLING;
+
+  // 拖拽工具类
+  private ViewDragHelper mDragHelper;
+  // 当前页、拖拽偏移量和拖拽状态，拖拽、松手和滑动的计算都由它完成
+  private PageSwitchController mSwitchController;
+  // 拖拽和滑动过程的帧统计
+  private FrameMetricsTracker mFrameMetricsTracker;
+  // 是否接受页面中可滚动视图的嵌套滑动
+  private boolean mNestedScrollMode;
+  // 当前的拖拽是否由嵌套滑动产生
+  private boolean mNestedDragging;
+  private final NestedScrollingParentHelper mNestedScrollingParentHelper = new NestedScrollingParentHelper(this);
+  // 顶部视图，第一页的 ScrollablePage
+  private ScrollablePage mTopPage;
+  // 通过 setScrollablePage() 登记的页面内容
+  private final SparseArray<ScrollablePage> mScrollablePages = new SparseArray<ScrollablePage>();
+  // 页面切换的方向
+  private int mOrientation = VERTICAL;
+  // 拦截判断时手指按下的坐标，用于判断拖拽方向
+  private float mInterceptDownX;
+  private float mInterceptDownY;
+  // 当前手势是否已经超过 slop，判断过是否拖拽页面。每个手势只判断一次
+  private boolean mInterceptDecided;
+  // 当前手势判断为交给页面内容处理，直到下一个手势都不再拦截
+  private boolean mInterceptRejected;
+  // 上下两个布局切换时的监听器
+  private DragSwitchListener mDragSwitchListener;
+  // 布局静止后，在下一次消息循环中执行等待的任务，不在 computeScroll() 的绘制过程中执行
+  private final Runnable mRunIdleTasksRunnable = new Runnable() {
+
+    @Override
+    public void run() {
+      mSwitchController.runIdleTasks();
+    }
+  };
+  // 顶部视图的滑动监听，由外部添加
+  private final ArrayList<TopViewScrollListener> mTopViewScrollListeners = new ArrayList<TopViewScrollListener>();
+  // 上一次分发给监听器时顶部视图的滑动距离，用于计算一帧内合并后的滑动增量
+  private int mDispatchedTopScrollY;
+  // 是否已经安排了下一帧的滑动分发
+  private boolean mTopScrollDispatchPending;
+  // 顶部视图一帧内的多次滑动合并为一次，在下一帧动画阶段统一分发
+  private final Runnable mDispatchTopScrollRunnable = new Runnable() {
+
+    @Override
+    public void run() {
+      dispatchTopViewScrolled();
+    }
+  };
+  private final ScrollablePage.OnPageScrollListener mTopPageScrollListener = new ScrollablePage.OnPageScrollListener() {
+
+    @Override
+    public void onPageScrolled(ScrollablePage page) {
+      // 每个像素的滑动都会回调到这里，只安排下一帧的分发，不在这里做任何计算
+      if (!mTopScrollDispatchPending) {
+        mTopScrollDispatchPending = true;
+        ViewCompat.postOnAnimation(DragSwitchLayout.this, mDispatchTopScrollRunnable);
+      }
+    }
+  };
+  // 底部视图的预加载和从切换到内容可见的耗时
+  private final PreloadTracker mPreloadTracker = new PreloadTracker();
+  // 恢复状态时顶部视图的滑动距离，在下一次 layout 中生效
+  private int mRestoredTopScrollY;
+  // 恢复状态时还没有设置 Adapter，记录当前页，设置 Adapter 时生效，小于 0 表示没有
+  private int mRestoredPage = -1;
+
+  // 当前已经添加到布局中的页面，key 为页面的位置
+  private final SparseArray<View> mPages = new SparseArray<View>();
+  // 提供页面的 Adapter，为空时使用 xml 中声明的子布局
+  private Adapter mAdapter;
+  // Adapter 数据变化的监听
+  private final DataSetObserver mDataSetObserver = new DataSetObserver() {
+
+    @Override
+    public void onChanged() {
+      onDataSetChanged();
+    }
+
+    @Override
+    public void onInvalidated() {
+      onDataSetChanged();
+    }
+  };
+  // 被移除页面的回收池，key 为页面的 view type
+  private final SparseArray<ArrayList<View>> mScrapPages = new SparseArray<ArrayList<View>>();
+  // 拖拽和滑动过程中是否把页面切换为硬件层
+  private boolean mHardwareLayerEnabled;
+  // 可以切换为硬件层的页面的最大面积，按屏幕面积的倍数计算
+  private float mHardwareLayerMaxScreens = DEFAULT_LAYER_MAX_SCREENS;
+  // 当前被切换为硬件层的页面，滑动结束时恢复
+  private final ArrayList<View> mLayeredPages = new ArrayList<View>();
+  // 隐藏中的页面，静止时完全在布局之外，并且拖拽和滑动时不会移入布局
+  private final ArrayList<View> mHiddenPages = new ArrayList<View>();
+  // 是否暂停隐藏页面中的 WebView
+  private boolean mPauseOffscreenWebViews = true;
+  // 因为所在的页面隐藏而被暂停的 WebView
+  private final ArrayList<WebView> mPausedWebViews = new ArrayList<WebView>();
+  // 每个页面中的 WebView，第一次用到时查找。页面被添加或移除、页面中的 CustomWebView attach 或 detach 时失效
+  private final HashMap<View, ArrayList<WebView>> mPageWebViews = new HashMap<View, ArrayList<WebView>>();
+  // 外部设置的子视图变化监听，由 mPageHierarchyListener 转发
+  private OnHierarchyChangeListener mOnHierarchyChangeListener;
+  // 页面被添加或移除时更新页面中 WebView 的缓存
+  private final OnHierarchyChangeListener mPageHierarchyListener = new OnHierarchyChangeListener() {
+
+    @Override
+    public void onChildViewAdded(View parent, View child) {
+      mPageWebViews.remove(child);
+      if (mOnHierarchyChangeListener != null) {
+        mOnHierarchyChangeListener.onChildViewAdded(parent, child);
+      }
+    }
+
+    @Override
+    public void onChildViewRemoved(View parent, View child) {
+      ArrayList<WebView> webViews = mPageWebViews.remove(child);
+      if (webViews != null) {
+        // 页面被移除，例如放入了回收池，其中被暂停的 WebView 恢复
+        for (int i = 0; i < webViews.size(); i++) {
+          resumePausedWebView(webViews.get(i));
+        }
+      }
+      if (mOnHierarchyChangeListener != null) {
+        mOnHierarchyChangeListener.onChildViewRemoved(parent, child);
+      }
+    }
+  };
+  // 滑动结束后添加或移除页面，不在 computeScroll() 的绘制过程中直接修改子布局
+  private final Runnable mPopulateRunnable = new Runnable() {
+
+    @Override
+    public void run() {
+      populate();
+    }
+  };
+
+  public DragSwitchLayout(Context context) {
+    super(context);
+    init();
+  }
+
+  public DragSwitchLayout(Context context, AttributeSet attrs) {
+    super(context, attrs);
+    init();
+  }
+
+  public DragSwitchLayout(Context context, AttributeSet attrs, int defStyleAttr) {
+    super(context, attrs, defStyleAttr);
+    init();
+  }
+
+  private void init() {
+    mDragHelper = ViewDragHelper.create(this, 10f, new DragHelperCallback());
+    mSwitchController = new PageSwitchController(new SwitchHost(), getResources().getDisplayMetrics().density);
+    mFrameMetricsTracker = new FrameMetricsTracker(getContext());
+    super.setOnHierarchyChangeListener(mPageHierarchyListener);
+  }
+
+  @Override
+  public void setOnHierarchyChangeListener(OnHierarchyChangeListener listener) {
+    mOnHierarchyChangeListener = listener;
+  }
+
+  /**
+   * 打开或关闭嵌套滑动模式，默认关闭。打开后，页面中支持嵌套滑动的视图（例如 CustomScrollView、CustomWebView）
+   * 滚动到边缘时不需要松手重新拖拽，继续移动就会拖拽页面，fling 到达边缘时会带着剩余的速度切换到相邻的页面
+   */
+  public void setNestedScrollMode(boolean nestedScrollMode) {
+    mNestedScrollMode = nestedScrollMode;
+  }
+
+  /**
+   * 设置页面切换的方向，默认是 {@link #VERTICAL}。{@link #HORIZONTAL} 时左右拖拽切换页面，拖拽偏移量、阻力、松手的速度和距离阈值
+   * 都按横向计算，页面中横向滚动的视图滚动到边缘后才会拖拽页面，纵向的滚动不受影响。
+   * 切换方向会停止正在进行的拖拽和滑动，页面回到当前页的静止位置
+   *
+   * @param orientation {@link #VERTICAL} 或 {@link #HORIZONTAL}
+   */
+  public void setOrientation(int orientation) {
+    SwitchOrientation.checkOrientation(orientation);
+    if (mOrientation == orientation) {
+      return;
+    }
+    abortScroll();
+    mOrientation = orientation;
+    mSwitchController.setPageSize(SwitchOrientation.along(orientation, getWidth(), getHeight()));
+    mSwitchController.resetToPage(mSwitchController.getCurrentPage());
+    applyPageTranslations();
+  }
+
+  public int getOrientation() {
+    return mOrientation;
+  }
+
+  /**
+   * 设置是否暂停隐藏页面中的 WebView，默认打开。打开时页面隐藏后其中已经加载完成的 WebView 会被 onPause()，页面重新显示前恢复。
+   * 不调用 pauseTimers()，JS 定时器是进程内共享的，由宿主在自己的 onPause()、onResume() 中管理。关闭时立即恢复所有被暂停的 WebView
+   */
+  public void setPauseOffscreenWebViews(boolean pauseOffscreenWebViews) {
+    if (mPauseOffscreenWebViews == pauseOffscreenWebViews) {
+      return;
+    }
+    mPauseOffscreenWebViews = pauseOffscreenWebViews;
+    if (pauseOffscreenWebViews) {
+      syncOffscreenWebViews();
+    } else {
+      resumePausedWebViews();
+    }
+  }
+
+  /**
+   * 设置拖拽时的阻力曲线，默认是 {@link LinearDragResistance}，页面移动手指移动距离的四分之一
+   */
+  public void setDragResistance(DragResistance dragResistance) {
+    mSwitchController.setDragResistance(dragResistance);
+  }
+
+  /**
+   * 设置拖拽和滑动过程的帧统计数据的接收者，每次拖拽和滑动结束时回调一次。为空时不做统计
+   */
+  public void setFrameMetricsSink(SwitchFrameMetrics.Sink sink) {
+    mFrameMetricsTracker.setSink(sink);
+  }
+
+  /**
+   * 设置松手后滑动到目标页的滑动引擎，默认是 {@link FlingSettleEngine}
+   */
+  public void setSettleEngine(SettleEngine settleEngine) {
+    mSwitchController.setSettleEngine(settleEngine);
+  }
+
+  /**
+   * 添加顶部视图的滑动监听，立即生效。同一帧内的多次滑动合并为一次回调，每一帧最多回调一次
+   */
+  public void addTopViewScrollListener(TopViewScrollListener listener) {
+    if (listener != null && !mTopViewScrollListeners.contains(listener)) {
+      mTopViewScrollListeners.add(listener);
+    }
+  }
+
+  /**
+   * 移除顶部视图的滑动监听
+   */
+  public void removeTopViewScrollListener(TopViewScrollListener listener) {
+    mTopViewScrollListeners.remove(listener);
+  }
+
+  /**
+   * 设置底部视图的预加载，顶部视图滑动超过 preloadFraction 时就在后台开始加载底部视图，不必等到拖拽切换时才加载
+   *
+   * @param preloadFraction 顶部视图的滑动比例，取值 [0, 1]
+   * @param preloadListener 预加载监听器
+   */
+  public void setPreloadListener(float preloadFraction, PreloadListener preloadListener) {
+    mPreloadTracker.setListener(preloadFraction, preloadListener);
+  }
+
+  /**
+   * 底部视图的内容已经可见，由外部在内容加载完成时调用，用于统计从拖拽到内容可见的耗时
+   */
+  public void notifyBottomContentReady() {
+    if (mPreloadTracker.onBottomContentReady(SystemClock.uptimeMillis())) {
+      // 预加载完成，隐藏的底部视图中的 WebView 可以暂停了
+      updatePageVisibility(true);
+    }
+  }
+
+  /**
+   * 设置布局切换时的监听
+   */
+  public void setDragSwitchListener(DragSwitchListener dragSwitchListener) {
+    mDragSwitchListener = dragSwitchListener;
+  }
+
+  /**
+   * 在布局静止（没有拖拽和滑动）时执行任务，正在拖拽或滑动时等到结束后再执行，适合提交 Fragment、加载内容等耗时的 UI 工作，
+   * 不和切换动画争抢帧。任务总是在之后的消息循环中执行，同一个任务重复添加只执行一次
+   */
+  public void runWhenIdle(Runnable task) {
+    mSwitchController.runWhenIdle(task);
+  }
+
+  /**
+   * 取消还没有执行的任务
+   */
+  public void cancelIdleTask(Runnable task) {
+    mSwitchController.cancelIdleTask(task);
+  }
+
+  /**
+   * 登记页面中可滚动的内容，页面本身实现了 ScrollablePage 时不需要登记。第一页登记的内容会作为顶部视图，用于预加载、滑动监听和状态保存。
+   * Adapter 模式下页面会被复用，需要在 setAdapter() 之后登记
+   *
+   * @param page           页面的位置
+   * @param scrollablePage 页面中可滚动的内容，例如 {@link RecyclerViewPage}，为 null 时取消登记
+   */
+  public void setScrollablePage(int page, ScrollablePage scrollablePage) {
+    if (scrollablePage != null) {
+      mScrollablePages.put(page, scrollablePage);
+    } else {
+      mScrollablePages.remove(page);
+    }
+    if (page == 0) {
+      setTopPage(scrollablePage);
+    }
+  }
+
+  /**
+   * 通过 Adapter 提供页面，xml 中声明的子布局会被移除。Adapter 的 getView() 会收到回收池中同类型的页面作为 convertView。
+   */
+  public void setAdapter(Adapter adapter) {
+    if (mAdapter != null) {
+      mAdapter.unregisterDataSetObserver(mDataSetObserver);
+    }
+    abortScroll();
+    removeCallbacks(mPopulateRunnable);
+    removeAllViews();
+    mPages.clear();
+    mScrapPages.clear();
+    mScrollablePages.clear();
+    setTopPage(null);
+    mSwitchController.resetToPage(0);
+
+    mAdapter = adapter;
+    if (mAdapter != null) {
+      mAdapter.registerDataSetObserver(mDataSetObserver);
+      mSwitchController.setPageCount(mAdapter.getCount());
+      if (mRestoredPage >= 0) {
+        // 状态恢复时还没有 Adapter，直接从恢复的页面开始
+        mSwitchController.resetToPage(Math.max(0, Math.min(mRestoredPage, mAdapter.getCount() - 1)));
+        mRestoredPage = -1;
+      }
+      populate();
+    } else {
+      mSwitchController.setPageCount(0);
+    }
+  }
+
+  /**
+   * 设置拖拽和滑动过程中是否把页面切换为硬件层。切换过程中页面只是位置在变化，使用硬件层后每一帧只需要合成，不需要重新绘制页面的内容。
+   * 页面内容在切换过程中还在变化时（例如 WebView 在加载），每一帧都要重新绘制到 layer 中，反而更慢，效果可以通过
+   * {@link SwitchFrameMetrics#getLayeredPageCount()} 和 {@link #setFrameMetricsSink(SwitchFrameMetrics.Sink)} 统计的掉帧数对比。
+   * 页面面积超过 {@link #setHardwareLayerMaxScreens(float)} 时不会被切换为硬件层
+   */
+  public void setHardwareLayerEnabled(boolean hardwareLayerEnabled) {
+    mHardwareLayerEnabled = hardwareLayerEnabled;
+    if (!hardwareLayerEnabled) {
+      setPagesLayerEnabled(false);
+    }
+  }
+
+  /**
+   * 设置可以切换为硬件层的页面的最大面积，按屏幕面积的倍数计算，默认是 1。
+   * <p/>
+   * 页面总是布局成和本布局一样大，页面内容的高度不影响页面的面积，可以滚动的长页面也不会超过这个限制。只有本布局比屏幕大时
+   * （例如被放在 ScrollView 中）页面才会超过一屏：每个硬件层都是一张和页面一样大的纹理，拖拽时最多同时有三个页面，
+   * 超过 GPU 的最大纹理尺寸时 layer 无法创建。确定布局比屏幕大并且纹理尺寸足够时可以调大
+   *
+   * @param maxScreens 屏幕面积的倍数，必须大于 0
+   */
+  public void setHardwareLayerMaxScreens(float maxScreens) {
+    if (maxScreens <= 0) {
+      throw new IllegalArgumentException("maxScreens must be positive, but is " + maxScreens);
+    }
+    mHardwareLayerMaxScreens = maxScreens;
+  }
+
+  public Adapter getAdapter() {
+    return mAdapter;
+  }
+
+  /**
+   * @return 当前显示的页面位置
+   */
+  public int getCurrentPage() {
+    return mSwitchController.getCurrentPage();
+  }
+
+  /**
+   * 切换到底部视图，即当前页的下一页，已经是最后一页时不处理
+   *
+   * @param animate 是否有滑动动画
+   */
+  public void switchToBottom(boolean animate) {
+    int page = getSettledPage() + 1;
+    if (page < mSwitchController.getPageCount()) {
+      setCurrentPage(page, animate);
+    }
+  }
+
+  /**
+   * 切换到顶部视图，即当前页的上一页，已经是第一页时不处理
+   *
+   * @param animate 是否有滑动动画
+   */
+  public void switchToTop(boolean animate) {
+    int page = getSettledPage() - 1;
+    if (page >= 0) {
+      setCurrentPage(page, animate);
+    }
+  }
+
+  /**
+   * 切换到指定的页面，和拖拽切换一样回调 {@link DragSwitchListener}，没有滑动动画时直接回调 {@link DragSwitchListener#onSettleFinished(int)}。
+   * 目标页离得太远、已经被移除时，即使 animate 为 true 也直接跳转过去
+   *
+   * @param page    目标页
+   * @param animate 是否有滑动动画
+   */
+  public void setCurrentPage(int page, boolean animate) {
+    int pageCount = mSwitchController.getPageCount();
+    if (page < 0 || page >= pageCount) {
+      throw new IndexOutOfBoundsException("page " + page + " out of range, page count " + pageCount);
+    }
+    if (mSwitchController.isSettledAt(page)) {
+      // 已经在目标页静止，或者正在滑向目标页
+      return;
+    }
+    // 打断正在进行的拖拽
+    mDragHelper.abort();
+    mSwitchController.switchToPage(page, animate && mPages.get(page) != null,
+        AnimationUtils.currentAnimationTimeMillis());
+  }
+
+  /**
+   * DragSwitchLayout 回顶
+   */
+  public void scrollToTop() {
+    if (mTopPage != null) {
+      mTopPage.scrollPageTo(0);
+    }
+    if (mSwitchController.getPageCount() > 0) {
+      setCurrentPage(0, true);
+    }
+  }
+
+  /**
+   * 布局尺寸变化（旋转屏幕、分屏、软键盘等）时，页面尺寸跟随变化，拖拽偏移量和正在进行的滑动按比例换算到新的尺寸
+   */
+  @Override
+  protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+    super.onSizeChanged(w, h, oldw, oldh);
+    // 页面的位置在接下来的 onLayout() 中统一更新
+    mSwitchController.resize(SwitchOrientation.along(mOrientation, w, h), AnimationUtils.currentAnimationTimeMillis());
+  }
+
+  @Override
+  protected void onLayout(boolean changed, int l, int t, int r, int b) {
+    // 所有页面都布局在固定的位置，页面的移动只通过 translation 实现，这里的 layout 不会打断拖拽和滑动
+    for (int i = 0; i < mPages.size(); i++) {
+      mPages.valueAt(i).layout(0, 0, r - l, b - t);
+    }
+    applyPageTranslations();
+    if (mRestoredTopScrollY > 0 && mTopPage != null) {
+      // 顶部视图的内容已经完成 layout，恢复滑动距离，超出范围时由视图按内容的高度自动修正
+      mTopPage.scrollPageTo(mRestoredTopScrollY);
+      mRestoredTopScrollY = 0;
+    }
+  }
+
+  @Override
+  protected Parcelable onSaveInstanceState() {
+    SavedState ss = new SavedState(super.onSaveInstanceState());
+    // 正在滑动时保存滑动的目标页
+    ss.mCurrentPage = getSettledPage();
+    ss.mTopScrollY = mTopPage != null ? mTopPage.getPageScrollY() : 0;
+    ss.mHasPreloaded = mPreloadTracker.hasPreloaded();
+    ss.mHasShownBottom = mPreloadTracker.hasShownBottom();
+    return ss;
+  }
+
+  /**
+   * 恢复状态时直接跳转到保存的页面，没有滑动动画。状态在第一次 layout 之前恢复，页面位置和顶部视图的滑动距离都在同一次 layout 中生效
+   */
+  @Override
+  protected void onRestoreInstanceState(Parcelable state) {
+    if (!(state instanceof SavedState)) {
+      super.onRestoreInstanceState(state);
+      return;
+    }
+    SavedState ss = (SavedState) state;
+    super.onRestoreInstanceState(ss.getSuperState());
+
+    // 底部视图已经加载过，不再回调 onPreload()，由外部保留已经加载的内容
+    mPreloadTracker.restore(ss.mHasPreloaded, ss.mHasShownBottom);
+    mRestoredTopScrollY = ss.mTopScrollY;
+    int pageCount = mSwitchController.getPageCount();
+    if (pageCount == 0) {
+      // Adapter 模式下还没有设置 Adapter
+      mRestoredPage = ss.mCurrentPage;
+      return;
+    }
+    setCurrentPageInternal(Math.max(0, Math.min(ss.mCurrentPage, pageCount - 1)));
+  }
+
+  @Override
+  protected void onFinishInflate() {
+    int childCount = getChildCount();
+    if (childCount == 0) {
+      // 没有声明子布局，等待设置 Adapter
+      return;
+    }
+    if (childCount < 2) {
+      throw new IllegalStateException("DragSwitchLayout must host at least 2 elements");
+    }
+    // 初始化各个页面
+    mSwitchController.setPageCount(childCount);
+    for (int i = 0; i < childCount; i++) {
+      mPages.put(i, getChildAt(i));
+    }
+    if (getChildAt(0) instanceof ScrollablePage) {
+      setTopPage((ScrollablePage) getChildAt(0));
+    }
+  }
+
+  private void setTopPage(ScrollablePage topPage) {
+    if (mTopPage == topPage) {
+      return;
+    }
+    if (mTopPage != null) {
+      mTopPage.setOnPageScrollListener(null);
+    }
+    mTopPage = topPage;
+    mDispatchedTopScrollY = 0;
+    if (mTopPage != null) {
+      mTopPage.setOnPageScrollListener(mTopPageScrollListener);
+    }
+  }
+
+  /**
+   * @return 页面中可滚动的内容，优先使用登记的内容，其次是实现了 ScrollablePage 的页面本身，都没有时返回 null
+   */
+  private ScrollablePage getScrollablePage(int page) {
+    ScrollablePage scrollablePage = mScrollablePages.get(page);
+    if (scrollablePage != null) {
+      return scrollablePage;
+    }
+    View pageView = mPages.get(page);
+    return pageView instanceof ScrollablePage ? (ScrollablePage) pageView : null;
+  }
+
+  @Override
+  protected void onAttachedToWindow() {
+    super.onAttachedToWindow();
+    updatePageVisibility(true);
+  }
+
+  @Override
+  protected void onDetachedFromWindow() {
+    super.onDetachedFromWindow();
+    // 离开窗口后不再管理页面的显示，被暂停的 WebView 全部恢复，不影响复用池和其他页面中的 WebView
+    resumePausedWebViews();
+    mHiddenPages.clear();
+    mPageWebViews.clear();
+    removeCallbacks(mDispatchTopScrollRunnable);
+    mTopScrollDispatchPending = false;
+    // 用户离开时底部视图还没有显示过，取消预加载
+    mPreloadTracker.onLeave();
+  }
+
+  /**
+   * 完全移出布局的页面不绘制，静止时只绘制当前页，拖拽和滑动时只绘制和布局有交集的页面
+   */
+  @Override
+  protected boolean drawChild(Canvas canvas, View child, long drawingTime) {
+    if (!isInsideLayout(child)) {
+      return false;
+    }
+    return super.drawChild(canvas, child, drawingTime);
+  }
+
+  /**
+   * @return 页面当前的位置是否和布局有交集
+   */
+  private boolean isInsideLayout(View page) {
+    if (mOrientation == HORIZONTAL) {
+      float left = page.getLeft() + page.getTranslationX();
+      return left < getWidth() && left + page.getWidth() > 0;
+    }
+    float top = page.getTop() + page.getTranslationY();
+    return top < getHeight() && top + page.getHeight() > 0;
+  }
+
+  /**
+   * touch 事件的拦截统一交给 mDragHelper 处理。每个手势只在第一次超过 slop 时判断一次：移动主要沿着另一个方向，
+   * 或者当前页的内容还可以向拖拽方向滚动时，这个手势交给页面内容，之后的 touch 事件都不再拦截
+   */
+  @Override
+  public boolean onInterceptTouchEvent(MotionEvent ev) {
+    if (mSwitchController.getDragOffset() != 0) {
+      // DragSwitchLayout 粘到顶部或底部，正在动画中的时候，DragSwitchLayout 不拦截 touch 事件
+      return false;
+    }
+    if (getNestedScrollAxes() != 0) {
+      // 子视图正在嵌套滑动，页面的拖拽由嵌套滑动完成
+      return false;
+    }
+
+    int action = ev.getActionMasked();
+    if (action == MotionEvent.ACTION_DOWN) {
+      mInterceptDownX = ev.getX();
+      mInterceptDownY = ev.getY();
+      mInterceptDecided = false;
+      mInterceptRejected = false;
+    } else if (action == MotionEvent.ACTION_MOVE && !mInterceptDecided) {
+      float dx = ev.getX() - mInterceptDownX;
+      float dy = ev.getY() - mInterceptDownY;
+      float distance = SwitchOrientation.along(mOrientation, dx, dy);
+      float crossDistance = SwitchOrientation.along(mOrientation, dy, dx);
+      int touchSlop = mDragHelper.getTouchSlop();
+      if (Math.abs(distance) <= touchSlop && Math.abs(crossDistance) <= touchSlop) {
+        // 还没有超过 slop，mDragHelper 从按下的位置计算移动距离，不需要这些中间的事件
+        return false;
+      }
+      mInterceptDecided = true;
+      if (Math.abs(crossDistance) > Math.abs(distance) || !canDragCurrentPage(distance, ev)) {
+        // 这个手势交给页面内容滚动，不再拦截
+        mInterceptRejected = true;
+        mDragHelper.cancel();
+      }
+    }
+    if (mInterceptRejected) {
+      return false;
+    }
+    return mDragHelper.shouldInterceptTouchEvent(ev);
+  }
+
+  /**
+   * 纵向切换时和原来一样，子视图可以请求本布局不拦截。横向切换时是否拦截由 onInterceptTouchEvent() 按移动方向和子视图的横向滚动判断，
+   * 纵向滚动的子视图（例如 CustomScrollView）的请求只传递给上层的父视图，不影响本布局左右拖拽页面
+   */
+  @Override
+  public void requestDisallowInterceptTouchEvent(boolean disallowIntercept) {
+    if (mOrientation != HORIZONTAL) {
+      super.requestDisallowInterceptTouchEvent(disallowIntercept);
+      return;
+    }
+    ViewParent parent = getParent();
+    if (parent != null) {
+      parent.requestDisallowInterceptTouchEvent(disallowIntercept);
+    }
+  }
+
+  /**
+   * @param distance 手指从按下以来在切换方向上的移动距离，向下或者向右为正
+   * @return 当前页的内容已经滚动到拖拽方向的边缘，可以拖拽页面
+   */
+  private boolean canDragCurrentPage(float distance, MotionEvent ev) {
+    if (distance == 0) {
+      return true;
+    }
+    if (mOrientation == HORIZONTAL) {
+      // 手指按下位置的视图还可以向拖拽方向横向滚动时，交给它滚动
+      View page = mPages.get(mSwitchController.getCurrentPage());
+      return page == null || !canScrollHorizontally(page, (int) distance, (int) mInterceptDownX - page.getLeft(),
+          (int) mInterceptDownY - page.getTop());
+    }
+    ScrollablePage page = getScrollablePage(mSwitchController.getCurrentPage());
+    if (page == null) {
+      return true;
+    }
+    return distance < 0 ? page.isAtBottom() : page.isAtTop();
+  }
+
+  /**
+   * 判断视图或者 (x, y) 位置的子视图是否还可以横向滚动，只在每个手势判断拦截时调用一次
+   *
+   * @param dx 手指的移动距离，向右为正，视图的内容向相反的方向滚动
+   * @param x  在视图中的坐标
+   * @param y  在视图中的坐标
+   */
+  private static boolean canScrollHorizontally(View view, int dx, int x, int y) {
+    if (view instanceof ViewGroup) {
+      ViewGroup group = (ViewGroup) view;
+      int scrollX = view.getScrollX();
+      int scrollY = view.getScrollY();
+      // 后添加的子视图在上层，倒序查找
+      for (int i = group.getChildCount() - 1; i >= 0; i--) {
+        View child = group.getChildAt(i);
+        int childX = x + scrollX - child.getLeft();
+        int childY = y + scrollY - child.getTop();
+        if (childX >= 0 && childX < child.getWidth() && childY >= 0 && childY < child.getHeight()
+            && child.getVisibility() == VISIBLE && canScrollHorizontally(child, dx, childX, childY)) {
+          return true;
+        }
+      }
+    }
+    return ViewCompat.canScrollHorizontally(view, dx > 0 ? -1 : 1);
+  }
+
+  /**
+   * touch 事件的响应统一交给 mDragHelper 处理，由 DragHelperCallback 实现拖动效果
+   */
+  @Override
+  public boolean onTouchEvent(MotionEvent e) {
+    mDragHelper.processTouchEvent(e);
+    return true;
+  }
+
+  /**
+   * 松手后由滑动引擎滑动到目标页，每一帧在 computeScroll() 中根据动画时间计算位置
+   */
+  @Override
+  public void computeScroll() {
+    if (mSwitchController.getScrollState() != SCROLL_STATE_SETTLING) {
+      return;
+    }
+    long computeBegin = mFrameMetricsTracker.beginCompute();
+    boolean keepGoing = mSwitchController.computeSettleOffset(AnimationUtils.currentAnimationTimeMillis());
+    mFrameMetricsTracker.endCompute(computeBegin);
+    if (keepGoing) {
+      ViewCompat.postInvalidateOnAnimation(this);
+    } else {
+      mSwitchController.finishSettle();
+    }
+  }
+
+  /**
+   * 这是拖拽效果的主要逻辑
+   */
+  private class DragHelperCallback extends ViewDragHelper.Callback {
+
+    @Override
+    public void onViewPositionChanged(View changedView, int left, int top, int dx, int dy) {
+      // 页面的位置只由 translation 决定，撤销 ViewDragHelper 对子视图的 offset，把增量加到拖拽偏移量上
+      if (mOrientation == HORIZONTAL) {
+        changedView.offsetLeftAndRight(-dx);
+        mSwitchController.setDragOffset(mSwitchController.getDragOffset() + dx);
+      } else {
+        changedView.offsetTopAndBottom(-dy);
+        mSwitchController.setDragOffset(mSwitchController.getDragOffset() + dy);
+      }
+    }
+
+    @Override
+    public boolean tryCaptureView(View child, int pointerId) {
+      // 所有页面都需要跟踪，返回true
+      return true;
+    }
+
+    @Override
+    public int getViewVerticalDragRange(View child) {
+      // 松手后的滑动由滑动引擎完成，这里只用于 ViewDragHelper 判断是否可以垂直拖拽
+      return mOrientation == VERTICAL ? mSwitchController.getPageSize() : 0;
+    }
+
+    @Override
+    public int getViewHorizontalDragRange(View child) {
+      return mOrientation == HORIZONTAL ? mSwitchController.getPageSize() : 0;
+    }
+
+    @Override
+    public void onViewReleased(View releasedChild, float xvel, float yvel) {
+      // 滑动松开后，需要向上或者向下（横向切换时向左或者向右）滑动到特定位置
+      mSwitchController.release(SwitchOrientation.along(mOrientation, xvel, yvel),
+          AnimationUtils.currentAnimationTimeMillis());
+    }
+
+    @Override
+    public void onViewDragStateChanged(int state) {
+      if (state == ViewDragHelper.STATE_DRAGGING) {
+        mSwitchController.startDrag();
+      } else if (state == ViewDragHelper.STATE_IDLE) {
+        // 松手后没有开始滑动，拖拽直接结束
+        mSwitchController.endDrag();
+      }
+    }
+
+    @Override
+    public int clampViewPositionVertical(View child, int top, int dy) {
+      if (mOrientation != VERTICAL) {
+        return child.getTop();
+      }
+      // 设定页面垂直滑动的范围
+      // dy 代表的是下一帧到来时子 View 应该移动的位置增量，top 代表的是下一帧到来时子 View 应该到达的位置。即有：child.getTop() + dy = top。
+      // 通过阻力曲线换算移动增量，(child.getTop() + 增量) 代表的是子 View 在下一帧到来时应该到达的位置，这个增量最终会在 onViewPositionChanged() 中转换为拖拽偏移量
+      return child.getTop() + mSwitchController.computeResistedDy(dy);
+    }
+
+    @Override
+    public int clampViewPositionHorizontal(View child, int left, int dx) {
+      if (mOrientation != HORIZONTAL) {
+        return child.getLeft();
+      }
+      // 和纵向一样通过阻力曲线换算移动增量
+      return child.getLeft() + mSwitchController.computeResistedDy(dx);
+    }
+  }
+
+  @Override
+  public boolean onStartNestedScroll(View child, View target, int nestedScrollAxes) {
+    int axis = mOrientation == HORIZONTAL ? ViewCompat.SCROLL_AXIS_HORIZONTAL : ViewCompat.SCROLL_AXIS_VERTICAL;
+    return mNestedScrollMode && mSwitchController.getPageSize() > 0 && (nestedScrollAxes & axis) != 0;
+  }
+
+  @Override
+  public void onNestedScrollAccepted(View child, View target, int axes) {
+    mNestedScrollingParentHelper.onNestedScrollAccepted(child, target, axes);
+  }
+
+  @Override
+  public int getNestedScrollAxes() {
+    return mNestedScrollingParentHelper.getNestedScrollAxes();
+  }
+
+  /**
+   * 页面已经被拖开时，移动先用来拖拽页面，页面回到静止位置后剩下的移动交回给子视图滚动内容
+   */
+  @Override
+  public void onNestedPreScroll(View target, int dx, int dy, int[] consumed) {
+    // 只处理切换方向上的移动
+    int delta = SwitchOrientation.along(mOrientation, dx, dy);
+    int axisIndex = SwitchOrientation.along(mOrientation, 0, 1);
+    if (delta == 0 || mSwitchController.getDragOffset() == 0
+        || (mSwitchController.getScrollState() == SCROLL_STATE_DRAGGING && !mNestedDragging)) {
+      return;
+    }
+    // 滑动过程中被重新拖拽时停止滑动
+    startNestedDrag();
+    // 嵌套滑动的移动向上（向左）为正，拖拽偏移量向下（向右）为正
+    int dragOffset = mSwitchController.getDragOffset();
+    int resistedDy = mSwitchController.computeResistedDy(-delta);
+    int nextDragOffset = dragOffset + resistedDy;
+    if (nextDragOffset == 0 || (nextDragOffset > 0) != (dragOffset > 0)) {
+      // 越过静止位置时停在静止位置，按比例算出消费的移动，其余的交给子视图
+      int finalDy = -dragOffset;
+      consumed[axisIndex] = resistedDy != 0 ? Math.round((float) delta * finalDy / resistedDy) : delta;
+      mSwitchController.resetDragStep();
+      mSwitchController.setDragOffset(0);
+    } else {
+      consumed[axisIndex] = delta;
+      mSwitchController.setDragOffset(nextDragOffset);
+    }
+  }
+
+  /**
+   * 子视图滚动到边缘后剩下的移动用来拖拽页面
+   */
+  @Override
+  public void onNestedScroll(View target, int dxConsumed, int dyConsumed, int dxUnconsumed, int dyUnconsumed) {
+    int unconsumed = SwitchOrientation.along(mOrientation, dxUnconsumed, dyUnconsumed);
+    if (unconsumed == 0 || (mSwitchController.getScrollState() == SCROLL_STATE_DRAGGING && !mNestedDragging)) {
+      return;
+    }
+    startNestedDrag();
+    mSwitchController.dragBy(-unconsumed);
+  }
+
+  /**
+   * 页面已经被拖开时，fling 由本布局接管，和拖拽松手一样决定目标页
+   */
+  @Override
+  public boolean onNestedPreFling(View target, float velocityX, float velocityY) {
+    if (!mNestedDragging || mSwitchController.getDragOffset() == 0) {
+      return false;
+    }
+    mNestedDragging = false;
+    mSwitchController.release(-SwitchOrientation.along(mOrientation, velocityX, velocityY),
+        AnimationUtils.currentAnimationTimeMillis());
+    return true;
+  }
+
+  /**
+   * 子视图在边缘向外 fling，不论是松手时已经在边缘，还是 fling 途中到达边缘，都带着速度切换到相邻的页面
+   */
+  @Override
+  public boolean onNestedFling(View target, float velocityX, float velocityY, boolean consumed) {
+    float velocity = SwitchOrientation.along(mOrientation, velocityX, velocityY);
+    if (consumed || mSwitchController.getDragOffset() != 0
+        || (mSwitchController.getScrollState() != SCROLL_STATE_IDLE && !mNestedDragging)) {
+      return false;
+    }
+    if (!mSwitchController.flingToAdjacentPage(velocity, AnimationUtils.currentAnimationTimeMillis())) {
+      return false;
+    }
+    mNestedDragging = false;
+    return true;
+  }
+
+  /**
+   * 嵌套滑动结束时页面还在被拖拽，说明没有 fling，由拖拽的距离决定目标页
+   */
+  @Override
+  public void onStopNestedScroll(View target) {
+    mNestedScrollingParentHelper.onStopNestedScroll(target);
+    if (mNestedDragging) {
+      mNestedDragging = false;
+      if (mSwitchController.getScrollState() == SCROLL_STATE_DRAGGING) {
+        mSwitchController.release(0, AnimationUtils.currentAnimationTimeMillis());
+      }
+    }
+  }
+
+  private void startNestedDrag() {
+    mNestedDragging = true;
+    mSwitchController.startDrag();
+  }
+
+  /**
+   * 根据当前页和拖拽偏移量，设置每个页面的 translation。修改 translation 只需要重新合成，不需要重新 layout 和 invalidate 整个布局
+   */
+  private void applyPageTranslations() {
+    for (int i = 0; i < mPages.size(); i++) {
+      setPageTranslation(mPages.valueAt(i), getPageOffset(mPages.keyAt(i)));
+    }
+    updatePageVisibility(false);
+  }
+
+  /**
+   * 更新每个页面的显示状态，有页面显示或隐藏时暂停或恢复页面中的 WebView。每一帧都会调用，显示状态没有变化时只是比较位置
+   *
+   * @param rescan 显示状态没有变化时也重新检查页面中的 WebView，例如 WebView 加载完成后
+   */
+  private void updatePageVisibility(boolean rescan) {
+    boolean changed = false;
+    for (int i = mHiddenPages.size() - 1; i >= 0; i--) {
+      if (mPages.indexOfValue(mHiddenPages.get(i)) < 0) {
+        // 页面已经被移除
+        mHiddenPages.remove(i);
+        changed = true;
+      }
+    }
+    for (int i = 0; i < mPages.size(); i++) {
+      View page = mPages.valueAt(i);
+      boolean shown = isPageShown(mPages.keyAt(i), page);
+      int hiddenIndex = mHiddenPages.indexOf(page);
+      if (shown && hiddenIndex >= 0) {
+        mHiddenPages.remove(hiddenIndex);
+        changed = true;
+      } else if (!shown && hiddenIndex < 0) {
+        mHiddenPages.add(page);
+        changed = true;
+      }
+    }
+    if ((changed || rescan) && mPauseOffscreenWebViews && ViewCompat.isAttachedToWindow(this)) {
+      syncOffscreenWebViews();
+    }
+  }
+
+  /**
+   * 页面和布局有交集时显示。拖拽和滑动时，当前页、目标页和它们之间的页面以及两侧相邻的页面都可能移入布局，提前显示，
+   * 页面中的 WebView 在移入布局之前已经恢复
+   */
+  private boolean isPageShown(int position, View page) {
+    if (mSwitchController.getPageSize() <= 0) {
+      // 还没有完成 layout，不隐藏
+      return true;
+    }
+    if (mSwitchController.getScrollState() != SCROLL_STATE_IDLE) {
+      int currentPage = mSwitchController.getCurrentPage();
+      int targetPage = mSwitchController.getTargetPage();
+      int first = Math.min(currentPage, targetPage) - 1;
+      int last = Math.max(currentPage, targetPage) + 1;
+      if (position >= first && position <= last) {
+        return true;
+      }
+    }
+    return isInsideLayout(page);
+  }
+
+  /**
+   * 暂停隐藏页面中已经加载完成的 WebView，恢复显示页面中的 WebView
+   */
+  private void syncOffscreenWebViews() {
+    for (int i = 0; i < mPages.size(); i++) {
+      View page = mPages.valueAt(i);
+      boolean hidden = mHiddenPages.contains(page);
+      ArrayList<WebView> webViews = getPageWebViews(page);
+      for (int j = 0; j < webViews.size(); j++) {
+        WebView webView = webViews.get(j);
+        if (!hidden) {
+          resumePausedWebView(webView);
+        } else if (!mPausedWebViews.contains(webView) && webView.getProgress() >= 100) {
+          // 还在加载的 WebView 不暂停，不打断底部视图的预加载，加载完成后的下一次检查再暂停
+          webView.onPause();
+          mPausedWebViews.add(webView);
+        }
+      }
+    }
+  }
+
+  /**
+   * 页面中的 WebView，第一次用到时查找整个页面并缓存，之后只在页面的 WebView 发生变化时重新查找
+   */
+  private ArrayList<WebView> getPageWebViews(View page) {
+    ArrayList<WebView> webViews = mPageWebViews.get(page);
+    if (webViews == null) {
+      webViews = new ArrayList<WebView>();
+      findWebViews(page, webViews);
+      mPageWebViews.put(page, webViews);
+    }
+    return webViews;
+  }
+
+  /**
+   * 页面中的 CustomWebView attach 到窗口，所在页面的缓存失效，下一次检查时重新查找
+   */
+  void onWebViewAttached(WebView webView) {
+    View page = findPage(webView);
+    if (page != null) {
+      mPageWebViews.remove(page);
+      updatePageVisibility(true);
+    }
+  }
+
+  /**
+   * 页面中的 CustomWebView 从窗口 detach，例如放回了复用池，从缓存中移除，被暂停时恢复
+   */
+  void onWebViewDetached(WebView webView) {
+    for (ArrayList<WebView> webViews : mPageWebViews.values()) {
+      webViews.remove(webView);
+    }
+    resumePausedWebView(webView);
+  }
+
+  /**
+   * @return 视图所在的页面，不在任何页面中时返回 null
+   */
+  private View findPage(View view) {
+    ViewParent parent = view.getParent();
+    while (parent instanceof View) {
+      if (parent == this) {
+        return mPages.indexOfValue(view) >= 0 ? view : null;
+      }
+      view = (View) parent;
+      parent = view.getParent();
+    }
+    return null;
+  }
+
+  private void resumePausedWebView(WebView webView) {
+    if (mPausedWebViews.remove(webView)) {
+      webView.onResume();
+    }
+  }
+
+  /**
+   * 恢复所有被暂停的 WebView
+   */
+  private void resumePausedWebViews() {
+    for (int i = 0; i < mPausedWebViews.size(); i++) {
+      mPausedWebViews.get(i).onResume();
+    }
+    mPausedWebViews.clear();
+  }
+
+  /**
+   * 查找视图树中所有的 WebView，WebView 内部的子视图不再查找
+   */
+  private static void findWebViews(View view, ArrayList<WebView> out) {
+    if (view instanceof WebView) {
+      out.add((WebView) view);
+    } else if (view instanceof ViewGroup) {
+      ViewGroup group = (ViewGroup) view;
+      for (int i = 0; i < group.getChildCount(); i++) {
+        findWebViews(group.getChildAt(i), out);
+      }
+    }
+  }
+
+  /**
+   * 停止拖拽和滑动，页面停在当前位置
+   */
+  private void abortScroll() {
+    mDragHelper.abort();
+    mSwitchController.abort();
+  }
+
+  /**
+   * 把布局中的页面切换为硬件层，或者恢复为没有 layer。只恢复由本布局切换的页面，不影响页面自己设置的 layer。
+   * 切换过程中 Adapter 模式添加了新的页面时再次调用，已经是硬件层的页面不受影响，只切换新添加的页面
+   */
+  private void setPagesLayerEnabled(boolean enabled) {
+    if (!enabled) {
+      for (int i = 0; i < mLayeredPages.size(); i++) {
+        mLayeredPages.get(i).setLayerType(LAYER_TYPE_NONE, null);
+      }
+      mLayeredPages.clear();
+      return;
+    }
+
+    DisplayMetrics metrics = getResources().getDisplayMetrics();
+    long maxLayerArea = (long) (mHardwareLayerMaxScreens * metrics.widthPixels * metrics.heightPixels);
+    for (int i = 0; i < mPages.size(); i++) {
+      View page = mPages.valueAt(i);
+      if (page.getLayerType() != LAYER_TYPE_NONE || (long) page.getWidth() * page.getHeight() > maxLayerArea) {
+        continue;
+      }
+      page.setLayerType(LAYER_TYPE_HARDWARE, null);
+      mLayeredPages.add(page);
+    }
+  }
+
+  /**
+   * 把上一帧以来顶部视图的滑动合并为一次，分发给预加载检查和所有的滑动监听
+   */
+  private void dispatchTopViewScrolled() {
+    mTopScrollDispatchPending = false;
+    if (mTopPage == null) {
+      return;
+    }
+    int scrollY = mTopPage.getPageScrollY();
+    int deltaY = scrollY - mDispatchedTopScrollY;
+    if (deltaY == 0) {
+      // 一帧内滑出去又滑回来，位置没有变化
+      return;
+    }
+    mDispatchedTopScrollY = scrollY;
+    mPreloadTracker.onTopScrolled(mTopPage.isAtBottom(), mTopPage.getScrollFraction());
+    if (mTopViewScrollListeners.isEmpty()) {
+      return;
+    }
+    float fraction = mTopPage.getScrollFraction();
+    // 倒序遍历，监听器在回调中移除自己时不会跳过其他监听器
+    for (int i = mTopViewScrollListeners.size() - 1; i >= 0; i--) {
+      mTopViewScrollListeners.get(i).onTopViewScrolled(mTopPage, scrollY, deltaY, fraction);
+    }
+  }
+
+  /**
+   * 确定了要切换的页面，回调 DragSwitchListener。拖拽松手和调用 {@link #setCurrentPage(int, boolean)} 都通过这里回调
+   */
+  private void dispatchPageSwitch(int fromPage, int toPage) {
+    if (null != mDragSwitchListener) {
+      mDragSwitchListener.onReleaseDecided(fromPage, toPage);
+    }
+    if (toPage > fromPage) {
+      mPreloadTracker.onSwitchToBottom(SystemClock.uptimeMillis());
+      // 下一页开始显示
+      if (null != mDragSwitchListener) {
+        mDragSwitchListener.onDragToBottomView();
+      }
+    } else if (toPage < fromPage) {
+      // 上一页开始显示
+      if (null != mDragSwitchListener) {
+        mDragSwitchListener.onDragToTopView();
+      }
+    }
+  }
+
+  /**
+   * @return 当前页，正在滑动时返回滑动的目标页
+   */
+  private int getSettledPage() {
+    return mSwitchController.getSettledPage();
+  }
+
+  /**
+   * 直接跳转到指定页面，没有滑动动画
+   */
+  private void setCurrentPageInternal(int page) {
+    mDragHelper.abort();
+    mSwitchController.jumpToPage(page);
+  }
+
+  /**
+   * @return 页面当前相对于布局顶部（横向切换时是左边）的位置
+   */
+  private int getPageOffset(int position) {
+    return mSwitchController.getPageOffset(position);
+  }
+
+  /**
+   * 按切换方向设置页面的 translation，另一个方向的 translation 归零，切换方向后页面不会留在另一个方向上的位置
+   */
+  private void setPageTranslation(View page, int offset) {
+    if (mOrientation == HORIZONTAL) {
+      page.setTranslationX(offset);
+      page.setTranslationY(0);
+    } else {
+      page.setTranslationY(offset);
+      page.setTranslationX(0);
+    }
+  }
+
+  /**
+   * Adapter 模式下，确保当前页和相邻的页面已经添加到布局中，并移除其他离开的页面
+   */
+  private void populate() {
+    if (mAdapter == null) {
+      return;
+    }
+    int currentPage = mSwitchController.getCurrentPage();
+    int first = Math.max(0, currentPage - OFFSCREEN_PAGE_LIMIT);
+    int last = Math.min(mSwitchController.getPageCount() - 1, currentPage + OFFSCREEN_PAGE_LIMIT);
+
+    // 移除离开范围的页面，放入回收池
+    for (int i = mPages.size() - 1; i >= 0; i--) {
+      int position = mPages.keyAt(i);
+      if (position < first || position > last) {
+        View page = mPages.valueAt(i);
+        mPages.removeAt(i);
+        removeView(page);
+        if (mLayeredPages.remove(page)) {
+          // 回收池中的页面可能被复用为其他位置的页面，不能保留本布局设置的 layer
+          page.setLayerType(LAYER_TYPE_NONE, null);
+        }
+        addScrapPage(position, page);
+      }
+    }
+
+    // 添加进入范围的页面，优先复用回收池中的页面
+    for (int position = first; position <= last; position++) {
+      if (mPages.get(position) == null) {
+        View page = mAdapter.getView(position, getScrapPage(position), this);
+        if (page.getLayoutParams() == null) {
+          addView(page, new LayoutParams(LayoutParams.MATCH_PARENT, LayoutParams.MATCH_PARENT));
+        } else {
+          addView(page);
+        }
+        mPages.put(position, page);
+        setPageTranslation(page, getPageOffset(position));
+      }
+    }
+
+    if (mSwitchController.getScrollState() != SCROLL_STATE_IDLE && mHardwareLayerEnabled) {
+      // 拖拽或滑动过程中添加的页面也切换为硬件层
+      setPagesLayerEnabled(true);
+      mFrameMetricsTracker.setLayeredPageCount(mLayeredPages.size());
+    }
+  }
+
+  private void addScrapPage(int position, View page) {
+    int viewType = mAdapter.getItemViewType(position);
+    if (viewType == Adapter.IGNORE_ITEM_VIEW_TYPE) {
+      return;
+    }
+    ArrayList<View> scrapPages = mScrapPages.get(viewType);
+    if (scrapPages == null) {
+      scrapPages = new ArrayList<View>();
+      mScrapPages.put(viewType, scrapPages);
+    }
+    scrapPages.add(page);
+  }
+
+  private View getScrapPage(int position) {
+    ArrayList<View> scrapPages = mScrapPages.get(mAdapter.getItemViewType(position));
+    if (scrapPages == null || scrapPages.isEmpty()) {
+      return null;
+    }
+    return scrapPages.remove(scrapPages.size() - 1);
+  }
+
+  /**
+   * Adapter 数据变化时，所有页面放入回收池后重新添加
+   */
+  private void onDataSetChanged() {
+    abortScroll();
+    int pageCount = mAdapter.getCount();
+    mSwitchController.setPageCount(pageCount);
+    for (int i = 0; i < mPages.size(); i++) {
+      View page = mPages.valueAt(i);
+      removeView(page);
+      if (mPages.keyAt(i) < pageCount) {
+        addScrapPage(mPages.keyAt(i), page);
+      }
+    }
+    mPages.clear();
+    mSwitchController.resetToPage(Math.max(0, Math.min(mSwitchController.getCurrentPage(), pageCount - 1)));
+    populate();
+  }
+
+  /**
+   * 页面切换状态的变化：更新页面的位置、硬件层、帧统计和页面的显示，分发 DragSwitchListener 的回调
+   */
+  private class SwitchHost implements PageSwitchController.Host {
+
+    @Override
+    public void onDragOffsetChanged() {
+      applyPageTranslations();
+    }
+
+    @Override
+    public void onScrollStateChanged(int oldState, int newState) {
+      // 拖拽和滑动分别统计帧数据
+      if (newState == SCROLL_STATE_IDLE) {
+        mFrameMetricsTracker.end();
+      } else {
+        mFrameMetricsTracker.begin(newState == SCROLL_STATE_DRAGGING
+            ? SwitchFrameMetrics.SESSION_DRAG : SwitchFrameMetrics.SESSION_SETTLE);
+      }
+
+      if (newState == SCROLL_STATE_IDLE) {
+        // 滑动结束，恢复页面的 layer
+        setPagesLayerEnabled(false);
+      } else if (oldState == SCROLL_STATE_IDLE && mHardwareLayerEnabled) {
+        // 开始拖拽或滑动，页面切换为硬件层
+        setPagesLayerEnabled(true);
+      }
+      if (newState != SCROLL_STATE_IDLE) {
+        mFrameMetricsTracker.setLayeredPageCount(mLayeredPages.size());
+      }
+
+      // 开始拖拽或滑动时相邻的页面先显示，静止后移出布局的页面隐藏
+      updatePageVisibility(false);
+    }
+
+    @Override
+    public void onCurrentPageChanged(int page) {
+      if (mAdapter != null) {
+        // 滑动结束后添加或移除相邻的页面，不在 computeScroll() 的绘制过程中直接修改子布局
+        removeCallbacks(mPopulateRunnable);
+        post(mPopulateRunnable);
+      }
+    }
+
+    @Override
+    public void onPageJumped() {
+      removeCallbacks(mPopulateRunnable);
+      populate();
+      applyPageTranslations();
+    }
+
+    @Override
+    public void onPageSwitchDecided(int fromPage, int toPage) {
+      dispatchPageSwitch(fromPage, toPage);
+    }
+
+    @Override
+    public void onSettleStarted(int targetPage) {
+      // 滑动中改变了目标页时，目标页在移入布局之前显示
+      updatePageVisibility(false);
+      if (null != mDragSwitchListener) {
+        mDragSwitchListener.onSettleStarted(targetPage);
+      }
+      ViewCompat.postInvalidateOnAnimation(DragSwitchLayout.this);
+    }
+
+    @Override
+    public void onSettleFinished(int page) {
+      // 滑动结束，页面已经静止
+      if (null != mDragSwitchListener) {
+        mDragSwitchListener.onSettleFinished(page);
+      }
+    }
+
+    @Override
+    public void onSettleCancelled(int page) {
+      // 滑动被打断，页面没有到达目标位置
+      if (null != mDragSwitchListener) {
+        mDragSwitchListener.onSettleCancelled(page);
+      }
+    }
+
+    @Override
+    public void onIdleTasksPending() {
+      removeCallbacks(mRunIdleTasksRunnable);
+      post(mRunIdleTasksRunnable);
+    }
+  }
+
+  /**
+   * 保存当前页、顶部视图的滑动距离和底部视图的加载状态
+   */
+  static class SavedState extends BaseSavedState {
+
+    int mCurrentPage;
+    int mTopScrollY;
+    boolean mHasPreloaded;
+    boolean mHasShownBottom;
+
+    SavedState(Parcelable superState) {
+      super(superState);
+    }
+
+    private SavedState(Parcel in) {
+      super(in);
+      mCurrentPage = in.readInt();
+      mTopScrollY = in.readInt();
+      mHasPreloaded = in.readInt() != 0;
+      mHasShownBottom = in.readInt() != 0;
+    }
+
+    @Override
+    public void writeToParcel(Parcel out, int flags) {
+      super.writeToParcel(out, flags);
+      out.writeInt(mCurrentPage);
+      out.writeInt(mTopScrollY);
+      out.writeInt(mHasPreloaded ? 1 : 0);
+      out.writeInt(mHasShownBottom ? 1 : 0);
+    }
+
+    public static final Parcelable.Creator<SavedState> CREATOR = new Parcelable.Creator<SavedState>() {
+
+      @Override
+      public SavedState createFromParcel(Parcel in) {
+        return new SavedState(in);
+      }
+
+      @Override
+      public SavedState[] newArray(int size) {
+        return new SavedState[size];
+      }
+    };
+  }
+
+  /**
+   * 布局切换时的监听器。一次切换的回调顺序是 onReleaseDecided()、onDragToBottomView() 或 onDragToTopView()、onSettleStarted()，
+   * 最后是 onSettleFinished() 或 onSettleCancelled()。onSettleStarted() 之前的回调和滑动动画在同一帧中，不要在这里做耗时的工作
+   */
+  public interface DragSwitchListener {
+
+    /**
+     * 松手或者调用 {@link #setCurrentPage(int, boolean)} 后，确定了要滑动到的页面
+     *
+     * @param fromPage 当前页
+     * @param toPage   将要滑动到的页面，和 fromPage 相同表示滑回原来的页面
+     */
+    void onReleaseDecided(int fromPage, int toPage);
+
+    /**
+     * 切换到底部视图（下一页）的回调
+     */
+    void onDragToBottomView();
+
+    /**
+     * 切换到顶部视图（上一页）时的回调
+     */
+    void onDragToTopView();
+
+    /**
+     * 开始滑动到目标页
+     *
+     * @param targetPage 目标页
+     */
+    void onSettleStarted(int targetPage);
+
+    /**
+     * 滑动动画结束，页面已经静止。没有滑动动画的切换也会回调
+     *
+     * @param page 静止后的当前页
+     */
+    void onSettleFinished(int page);
+
+    /**
+     * 滑动被新的拖拽或者页面的重置打断
+     *
+     * @param page 打断后的当前页
+     */
+    void onSettleCancelled(int page);
+  }
+
+  /**
+   * DragSwitchListener 的空实现，只需要重写关心的回调
+   */
+  public static class SimpleDragSwitchListener implements DragSwitchListener {
+
+    @Override
+    public void onReleaseDecided(int fromPage, int toPage) {
+    }
+
+    @Override
+    public void onDragToBottomView() {
+    }
+
+    @Override
+    public void onDragToTopView() {
+    }
+
+    @Override
+    public void onSettleStarted(int targetPage) {
+    }
+
+    @Override
+    public void onSettleFinished(int page) {
+    }
+
+    @Override
+    public void onSettleCancelled(int page) {
+    }
+  }
+
+  /**
+   * 顶部视图的滑动监听，同一帧内的多次滑动合并为一次回调
+   */
+  public interface TopViewScrollListener {
+
+    /**
+     * 顶部视图滑动后的回调，每一帧最多回调一次
+     *
+     * @param topPage  顶部视图
+     * @param scrollY  顶部视图当前的滑动距离
+     * @param deltaY   上一次回调以来合并后的滑动增量，向上滑动为正
+     * @param fraction 当前滑动距离占可滑动范围的比例，取值 [0, 1]
+     */
+    void onTopViewScrolled(ScrollablePage topPage, int scrollY, int deltaY, float fraction);
+  }
+
+  /**
+   * 底部视图预加载的监听器
+   */
+  public interface PreloadListener {
+
+    /**
+     * 开始预加载底部视图，在这里加载底部视图的内容
+     */
+    void onPreload();
+
+    /**
+     * 底部视图还没显示用户就离开了，在这里取消底部视图的加载
+     */
+    void onPreloadCancelled();
+
+    /**
+     * 切换到底部视图后，底部视图的内容可见时的回调
+     *
+     * @param latencyMillis 从拖拽切换到底部视图到内容可见的耗时，内容提前加载完成时为 0
+     */
+    void onBottomContentShown(long latencyMillis);
+  }
+}
\ No newline at end of file
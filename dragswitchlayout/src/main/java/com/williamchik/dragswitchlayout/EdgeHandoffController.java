@@ -0,0 +1,353 @@
+package com.williamchik.dragswitchlayout;
+
+import android.support.v4.view.NestedScrollingChildHelper;
+import android.support.v4.view.ViewCompat;
+import android.view.MotionEvent;
+import android.view.VelocityTracker;
+import android.view.View;
+import android.view.ViewConfiguration;
+import android.view.ViewParent;
+
+/**
+ * 可滚动子视图的边缘交接控制器，供 CustomScrollView、CustomWebView 等放在 DragSwitchLayout 中的可滚动视图使用。
+ * <p/>
+ * 1. 默认情况下，子视图内部的滚动优先，即请求父视图不拦截 touch 事件。
+ * 2. 手指按下时子视图已经滚动到交接的边缘，此时再向边缘外拖拽，则将 touch 事件交给父视图处理。
+ * <p/>
+ * 交接的边缘可以是上下边缘，也可以是左右边缘（横向切换的 DragSwitchLayout 中横向滚动的视图），只跟踪边缘所在方向的移动。
+ * <p/>
+ * 只有在需要的状态发生变化时才会调用父视图的 requestDisallowInterceptTouchEvent()，判断由 {@link EdgeHandoffTracker} 完成。多指触摸时跟踪当前活动的手指，
+ * 活动的手指抬起时由剩下的手指接替，拖拽方向不会因为换手指而错乱。
+ * <p/>
+ * 父视图接受嵌套滑动时（例如打开了嵌套滑动模式的 DragSwitchLayout），改为嵌套滑动：父视图始终不拦截 touch 事件，
+ * 每次移动先交给父视图预先消费，视图在边缘时再把向边缘外的移动交给父视图，同一个手势可以先滚动内容再拖拽页面。
+ * 被父视图消费的移动从交给视图的 touch 事件中扣除，页面被拖动带来的视图位置变化也一起抵消，视图自己只处理剩下的部分。
+ * 使用嵌套滑动时，视图在调用 super.dispatchTouchEvent() 之后必须调用 {@link #onDispatchFinished(MotionEvent)}。
+ */
+public class EdgeHandoffController {
+
+  // 滚动到底部后，继续向上拖拽时交给父视图
+  public static final int EDGE_BOTTOM = 0;
+  // 滚动到顶部后，继续向下拖拽时交给父视图
+  public static final int EDGE_TOP = 1;
+  // 滚动到最左边后，继续向右拖拽时交给父视图
+  public static final int EDGE_LEFT = 2;
+  // 滚动到最右边后，继续向左拖拽时交给父视图
+  public static final int EDGE_RIGHT = 3;
+
+  private final View mView;
+  // 交接的边缘是否是左右边缘，此时只跟踪 X 轴方向的移动
+  private final boolean mHorizontal;
+  private final EdgeCallback mEdgeCallback;
+  // 每个手势的交接判断和对父视图的拦截请求
+  private final EdgeHandoffTracker mTracker;
+
+  // 当前活动的手指
+  private int mActivePointerId = MotionEvent.INVALID_POINTER_ID;
+
+  private final NestedScrollingChildHelper mNestedScrollingChildHelper;
+  private final int[] mScrollConsumed = new int[2];
+  private final int mMinFlingVelocity;
+  private final int mMaxFlingVelocity;
+  // 跟踪手指在屏幕上的速度，松手时把速度交给父视图
+  private VelocityTracker mVelocityTracker;
+  // 当前手势是否在使用嵌套滑动
+  private boolean mNestedScrolling;
+  // 松手时父视图是否接管了 fling，接管时视图收到的是 ACTION_CANCEL，不会再自己 fling
+  private boolean mParentFlung;
+  // onDispatchTouchEvent() 对 touch 事件做的修改，在 onDispatchFinished() 中恢复
+  private float mAppliedOffset;
+  private int mReplacedAction = -1;
+
+  /**
+   * @param view         使用控制器的可滚动视图
+   * @param edge         交接的边缘，{@link #EDGE_BOTTOM}、{@link #EDGE_TOP}、{@link #EDGE_LEFT} 或 {@link #EDGE_RIGHT}
+   * @param edgeCallback 判断视图是否滚动到边缘
+   */
+  public EdgeHandoffController(View view, int edge, EdgeCallback edgeCallback) {
+    mView = view;
+    mHorizontal = edge == EDGE_LEFT || edge == EDGE_RIGHT;
+    mEdgeCallback = edgeCallback;
+    mTracker = new EdgeHandoffTracker(edge == EDGE_BOTTOM || edge == EDGE_RIGHT, new EdgeHandoffTracker.Parent() {
+
+      @Override
+      public boolean requestDisallowInterceptTouchEvent(boolean disallowIntercept) {
+        ViewParent parent = mView.getParent();
+        if (parent == null) {
+          return false;
+        }
+        parent.requestDisallowInterceptTouchEvent(disallowIntercept);
+        return true;
+      }
+    });
+    mNestedScrollingChildHelper = new NestedScrollingChildHelper(view);
+    mNestedScrollingChildHelper.setNestedScrollingEnabled(true);
+    ViewConfiguration configuration = ViewConfiguration.get(view.getContext());
+    mMinFlingVelocity = configuration.getScaledMinimumFlingVelocity();
+    mMaxFlingVelocity = configuration.getScaledMaximumFlingVelocity();
+  }
+
+  /**
+   * 设置是否尝试嵌套滑动，默认开启。只有父视图也接受嵌套滑动时才会生效
+   */
+  public void setNestedScrollingEnabled(boolean enabled) {
+    if (!enabled) {
+      stopNestedScroll();
+    }
+    mNestedScrollingChildHelper.setNestedScrollingEnabled(enabled);
+  }
+
+  /**
+   * 在视图的 dispatchTouchEvent() 开始时调用
+   *
+   * @return true 表示 touch 事件交给父视图处理，视图的 dispatchTouchEvent() 应该直接返回 false
+   */
+  public boolean onDispatchTouchEvent(MotionEvent ev) {
+    switch (ev.getActionMasked()) {
+      case MotionEvent.ACTION_DOWN:
+        mActivePointerId = ev.getPointerId(0);
+        // ACTION_DOWN 的时候判断是否允许交给父视图，视图滚动到边缘则允许，否则不允许
+        mTracker.onDown(getRawPosition(ev, 0), getOrigin(ev), mEdgeCallback.isAtEdge());
+        // 上一个手势没有正常结束时，先结束它的嵌套滑动
+        stopNestedScroll();
+        mNestedScrolling = mNestedScrollingChildHelper.startNestedScroll(getNestedScrollAxis());
+        mParentFlung = false;
+        trackVelocity(ev, true);
+        break;
+      case MotionEvent.ACTION_POINTER_DOWN:
+        // 新按下的手指成为活动的手指
+        switchActivePointer(ev, ev.getActionIndex());
+        break;
+      case MotionEvent.ACTION_POINTER_UP:
+        if (ev.getPointerId(ev.getActionIndex()) == mActivePointerId) {
+          // 活动的手指抬起，由剩下的手指接替
+          switchActivePointer(ev, ev.getActionIndex() == 0 ? 1 : 0);
+        }
+        break;
+      case MotionEvent.ACTION_MOVE:
+        int pointerIndex = ev.findPointerIndex(mActivePointerId);
+        if (pointerIndex < 0) {
+          break;
+        }
+        if (mNestedScrolling) {
+          trackVelocity(ev, false);
+          dispatchNestedDrag(mTracker.onNestedMove(getRawPosition(ev, pointerIndex)));
+          break;
+        }
+        if (mTracker.onMove(getRawPosition(ev, pointerIndex))) {
+          // 承接上一个 ACTION_DOWN，如果允许交给父视图，且再次向边缘外拖拽时，就将 touch 事件交给父视图处理
+          return true;
+        }
+        break;
+      case MotionEvent.ACTION_UP:
+        if (mNestedScrolling) {
+          trackVelocity(ev, false);
+          dispatchNestedRelease();
+        }
+        // 手势结束，父视图会自己重置 disallowIntercept 状态，不需要再通知父视图
+        mTracker.onGestureEnd();
+        applyNestedOffset(ev);
+        stopNestedScroll();
+        return false;
+      case MotionEvent.ACTION_CANCEL:
+        mTracker.onGestureEnd();
+        applyNestedOffset(ev);
+        stopNestedScroll();
+        return false;
+      default:
+        break;
+    }
+
+    // 默认情况下父视图不拦截视图的 touch 事件
+    mTracker.keepParentFromIntercepting();
+    applyNestedOffset(ev);
+    return false;
+  }
+
+  /**
+   * 在视图的 super.dispatchTouchEvent() 之后调用，恢复 {@link #onDispatchTouchEvent(MotionEvent)} 对 touch 事件的修改
+   */
+  public void onDispatchFinished(MotionEvent ev) {
+    if (mAppliedOffset != 0) {
+      offsetLocation(ev, -mAppliedOffset);
+      mAppliedOffset = 0;
+    }
+    if (mReplacedAction != -1) {
+      ev.setAction(mReplacedAction);
+      mReplacedAction = -1;
+    }
+  }
+
+  /**
+   * 视图自己的 fling 在途中到达交接的边缘时调用，把剩余的速度交给父视图，例如由父视图继续滑动到下一页
+   *
+   * @param velocity 到达边缘时的速度，单位是像素每秒，向边缘外为正
+   * @return 父视图是否接管了这次 fling
+   */
+  public boolean dispatchEdgeFling(float velocity) {
+    if (mNestedScrolling || Math.abs(velocity) < mMinFlingVelocity) {
+      // 手指还在屏幕上，或者剩余的速度太小
+      return false;
+    }
+    // 嵌套滑动的方向约定为 scrollX、scrollY 增大的方向为正
+    float nestedVelocity = mTracker.isOutOfEdge(1) ? velocity : -velocity;
+    if (!mNestedScrollingChildHelper.startNestedScroll(getNestedScrollAxis())) {
+      return false;
+    }
+    boolean consumed = dispatchNestedPreFling(nestedVelocity) || dispatchNestedFling(nestedVelocity);
+    mNestedScrollingChildHelper.stopNestedScroll();
+    return consumed;
+  }
+
+  /**
+   * 清除手势状态，视图被复用时调用
+   */
+  public void reset() {
+    mTracker.reset();
+    mActivePointerId = MotionEvent.INVALID_POINTER_ID;
+    stopNestedScroll();
+  }
+
+  /**
+   * 把一次移动交给父视图：先由父视图预先消费（例如把已经拖开的页面拖回去），视图在边缘时再把向边缘外的移动交给父视图
+   *
+   * @param delta 手指的移动距离，向上或者向左为正
+   */
+  private void dispatchNestedDrag(int delta) {
+    if (delta == 0) {
+      return;
+    }
+    boolean preScrolled = mHorizontal
+        ? mNestedScrollingChildHelper.dispatchNestedPreScroll(delta, 0, mScrollConsumed, null)
+        : mNestedScrollingChildHelper.dispatchNestedPreScroll(0, delta, mScrollConsumed, null);
+    if (preScrolled) {
+      int consumed = mScrollConsumed[mHorizontal ? 0 : 1];
+      mTracker.addNestedConsumed(consumed);
+      delta -= consumed;
+    }
+    if (delta != 0 && mTracker.isOutOfEdge(delta) && mEdgeCallback.isAtEdge()) {
+      // 视图已经不能再向这个方向滚动，移动全部交给父视图
+      if (mHorizontal) {
+        mNestedScrollingChildHelper.dispatchNestedScroll(0, 0, delta, 0, null);
+      } else {
+        mNestedScrollingChildHelper.dispatchNestedScroll(0, 0, 0, delta, null);
+      }
+      mTracker.addNestedConsumed(delta);
+    }
+  }
+
+  /**
+   * 松手时把速度交给父视图：父视图已经被拖开时由父视图接管，视图在边缘且向边缘外 fling 时父视图可以继续滑动
+   */
+  private void dispatchNestedRelease() {
+    mVelocityTracker.computeCurrentVelocity(1000, mMaxFlingVelocity);
+    // 嵌套滑动的速度方向和手指移动的方向相反
+    float velocity = -(mHorizontal ? mVelocityTracker.getXVelocity(mActivePointerId)
+        : mVelocityTracker.getYVelocity(mActivePointerId));
+    if (dispatchNestedPreFling(velocity)) {
+      mParentFlung = true;
+    } else if (Math.abs(velocity) >= mMinFlingVelocity && mTracker.isOutOfEdge(velocity) && mEdgeCallback.isAtEdge()) {
+      mParentFlung = dispatchNestedFling(velocity);
+    }
+  }
+
+  private boolean dispatchNestedPreFling(float velocity) {
+    return mHorizontal ? mNestedScrollingChildHelper.dispatchNestedPreFling(velocity, 0)
+        : mNestedScrollingChildHelper.dispatchNestedPreFling(0, velocity);
+  }
+
+  private boolean dispatchNestedFling(float velocity) {
+    return mHorizontal ? mNestedScrollingChildHelper.dispatchNestedFling(velocity, 0, false)
+        : mNestedScrollingChildHelper.dispatchNestedFling(0, velocity, false);
+  }
+
+  private int getNestedScrollAxis() {
+    return mHorizontal ? ViewCompat.SCROLL_AXIS_HORIZONTAL : ViewCompat.SCROLL_AXIS_VERTICAL;
+  }
+
+  /**
+   * 扣除被父视图消费的移动距离，父视图接管了 fling 时把 ACTION_UP 换成 ACTION_CANCEL
+   */
+  private void applyNestedOffset(MotionEvent ev) {
+    if (!mNestedScrolling) {
+      return;
+    }
+    float offset = mTracker.getNestedEventOffset(getOrigin(ev));
+    if (offset != 0) {
+      // 被消费的部分加回去，并抵消页面移动带来的视图位置变化
+      mAppliedOffset = offset;
+      offsetLocation(ev, mAppliedOffset);
+    }
+    if (mParentFlung && ev.getActionMasked() == MotionEvent.ACTION_UP) {
+      mReplacedAction = ev.getAction();
+      ev.setAction(MotionEvent.ACTION_CANCEL);
+    }
+  }
+
+  private void stopNestedScroll() {
+    if (mNestedScrolling) {
+      mNestedScrolling = false;
+      mNestedScrollingChildHelper.stopNestedScroll();
+    }
+    if (mVelocityTracker != null) {
+      mVelocityTracker.recycle();
+      mVelocityTracker = null;
+    }
+  }
+
+  /**
+   * 用屏幕坐标跟踪速度，视图跟随页面移动时速度不会失真
+   */
+  private void trackVelocity(MotionEvent ev, boolean restart) {
+    if (mVelocityTracker == null) {
+      mVelocityTracker = VelocityTracker.obtain();
+    } else if (restart) {
+      mVelocityTracker.clear();
+    }
+    MotionEvent screenEvent = MotionEvent.obtain(ev);
+    screenEvent.offsetLocation(ev.getRawX() - ev.getX(), ev.getRawY() - ev.getY());
+    mVelocityTracker.addMovement(screenEvent);
+    screenEvent.recycle();
+  }
+
+  /**
+   * 切换活动的手指，按下位置跟随平移，使得已经拖拽的距离保持不变
+   */
+  private void switchActivePointer(MotionEvent ev, int newPointerIndex) {
+    mTracker.onPointerChanged(getRawPosition(ev, newPointerIndex));
+    mActivePointerId = ev.getPointerId(newPointerIndex);
+  }
+
+  /**
+   * MotionEvent 只提供第一个手指的 raw 坐标，其他手指的 raw 坐标通过相同的偏移量换算
+   */
+  private float getRawPosition(MotionEvent ev, int pointerIndex) {
+    if (mHorizontal) {
+      return ev.getX(pointerIndex) + ev.getRawX() - ev.getX();
+    }
+    return ev.getY(pointerIndex) + ev.getRawY() - ev.getY();
+  }
+
+  /**
+   * @return 视图在交接方向上的屏幕位置，包括所在页面的 translation
+   */
+  private float getOrigin(MotionEvent ev) {
+    return mHorizontal ? ev.getRawX() - ev.getX() : ev.getRawY() - ev.getY();
+  }
+
+  private void offsetLocation(MotionEvent ev, float offset) {
+    if (mHorizontal) {
+      ev.offsetLocation(offset, 0);
+    } else {
+      ev.offsetLocation(0, offset);
+    }
+  }
+
+  /**
+   * 判断视图是否滚动到交接的边缘
+   */
+  public interface EdgeCallback {
+
+    boolean isAtEdge();
+  }
+}
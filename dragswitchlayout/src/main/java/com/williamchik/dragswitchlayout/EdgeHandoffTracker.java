@@ -0,0 +1,164 @@
+package com.williamchik.dragswitchlayout;
+
+/**
+ * {@link EdgeHandoffController} 中每个手势的判断：是否允许交给父视图、什么时候请求父视图拦截或者不拦截，以及嵌套滑动时交给视图的
+ * touch 事件需要平移的距离。
+ * <p/>
+ * 纯计算，不依赖 MotionEvent 和 View，坐标都是交接方向上的屏幕坐标，父视图通过 {@link Parent} 接收请求。
+ */
+final class EdgeHandoffTracker {
+
+  // 交接的边缘是否在 scrollX、scrollY 增大的方向上，即底部或者右边
+  private final boolean mPositiveEdge;
+  private final Parent mParent;
+
+  // 是否允许把 touch 事件交给父视图
+  private boolean mAllowHandoff;
+  // 手势 down 时交接方向上的坐标，换手指时会平移，使得拖拽距离保持连续
+  private float mDownPosition;
+  // 活动手指上一次在交接方向上的坐标
+  private float mLastPosition;
+  // 手势 down 时视图在屏幕上的位置，即 touch 事件的屏幕坐标减去视图中的坐标，包括所在页面的 translation
+  private float mDownOrigin;
+  // 当前手势中被父视图消费的移动距离
+  private int mNestedOffset;
+  // 最后一次请求父视图的 disallowIntercept 值，是否有效由 mDisallowInterceptKnown 决定
+  private boolean mDisallowIntercept;
+  private boolean mDisallowInterceptKnown;
+
+  /**
+   * @param positiveEdge 交接的边缘是底部或者右边时为 true，顶部或者左边时为 false
+   * @param parent       接收拦截请求的父视图
+   */
+  EdgeHandoffTracker(boolean positiveEdge, Parent parent) {
+    mPositiveEdge = positiveEdge;
+    mParent = parent;
+  }
+
+  /**
+   * 手势开始。父视图在 ACTION_DOWN 时会重置 disallowIntercept 状态，之前的请求不再有效
+   *
+   * @param position 按下的屏幕坐标
+   * @param origin   视图在屏幕上的位置
+   * @param atEdge   视图是否已经滚动到交接的边缘，只有这时才允许交给父视图
+   */
+  void onDown(float position, float origin, boolean atEdge) {
+    mDisallowInterceptKnown = false;
+    mDownPosition = position;
+    mLastPosition = position;
+    mDownOrigin = origin;
+    mAllowHandoff = atEdge;
+    mNestedOffset = 0;
+  }
+
+  /**
+   * 活动的手指换成了另一个手指，按下位置跟随平移，使得已经拖拽的距离保持不变
+   */
+  void onPointerChanged(float position) {
+    mDownPosition += position - mLastPosition;
+    mLastPosition = position;
+  }
+
+  /**
+   * 非嵌套滑动时的移动
+   *
+   * @return 允许交给父视图并且正在向边缘外拖拽，此时已经请求父视图拦截，touch 事件交给父视图处理
+   */
+  boolean onMove(float position) {
+    mLastPosition = position;
+    if (mAllowHandoff && isOutOfEdge(mDownPosition - mLastPosition)) {
+      setDisallowIntercept(false);
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * 嵌套滑动时的移动，只取整数像素的移动，不足 1 像素的部分留到下一次
+   *
+   * @return 手指的移动距离，向上或者向左为正
+   */
+  int onNestedMove(float position) {
+    int delta = (int) (mLastPosition - position);
+    mLastPosition -= delta;
+    return delta;
+  }
+
+  /**
+   * 父视图消费了嵌套滑动的移动
+   */
+  void addNestedConsumed(int consumed) {
+    mNestedOffset += consumed;
+  }
+
+  /**
+   * 嵌套滑动时交给视图的 touch 事件需要平移的距离，平移后视图只看到没有被父视图消费的移动。
+   * <p/>
+   * 视图中的坐标 = 屏幕坐标 - 视图的位置。父视图消费的移动拖动了页面，视图的位置也跟着变化，所以除了加回被消费的距离，
+   * 还要抵消视图的位置从 down 以来的变化，否则页面移动时视图的内容会反向滚动。
+   *
+   * @param origin 视图当前在屏幕上的位置
+   */
+  float getNestedEventOffset(float origin) {
+    return mNestedOffset + origin - mDownOrigin;
+  }
+
+  /**
+   * 默认情况下请求父视图不拦截，视图内部的滚动优先
+   */
+  void keepParentFromIntercepting() {
+    setDisallowIntercept(true);
+  }
+
+  /**
+   * 手势结束，父视图会自己重置 disallowIntercept 状态，不需要再通知父视图
+   */
+  void onGestureEnd() {
+    mDisallowInterceptKnown = false;
+  }
+
+  /**
+   * 清除手势状态，视图被复用时调用
+   */
+  void reset() {
+    mAllowHandoff = false;
+    mDownPosition = 0;
+    mLastPosition = 0;
+    mDownOrigin = 0;
+    mNestedOffset = 0;
+    mDisallowInterceptKnown = false;
+  }
+
+  /**
+   * @param delta 嵌套滑动方向的距离或速度，scrollX、scrollY 增大的方向为正
+   * @return 是否朝着交接的边缘外
+   */
+  boolean isOutOfEdge(float delta) {
+    return mPositiveEdge ? delta > 0 : delta < 0;
+  }
+
+  /**
+   * 只有在状态发生变化时才请求父视图，没有父视图时不记录，下一次再请求
+   */
+  private void setDisallowIntercept(boolean disallowIntercept) {
+    if (mDisallowInterceptKnown && mDisallowIntercept == disallowIntercept) {
+      return;
+    }
+    if (!mParent.requestDisallowInterceptTouchEvent(disallowIntercept)) {
+      return;
+    }
+    mDisallowIntercept = disallowIntercept;
+    mDisallowInterceptKnown = true;
+  }
+
+  /**
+   * 接收拦截请求的父视图
+   */
+  interface Parent {
+
+    /**
+     * @return 是否有父视图收到了请求
+     */
+    boolean requestDisallowInterceptTouchEvent(boolean disallowIntercept);
+  }
+}
\ No newline at end of file
@@ -0,0 +1,118 @@
+package com.williamchik.dragswitchlayout;
+
+/**
+ * 减速滑动引擎，位置按 1 - (1 - t)^5 的曲线减速到目标位置。滑动时长根据松手速度计算，使得起始速度正好等于松手速度，
+ * 松手越快滑动越快。没有速度时使用最长时长，和 ViewDragHelper 默认的滑动效果一致。曲线是单调的，不会越过目标位置。
+ */
+public class FlingSettleEngine implements SettleEngine {
+
+  // 减速曲线的指数，曲线的起始斜率等于这个值
+  private static final int DECELERATION_POWER = 5;
+  // 默认的最短滑动时长
+  private static final int DEFAULT_MIN_DURATION = 150;
+  // 默认的最长滑动时长
+  private static final int DEFAULT_MAX_DURATION = 600;
+
+  private final int mMinDuration;
+  private final int mMaxDuration;
+
+  private int mStartOffset;
+  private int mFinalOffset;
+  private int mCurrentOffset;
+  private long mStartTime;
+  private int mDuration;
+  private float mCurrentVelocity;
+  private boolean mFinished = true;
+
+  public FlingSettleEngine() {
+    this(DEFAULT_MIN_DURATION, DEFAULT_MAX_DURATION);
+  }
+
+  /**
+   * @param minDuration 最短滑动时长
+   * @param maxDuration 最长滑动时长，也是没有速度时的滑动时长
+   */
+  public FlingSettleEngine(int minDuration, int maxDuration) {
+    mMinDuration = minDuration;
+    mMaxDuration = maxDuration;
+  }
+
+  @Override
+  public void start(int startOffset, int finalOffset, float velocity, long startTime) {
+    mStartOffset = startOffset;
+    mFinalOffset = finalOffset;
+    mCurrentOffset = startOffset;
+    mStartTime = startTime;
+    mCurrentVelocity = velocity;
+
+    int distance = finalOffset - startOffset;
+    if (distance == 0) {
+      mFinished = true;
+      mCurrentVelocity = 0;
+      return;
+    }
+    mFinished = false;
+    // 只有朝向目标位置的速度分量才能延续到滑动中
+    float speed = distance > 0 ? velocity : -velocity;
+    if (speed > 0) {
+      int duration = (int) (DECELERATION_POWER * Math.abs(distance) * 1000 / speed);
+      mDuration = Math.max(mMinDuration, Math.min(mMaxDuration, duration));
+    } else {
+      mDuration = mMaxDuration;
+    }
+  }
+
+  @Override
+  public boolean computeOffset(long currentTime) {
+    if (mFinished) {
+      return false;
+    }
+
+    long elapsed = currentTime - mStartTime;
+    int distance = mFinalOffset - mStartOffset;
+    if (elapsed >= mDuration) {
+      mCurrentOffset = mFinalOffset;
+      mCurrentVelocity = 0;
+      mFinished = true;
+      return false;
+    }
+
+    float remaining = 1.0f - (float) Math.max(0, elapsed) / mDuration;
+    float remainingPow = remaining * remaining * remaining * remaining;
+    mCurrentOffset = mStartOffset + Math.round(distance * (1.0f - remainingPow * remaining));
+    mCurrentVelocity = distance * DECELERATION_POWER * remainingPow * 1000 / mDuration;
+    if (mCurrentOffset == mFinalOffset) {
+      // 剩余的距离已经不到 1 像素，直接结束，不再多等几帧
+      mCurrentVelocity = 0;
+      mFinished = true;
+      return false;
+    }
+    return true;
+  }
+
+  @Override
+  public void abort() {
+    mFinished = true;
+    mCurrentVelocity = 0;
+  }
+
+  @Override
+  public boolean isFinished() {
+    return mFinished;
+  }
+
+  @Override
+  public int getCurrentOffset() {
+    return mCurrentOffset;
+  }
+
+  @Override
+  public int getFinalOffset() {
+    return mFinalOffset;
+  }
+
+  @Override
+  public float getCurrentVelocity() {
+    return mCurrentVelocity;
+  }
+}
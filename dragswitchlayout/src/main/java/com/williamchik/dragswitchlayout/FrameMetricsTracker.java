@@ -0,0 +1,95 @@
+package com.williamchik.dragswitchlayout;
+
+import android.content.Context;
+import android.view.Choreographer;
+import android.view.WindowManager;
+
+/**
+ * 统计拖拽和切换过程中的帧数据，通过 Choreographer 的帧回调计算每一帧的间隔。没有设置 Sink 时不做任何统计，
+ * 统计过程中复用同一个 {@link SwitchFrameMetrics}，不分配对象。只能在主线程中使用。
+ */
+class FrameMetricsTracker implements Choreographer.FrameCallback {
+
+  private static final long NANOS_PER_SECOND = 1000000000L;
+
+  private final SwitchFrameMetrics mMetrics = new SwitchFrameMetrics();
+  private final Context mContext;
+  private SwitchFrameMetrics.Sink mSink;
+  // 一帧的时间预算
+  private long mFrameBudgetNanos;
+  // 是否正在统计
+  private boolean mActive;
+  private long mStartNanos;
+
+  FrameMetricsTracker(Context context) {
+    mContext = context;
+  }
+
+  void setSink(SwitchFrameMetrics.Sink sink) {
+    end();
+    mSink = sink;
+    if (sink != null) {
+      // 按屏幕的刷新率计算一帧的时间预算
+      WindowManager windowManager = (WindowManager) mContext.getSystemService(Context.WINDOW_SERVICE);
+      mFrameBudgetNanos = (long) (NANOS_PER_SECOND / windowManager.getDefaultDisplay().getRefreshRate());
+    }
+  }
+
+  /**
+   * 开始一次统计，正在进行的统计会先结束
+   */
+  void begin(int sessionType) {
+    if (mSink == null) {
+      return;
+    }
+    end();
+    mMetrics.reset(sessionType);
+    mActive = true;
+    mStartNanos = System.nanoTime();
+    Choreographer.getInstance().postFrameCallback(this);
+  }
+
+  /**
+   * 结束统计，把结果交给 Sink
+   */
+  void end() {
+    if (!mActive) {
+      return;
+    }
+    mActive = false;
+    Choreographer.getInstance().removeFrameCallback(this);
+    mMetrics.mDurationNanos = System.nanoTime() - mStartNanos;
+    mSink.onSessionFinished(mMetrics);
+  }
+
+  /**
+   * 记录这次统计过程中被切换为硬件层的页面数
+   */
+  void setLayeredPageCount(int count) {
+    if (mActive) {
+      mMetrics.mLayeredPageCount = count;
+    }
+  }
+
+  /**
+   * @return 计算位置开始的时间，没有在统计时返回 0
+   */
+  long beginCompute() {
+    return mActive ? System.nanoTime() : 0;
+  }
+
+  void endCompute(long beginNanos) {
+    if (mActive && beginNanos != 0) {
+      mMetrics.mComputeTimeNanos += System.nanoTime() - beginNanos;
+    }
+  }
+
+  @Override
+  public void doFrame(long frameTimeNanos) {
+    if (!mActive) {
+      return;
+    }
+    mMetrics.onFrame(frameTimeNanos, mFrameBudgetNanos);
+    Choreographer.getInstance().postFrameCallback(this);
+  }
+}
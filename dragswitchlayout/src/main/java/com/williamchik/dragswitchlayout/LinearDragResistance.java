@@ -0,0 +1,28 @@
+package com.williamchik.dragswitchlayout;
+
+/**
+ * 线性阻力，页面的移动增量是手指移动增量的固定比例
+ */
+public class LinearDragResistance implements DragResistance {
+
+  // 默认的比例，和原来的 dy / 4 一致
+  private static final float DEFAULT_FACTOR = 0.25f;
+
+  private final float mFactor;
+
+  public LinearDragResistance() {
+    this(DEFAULT_FACTOR);
+  }
+
+  /**
+   * @param factor 页面移动增量和手指移动增量的比例
+   */
+  public LinearDragResistance(float factor) {
+    mFactor = factor;
+  }
+
+  @Override
+  public float apply(int dy, int dragOffset, int pageHeight) {
+    return dy * mFactor;
+  }
+}
@@ -0,0 +1,420 @@
+package com.williamchik.dragswitchlayout;
+
+import java.util.ArrayList;
+
+/**
+ * DragSwitchLayout 的页面切换状态机：当前页、目标页、拖拽偏移量和拖拽状态，以及拖拽的换算、松手时目标页的决定、
+ * 滑动的开始、逐帧计算和结束。
+ * <p/>
+ * 纯计算，不依赖 View，时间由调用方传入。页面的移动、layer、帧统计和回调的分发都通过 {@link Host} 交给 DragSwitchLayout，
+ * 测试中可以直接驱动这个类回放手势。
+ */
+final class PageSwitchController {
+
+  // 滑动速度的阈值，单位是 dp/s，超过这个绝对值认为是可以上下切换视图
+  private static final int VEL_THRESHOLD = 75;
+  // 单位是 dp，当上下滑动速度不够时，通过这个阈值来判定应该切换到顶部还是底部
+  private static final int DISTANCE_THRESHOLD = 60;
+
+  // 没有拖拽和滑动
+  static final int SCROLL_STATE_IDLE = 0;
+  // 正在拖拽
+  static final int SCROLL_STATE_DRAGGING = 1;
+  // 松手后正在滑动到目标页
+  static final int SCROLL_STATE_SETTLING = 2;
+
+  private final Host mHost;
+  // 按屏幕密度换算后的速度阈值，单位是像素/秒
+  private final float mVelThreshold;
+  // 按屏幕密度换算后的距离阈值，单位是像素
+  private final int mDistanceThreshold;
+  // 把手指的移动经过阻力曲线换算为拖拽偏移量的增量
+  private final DragStepCalculator mDragStepCalculator = new DragStepCalculator();
+  // 松手后滑动到目标页的滑动引擎
+  private SettleEngine mSettleEngine = new FlingSettleEngine();
+  // 拖拽时的阻力曲线
+  private DragResistance mDragResistance = new LinearDragResistance();
+  // 当前的拖拽状态
+  private int mScrollState = SCROLL_STATE_IDLE;
+  // 页面总数
+  private int mPageCount;
+  // 页面在切换方向上的尺寸
+  private int mPageSize;
+  // 当前显示的页面
+  private int mCurrentPage;
+  // 松手后将要滑动到的页面
+  private int mTargetPage;
+  // 当前页相对于静止位置的拖拽偏移量，其他页面的位置都根据它计算
+  private int mDragOffset;
+  // 等待静止后再执行的任务
+  private final ArrayList<Runnable> mIdleTasks = new ArrayList<Runnable>();
+
+  /**
+   * @param density 屏幕密度，用于换算速度和距离阈值
+   */
+  PageSwitchController(Host host, float density) {
+    mHost = host;
+    mVelThreshold = VEL_THRESHOLD * density;
+    mDistanceThreshold = (int) (DISTANCE_THRESHOLD * density + 0.5f);
+  }
+
+  void setSettleEngine(SettleEngine settleEngine) {
+    mSettleEngine.abort();
+    mSettleEngine = settleEngine;
+  }
+
+  void setDragResistance(DragResistance dragResistance) {
+    mDragResistance = dragResistance;
+  }
+
+  void setPageCount(int pageCount) {
+    mPageCount = pageCount;
+  }
+
+  int getPageCount() {
+    return mPageCount;
+  }
+
+  void setPageSize(int pageSize) {
+    mPageSize = pageSize;
+  }
+
+  int getPageSize() {
+    return mPageSize;
+  }
+
+  int getScrollState() {
+    return mScrollState;
+  }
+
+  int getCurrentPage() {
+    return mCurrentPage;
+  }
+
+  int getTargetPage() {
+    return mTargetPage;
+  }
+
+  int getDragOffset() {
+    return mDragOffset;
+  }
+
+  /**
+   * @return 当前页，正在滑动时返回滑动的目标页
+   */
+  int getSettledPage() {
+    return mScrollState == SCROLL_STATE_SETTLING ? mTargetPage : mCurrentPage;
+  }
+
+  /**
+   * @return 已经在 page 静止，或者正在滑向 page
+   */
+  boolean isSettledAt(int page) {
+    return page == getSettledPage() && (mScrollState == SCROLL_STATE_SETTLING
+        || mScrollState == SCROLL_STATE_IDLE && mDragOffset == 0);
+  }
+
+  /**
+   * @return 页面当前相对于布局顶部（横向切换时是左边）的位置
+   */
+  int getPageOffset(int position) {
+    return (position - mCurrentPage) * mPageSize + mDragOffset;
+  }
+
+  /**
+   * 开始拖拽，正在进行的滑动被取消
+   */
+  void startDrag() {
+    setScrollState(SCROLL_STATE_DRAGGING);
+  }
+
+  /**
+   * 松手后没有开始滑动，拖拽直接结束
+   */
+  void endDrag() {
+    if (mScrollState == SCROLL_STATE_DRAGGING) {
+      setScrollState(SCROLL_STATE_IDLE);
+    }
+  }
+
+  /**
+   * 通过阻力曲线把手指的移动换算为拖拽偏移量的增量，换算后不足 1 像素的部分累加到下一次
+   *
+   * @param dy 手指在切换方向上的移动距离，向下或者向右为正
+   */
+  int computeResistedDy(int dy) {
+    return mDragStepCalculator.computeDy(mDragResistance, dy, mDragOffset, mPageSize, mCurrentPage == 0,
+        mCurrentPage == mPageCount - 1);
+  }
+
+  /**
+   * 手指移动 dy，经过阻力曲线后拖拽页面
+   */
+  void dragBy(int dy) {
+    setDragOffset(mDragOffset + computeResistedDy(dy));
+  }
+
+  /**
+   * 清空拖拽累加的部分，页面回到静止位置时调用
+   */
+  void resetDragStep() {
+    mDragStepCalculator.reset();
+  }
+
+  /**
+   * 修改拖拽偏移量，所有页面跟随移动
+   */
+  void setDragOffset(int dragOffset) {
+    if (dragOffset == mDragOffset) {
+      return;
+    }
+    mDragOffset = dragOffset;
+    mHost.onDragOffsetChanged();
+  }
+
+  /**
+   * 松手：速度或者拖拽距离足够时切换到相邻的页面，否则滑回当前页
+   *
+   * @param velocity 切换方向上的速度，向下或者向右为正
+   * @param now      当前的动画时间
+   */
+  void release(float velocity, long now) {
+    int targetPage = DragStepCalculator.decideTargetPage(mCurrentPage, mPageCount, mDragOffset, velocity, mVelThreshold,
+        mDistanceThreshold);
+    mHost.onPageSwitchDecided(mCurrentPage, targetPage);
+    settleToPage(targetPage, velocity, now);
+  }
+
+  /**
+   * 页面内容在边缘向外 fling，速度足够并且有相邻的页面时，带着速度切换过去
+   *
+   * @param velocity 内容的 fling 速度，向上或者向左为正
+   * @return 是否开始了切换
+   */
+  boolean flingToAdjacentPage(float velocity, long now) {
+    if (Math.abs(velocity) < mVelThreshold) {
+      return false;
+    }
+    int targetPage = velocity > 0 ? mCurrentPage + 1 : mCurrentPage - 1;
+    if (targetPage < 0 || targetPage >= mPageCount) {
+      return false;
+    }
+    mHost.onPageSwitchDecided(mCurrentPage, targetPage);
+    settleToPage(targetPage, -velocity, now);
+    return true;
+  }
+
+  /**
+   * 切换到指定的页面，和松手一样回调，没有滑动动画时直接跳转过去并回调滑动结束
+   *
+   * @param animate 是否有滑动动画
+   */
+  void switchToPage(int page, boolean animate, long now) {
+    mHost.onPageSwitchDecided(getSettledPage(), page);
+    if (animate && mPageSize > 0) {
+      settleToPage(page, 0, now);
+    } else {
+      jumpToPage(page);
+      mHost.onSettleFinished(mCurrentPage);
+    }
+  }
+
+  /**
+   * 直接跳转到指定页面，没有滑动动画
+   */
+  void jumpToPage(int page) {
+    abort();
+    mCurrentPage = page;
+    mTargetPage = page;
+    mDragOffset = 0;
+    mHost.onPageJumped();
+  }
+
+  /**
+   * 重新设置当前页，不回调，用于页面整体被替换时
+   */
+  void resetToPage(int page) {
+    mCurrentPage = page;
+    mTargetPage = page;
+    mDragOffset = 0;
+  }
+
+  /**
+   * 从当前的拖拽偏移量滑动到目标页
+   *
+   * @param targetPage 目标页
+   * @param velocity   松手时的速度，只有朝向目标页的速度会延续到滑动中
+   */
+  void settleToPage(int targetPage, float velocity, long now) {
+    mTargetPage = targetPage;
+    // 目标页静止时，当前页的拖拽偏移量
+    int finalOffset = (mCurrentPage - targetPage) * mPageSize;
+    if (finalOffset == mDragOffset) {
+      // 已经在目标位置，不需要滑动
+      setScrollState(SCROLL_STATE_IDLE);
+      mHost.onSettleFinished(mCurrentPage);
+      return;
+    }
+    if ((finalOffset - mDragOffset) * velocity < 0) {
+      velocity = 0;
+    }
+    mSettleEngine.start(mDragOffset, finalOffset, velocity, now);
+    setScrollState(SCROLL_STATE_SETTLING);
+    mHost.onSettleStarted(targetPage);
+  }
+
+  /**
+   * 按动画时间计算这一帧的位置，每一帧调用一次
+   *
+   * @return 还没有到达目标位置时返回 true，到达时返回 false，之后调用 {@link #finishSettle()}
+   */
+  boolean computeSettleOffset(long now) {
+    if (mScrollState != SCROLL_STATE_SETTLING) {
+      return false;
+    }
+    boolean keepGoing = mSettleEngine.computeOffset(now);
+    setDragOffset(mSettleEngine.getCurrentOffset());
+    return keepGoing;
+  }
+
+  /**
+   * 滑动到达目标位置，目标页成为当前页
+   */
+  void finishSettle() {
+    if (mScrollState != SCROLL_STATE_SETTLING) {
+      return;
+    }
+    setScrollState(SCROLL_STATE_IDLE);
+    mHost.onSettleFinished(mCurrentPage);
+  }
+
+  /**
+   * 停止拖拽和滑动，页面停在当前位置
+   */
+  void abort() {
+    boolean wasSettling = mScrollState == SCROLL_STATE_SETTLING;
+    mSettleEngine.abort();
+    setScrollState(SCROLL_STATE_IDLE);
+    if (wasSettling) {
+      mHost.onSettleCancelled(mCurrentPage);
+    }
+  }
+
+  /**
+   * 添加静止后执行的任务，同一个任务重复添加只执行一次。已经静止时立即通过 {@link Host#onIdleTasksPending()} 安排执行
+   */
+  void runWhenIdle(Runnable task) {
+    if (!mIdleTasks.contains(task)) {
+      mIdleTasks.add(task);
+    }
+    if (mScrollState == SCROLL_STATE_IDLE) {
+      mHost.onIdleTasksPending();
+    }
+  }
+
+  /**
+   * 取消还没有执行的任务
+   */
+  void cancelIdleTask(Runnable task) {
+    mIdleTasks.remove(task);
+  }
+
+  /**
+   * 依次执行等待的任务。正在拖拽或滑动时不执行，任务中开始了新的拖拽或滑动时，剩下的任务等到下一次静止
+   */
+  void runIdleTasks() {
+    while (mScrollState == SCROLL_STATE_IDLE && !mIdleTasks.isEmpty()) {
+      mIdleTasks.remove(0).run();
+    }
+  }
+
+  /**
+   * 页面尺寸变化，拖拽偏移量和正在进行的滑动按比例换算到新的尺寸。页面的位置由调用方在之后的 layout 中统一更新
+   */
+  void resize(int pageSize, long now) {
+    int oldSize = mPageSize;
+    mPageSize = pageSize;
+    if (oldSize <= 0 || pageSize == oldSize) {
+      return;
+    }
+    int dragOffset = Math.round((float) mDragOffset * pageSize / oldSize);
+    if (mScrollState == SCROLL_STATE_SETTLING) {
+      // 正在滑动，按新的尺寸重新计算目标位置，当前的速度也按比例换算
+      int finalOffset = (mCurrentPage - mTargetPage) * pageSize;
+      float velocity = mSettleEngine.getCurrentVelocity() * pageSize / oldSize;
+      mSettleEngine.start(dragOffset, finalOffset, velocity, now);
+    }
+    mDragOffset = dragOffset;
+  }
+
+  private void setScrollState(int scrollState) {
+    if (mScrollState == scrollState) {
+      return;
+    }
+    int oldState = mScrollState;
+    mScrollState = scrollState;
+    if (scrollState == SCROLL_STATE_DRAGGING) {
+      // 新的拖拽开始，清空上一次拖拽累加的移动增量
+      mDragStepCalculator.reset();
+      if (!mSettleEngine.isFinished()) {
+        // 滑动过程中重新被拖拽，停止滑动
+        mSettleEngine.abort();
+      }
+    } else if (scrollState == SCROLL_STATE_IDLE && mTargetPage != mCurrentPage) {
+      // 拖拽和滑动结束，目标页成为当前页，拖拽偏移量改为相对于新的当前页
+      mDragOffset += (mTargetPage - mCurrentPage) * mPageSize;
+      mCurrentPage = mTargetPage;
+      mHost.onCurrentPageChanged(mCurrentPage);
+    }
+    mHost.onScrollStateChanged(oldState, scrollState);
+    if (scrollState == SCROLL_STATE_IDLE && !mIdleTasks.isEmpty()) {
+      mHost.onIdleTasksPending();
+    }
+    if (oldState == SCROLL_STATE_SETTLING && scrollState == SCROLL_STATE_DRAGGING) {
+      // 滑动过程中被重新拖拽，这次滑动被取消
+      mHost.onSettleCancelled(mCurrentPage);
+    }
+  }
+
+  /**
+   * 页面切换状态的变化，由 DragSwitchLayout 更新页面并分发回调
+   */
+  interface Host {
+
+    /**
+     * 拖拽偏移量变化，需要更新页面的位置
+     */
+    void onDragOffsetChanged();
+
+    /**
+     * 拖拽状态变化
+     */
+    void onScrollStateChanged(int oldState, int newState);
+
+    /**
+     * 滑动结束后目标页成为当前页
+     */
+    void onCurrentPageChanged(int page);
+
+    /**
+     * 直接跳转到了新的页面，需要立即添加页面并更新位置
+     */
+    void onPageJumped();
+
+    /**
+     * 确定了要切换到的页面，toPage 和 fromPage 相同表示滑回原来的页面
+     */
+    void onPageSwitchDecided(int fromPage, int toPage);
+
+    void onSettleStarted(int targetPage);
+
+    void onSettleFinished(int page);
+
+    void onSettleCancelled(int page);
+
+    /**
+     * 已经静止并且有等待的任务，在之后的消息循环中调用 {@link #runIdleTasks()}
+     */
+    void onIdleTasksPending();
+  }
+}
\ No newline at end of file
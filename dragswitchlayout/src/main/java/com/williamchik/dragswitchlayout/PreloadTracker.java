@@ -0,0 +1,118 @@
+package com.williamchik.dragswitchlayout;
+
+/**
+ * {@link DragSwitchLayout} 中底部视图的预加载：什么时候开始预加载、什么时候取消，以及从切换到底部视图到内容可见的耗时。
+ * <p/>
+ * 纯计算，不依赖 View，时间由调用方传入。每个回调最多一次：预加载只开始一次，取消只在底部视图从来没有显示过时回调，
+ * 耗时只统计第一次切换到底部视图。
+ */
+final class PreloadTracker {
+
+  // 底部视图预加载的监听器
+  private DragSwitchLayout.PreloadListener mListener;
+  // 顶部视图滑动超过这个比例时开始预加载底部视图，小于 0 表示不预加载
+  private float mPreloadFraction = -1;
+  // 底部视图是否已经开始加载
+  private boolean mHasPreloaded;
+  // 底部视图是否已经被切换显示过
+  private boolean mHasShownBottom;
+  // 底部视图的内容是否已经可见
+  private boolean mBottomContentReady;
+  // 切换到底部视图的时刻，用于统计从拖拽到内容可见的耗时
+  private long mSwitchToBottomTime;
+
+  void setListener(float preloadFraction, DragSwitchLayout.PreloadListener listener) {
+    mPreloadFraction = preloadFraction;
+    mListener = listener;
+  }
+
+  /**
+   * 顶部视图滑动超过预加载比例，或者已经滑动到底部时，开始预加载底部视图
+   *
+   * @param atBottom       顶部视图是否已经滑动到底部
+   * @param scrollFraction 顶部视图的滑动比例
+   */
+  void onTopScrolled(boolean atBottom, float scrollFraction) {
+    if (mHasPreloaded || mListener == null || mPreloadFraction < 0) {
+      return;
+    }
+    if (atBottom || scrollFraction >= mPreloadFraction) {
+      startPreload();
+    }
+  }
+
+  /**
+   * 切换到底部视图，记录切换的时刻，如果底部视图的内容已经可见，则耗时为 0
+   */
+  void onSwitchToBottom(long now) {
+    if (mHasShownBottom) {
+      return;
+    }
+    mHasShownBottom = true;
+    mSwitchToBottomTime = now;
+    // 没有触发预加载时，在切换时开始加载
+    startPreload();
+    if (mBottomContentReady) {
+      dispatchBottomContentShown(0);
+    }
+  }
+
+  /**
+   * 底部视图的内容已经可见。已经切换到底部视图时，内容此时才可见，回调耗时
+   *
+   * @return 是否是第一次调用
+   */
+  boolean onBottomContentReady(long now) {
+    if (mBottomContentReady) {
+      return false;
+    }
+    mBottomContentReady = true;
+    if (mHasShownBottom) {
+      dispatchBottomContentShown(now - mSwitchToBottomTime);
+    }
+    return true;
+  }
+
+  /**
+   * 用户离开时底部视图还没有显示过，取消预加载。之后重新回到布局时可以再次预加载
+   */
+  void onLeave() {
+    if (mHasPreloaded && !mHasShownBottom && mListener != null) {
+      mHasPreloaded = false;
+      mListener.onPreloadCancelled();
+    }
+  }
+
+  boolean hasPreloaded() {
+    return mHasPreloaded;
+  }
+
+  boolean hasShownBottom() {
+    return mHasShownBottom;
+  }
+
+  /**
+   * 恢复保存的状态。底部视图已经加载过时不再回调 onPreload()，由外部保留已经加载的内容；
+   * 之前已经显示过时不再统计耗时
+   */
+  void restore(boolean hasPreloaded, boolean hasShownBottom) {
+    mHasPreloaded = hasPreloaded;
+    mHasShownBottom = hasShownBottom;
+    if (hasShownBottom) {
+      mBottomContentReady = true;
+    }
+  }
+
+  private void startPreload() {
+    if (!mHasPreloaded && mListener != null) {
+      mHasPreloaded = true;
+      mListener.onPreload();
+    }
+  }
+
+  private void dispatchBottomContentShown(long latencyMillis) {
+    if (mListener != null) {
+      mListener.onBottomContentShown(latencyMillis);
+    }
+  }
+}
\ No newline at end of file
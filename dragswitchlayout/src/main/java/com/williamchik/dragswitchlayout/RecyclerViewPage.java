@@ -0,0 +1,83 @@
+package com.williamchik.dragswitchlayout;
+
+import android.support.v7.widget.RecyclerView;
+import android.view.View;
+
+/**
+ * 把 RecyclerView 包装为 {@link ScrollablePage}。RecyclerView 只 layout 可见的条目，很长的列表放在页面中也不需要测量所有的条目。
+ * <p/>
+ * RecyclerView 滚动时不改变自己的 scrollY，滚动距离由 computeVerticalScrollOffset() 估算，取决于 LayoutManager 的实现。
+ * 本库没有依赖 RecyclerView，使用这个类的宿主需要自己引入 recyclerview-v7。
+ */
+public class RecyclerViewPage implements ScrollablePage {
+
+  private final RecyclerView mRecyclerView;
+  private OnPageScrollListener mOnPageScrollListener;
+  private final RecyclerView.OnScrollListener mOnScrollListener = new RecyclerView.OnScrollListener() {
+
+    @Override
+    public void onScrolled(RecyclerView recyclerView, int dx, int dy) {
+      if (dy != 0 && mOnPageScrollListener != null) {
+        mOnPageScrollListener.onPageScrolled(RecyclerViewPage.this);
+      }
+    }
+  };
+
+  public RecyclerViewPage(RecyclerView recyclerView) {
+    mRecyclerView = recyclerView;
+  }
+
+  @Override
+  public View getView() {
+    return mRecyclerView;
+  }
+
+  @Override
+  public boolean isAtTop() {
+    return !mRecyclerView.canScrollVertically(-1);
+  }
+
+  @Override
+  public boolean isAtBottom() {
+    return !mRecyclerView.canScrollVertically(1);
+  }
+
+  @Override
+  public int getPageScrollY() {
+    return mRecyclerView.computeVerticalScrollOffset();
+  }
+
+  @Override
+  public float getScrollFraction() {
+    int scrollRange = mRecyclerView.computeVerticalScrollRange() - mRecyclerView.computeVerticalScrollExtent();
+    if (scrollRange <= 0) {
+      return 0;
+    }
+    return Math.max(0, Math.min(1, (float) mRecyclerView.computeVerticalScrollOffset() / scrollRange));
+  }
+
+  /**
+   * RecyclerView 自己保存和恢复滚动位置，这里只处理回顶，其他位置按当前位置的差值滚动
+   */
+  @Override
+  public void scrollPageTo(int scrollY) {
+    if (scrollY <= 0) {
+      mRecyclerView.scrollToPosition(0);
+      return;
+    }
+    int dy = scrollY - mRecyclerView.computeVerticalScrollOffset();
+    if (dy != 0 && mRecyclerView.getLayoutManager() != null) {
+      mRecyclerView.scrollBy(0, dy);
+    }
+  }
+
+  @Override
+  public void setOnPageScrollListener(OnPageScrollListener listener) {
+    if (mOnPageScrollListener == null && listener != null) {
+      mRecyclerView.addOnScrollListener(mOnScrollListener);
+    } else if (mOnPageScrollListener != null && listener == null) {
+      mRecyclerView.removeOnScrollListener(mOnScrollListener);
+    }
+    mOnPageScrollListener = listener;
+  }
+}
\ No newline at end of file
@@ -0,0 +1,153 @@
+package com.williamchik.dragswitchlayout;
+
+/**
+ * 定时轮播的调度器，和视图的生命周期绑定：视图离开窗口、不可见或者窗口失去焦点时暂停，恢复时按暂停前剩余的时间继续，
+ * 不会因为暂停而重新计时，也不会在恢复时立即补发错过的轮播。
+ * <p/>
+ * 任何时候最多只有一个等待执行的回调。时间和回调的调度都通过 {@link Timer} 完成，测试时可以换成手动推进的时钟。
+ */
+public class RotationScheduler {
+
+  private final Timer mTimer;
+  // 每次轮播要执行的操作
+  private final Runnable mRotateAction;
+  // 轮播的间隔，单位是毫秒
+  private long mInterval;
+  // 是否开启了轮播
+  private boolean mStarted;
+  // 视图是否在窗口中
+  private boolean mAttached;
+  // 视图是否可见
+  private boolean mVisible = true;
+  // 窗口是否有焦点
+  private boolean mWindowFocused = true;
+  // 当前是否有等待执行的回调
+  private boolean mRunning;
+  // 下一次轮播的时刻，只在 mRunning 时有效
+  private long mDueTime;
+  // 暂停时距离下一次轮播剩余的时间，小于 0 表示按完整的间隔计时
+  private long mRemaining = -1;
+  private final Runnable mTick = new Runnable() {
+
+    @Override
+    public void run() {
+      onTick();
+    }
+  };
+
+  /**
+   * @param timer        时钟和回调的调度
+   * @param rotateAction 每次轮播要执行的操作
+   */
+  public RotationScheduler(Timer timer, Runnable rotateAction) {
+    mTimer = timer;
+    mRotateAction = rotateAction;
+  }
+
+  /**
+   * 开始轮播，第一次轮播在一个间隔之后。已经开始时按新的间隔重新计时
+   *
+   * @param intervalMillis 轮播的间隔，单位是毫秒
+   */
+  public void start(long intervalMillis) {
+    if (intervalMillis <= 0) {
+      throw new IllegalArgumentException("interval must be positive");
+    }
+    stop();
+    mInterval = intervalMillis;
+    mStarted = true;
+    update();
+  }
+
+  /**
+   * 停止轮播
+   */
+  public void stop() {
+    mStarted = false;
+    mRemaining = -1;
+    if (mRunning) {
+      mRunning = false;
+      mTimer.removeCallbacks(mTick);
+    }
+  }
+
+  /**
+   * @return 是否开启了轮播，暂停时也返回 true
+   */
+  public boolean isStarted() {
+    return mStarted;
+  }
+
+  /**
+   * @return 当前是否在计时，开启了轮播并且没有被暂停
+   */
+  public boolean isRunning() {
+    return mRunning;
+  }
+
+  public void setAttached(boolean attached) {
+    mAttached = attached;
+    update();
+  }
+
+  public void setVisible(boolean visible) {
+    mVisible = visible;
+    update();
+  }
+
+  public void setWindowFocused(boolean windowFocused) {
+    mWindowFocused = windowFocused;
+    update();
+  }
+
+  /**
+   * 根据当前的状态开始或暂停计时
+   */
+  private void update() {
+    boolean shouldRun = mStarted && mAttached && mVisible && mWindowFocused;
+    if (shouldRun == mRunning) {
+      return;
+    }
+    mRunning = shouldRun;
+    long now = mTimer.uptimeMillis();
+    if (shouldRun) {
+      // 恢复时按暂停前剩余的时间继续
+      long delay = mRemaining >= 0 ? mRemaining : mInterval;
+      mRemaining = -1;
+      mDueTime = now + delay;
+      mTimer.postDelayed(mTick, delay);
+    } else {
+      mTimer.removeCallbacks(mTick);
+      mRemaining = Math.max(0, mDueTime - now);
+    }
+  }
+
+  private void onTick() {
+    if (!mRunning) {
+      return;
+    }
+    // 下一次轮播从这一次的预定时刻开始计算，回调的延迟不会累积；主线程卡顿太久时从现在重新计时，不连续补发
+    long now = mTimer.uptimeMillis();
+    mDueTime += mInterval;
+    if (mDueTime <= now) {
+      mDueTime = now + mInterval;
+    }
+    mTimer.postDelayed(mTick, mDueTime - now);
+    mRotateAction.run();
+  }
+
+  /**
+   * 时钟和回调的调度，通常由视图的 postDelayed() 和 SystemClock.uptimeMillis() 实现
+   */
+  public interface Timer {
+
+    /**
+     * @return 当前时刻，单位是毫秒，不受系统时间修改的影响
+     */
+    long uptimeMillis();
+
+    void postDelayed(Runnable runnable, long delayMillis);
+
+    void removeCallbacks(Runnable runnable);
+  }
+}
\ No newline at end of file
@@ -0,0 +1,38 @@
+package com.williamchik.dragswitchlayout;
+
+/**
+ * 橡皮筋阻力，离开静止位置越远阻力越大。往回拖时使用起始的比例，不会感觉卡住。
+ */
+public class RubberBandDragResistance implements DragResistance {
+
+  // 默认的起始比例
+  private static final float DEFAULT_FACTOR = 0.5f;
+  // 默认在离开静止位置半个页面高度时，比例衰减到起始比例的四分之一
+  private static final float DEFAULT_FALLOFF = 0.5f;
+
+  private final float mFactor;
+  private final float mFalloff;
+
+  public RubberBandDragResistance() {
+    this(DEFAULT_FACTOR, DEFAULT_FALLOFF);
+  }
+
+  /**
+   * @param factor  在静止位置时页面移动增量和手指移动增量的比例
+   * @param falloff 比例衰减的距离，相对于页面高度。离开静止位置 falloff 个页面高度时，比例衰减到起始比例的四分之一
+   */
+  public RubberBandDragResistance(float factor, float falloff) {
+    mFactor = factor;
+    mFalloff = falloff;
+  }
+
+  @Override
+  public float apply(int dy, int dragOffset, int pageHeight) {
+    if (pageHeight <= 0 || (long) dy * dragOffset < 0) {
+      // 往静止位置拖，不增加阻力
+      return dy * mFactor;
+    }
+    float distance = Math.abs(dragOffset) / (pageHeight * mFalloff);
+    return dy * mFactor / ((1 + distance) * (1 + distance));
+  }
+}
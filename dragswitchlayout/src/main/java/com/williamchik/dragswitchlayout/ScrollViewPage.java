@@ -0,0 +1,24 @@
+package com.williamchik.dragswitchlayout;
+
+import android.view.View;
+import android.widget.ScrollView;
+
+/**
+ * 把普通的 ScrollView 包装为 {@link ScrollablePage}。CustomScrollView 自己实现了 ScrollablePage，不需要包装
+ */
+public class ScrollViewPage extends ViewScrollablePage {
+
+  public ScrollViewPage(ScrollView scrollView) {
+    super(scrollView);
+  }
+
+  @Override
+  int getScrollRange() {
+    ScrollView scrollView = (ScrollView) mView;
+    if (scrollView.getChildCount() == 0) {
+      return 0;
+    }
+    View child = scrollView.getChildAt(0);
+    return child.getHeight() - (scrollView.getHeight() - scrollView.getPaddingTop() - scrollView.getPaddingBottom());
+  }
+}
\ No newline at end of file
@@ -0,0 +1,57 @@
+package com.williamchik.dragswitchlayout;
+
+import android.view.View;
+
+/**
+ * DragSwitchLayout 中可滚动页面的契约，DragSwitchLayout 只通过这个接口了解页面内容的滚动状态，不依赖具体的视图类型。
+ * <p/>
+ * 页面内容没有滚动到拖拽方向的边缘时，DragSwitchLayout 不拦截 touch 事件，由页面自己滚动；顶部页面的滚动还用于预加载、
+ * 滑动监听和状态保存。CustomScrollView 直接实现了这个接口，普通的 ScrollView、WebView 和 RecyclerView 可以使用
+ * {@link ScrollViewPage}、{@link WebViewPage} 和 {@link RecyclerViewPage} 包装，RecyclerView 这类只 layout 可见内容的视图
+ * 适合放很长的列表。
+ */
+public interface ScrollablePage {
+
+  /**
+   * @return 页面中可滚动的视图
+   */
+  View getView();
+
+  /**
+   * @return 内容是否滚动到顶部，此时向下拖拽会拖拽页面
+   */
+  boolean isAtTop();
+
+  /**
+   * @return 内容是否滚动到底部，此时向上拖拽会拖拽页面
+   */
+  boolean isAtBottom();
+
+  /**
+   * @return 内容当前的滚动距离
+   */
+  int getPageScrollY();
+
+  /**
+   * @return 当前滚动距离占可滚动范围的比例，取值 [0, 1]，内容不足一屏时为 0
+   */
+  float getScrollFraction();
+
+  /**
+   * 把内容滚动到指定的位置，用于回顶和恢复状态，超出范围时由视图自己修正
+   */
+  void scrollPageTo(int scrollY);
+
+  /**
+   * 设置内容滚动的监听，同一时刻只有一个监听，由 DragSwitchLayout 使用。传入 null 时移除
+   */
+  void setOnPageScrollListener(OnPageScrollListener listener);
+
+  /**
+   * 内容滚动的监听，每个像素的滚动都可能回调，回调中不应该做耗时的计算
+   */
+  interface OnPageScrollListener {
+
+    void onPageScrolled(ScrollablePage page);
+  }
+}
\ No newline at end of file
@@ -0,0 +1,42 @@
+package com.williamchik.dragswitchlayout;
+
+/**
+ * DragSwitchLayout 松手后滑动到目标页的滑动引擎。引擎只根据传入的时间计算位置，不依赖真实的帧回调，可以替换为不同的物理模型。
+ * <p/>
+ * 时间单位是毫秒，位置单位是像素，速度单位是像素/秒。
+ */
+public interface SettleEngine {
+
+  /**
+   * 开始滑动
+   *
+   * @param startOffset 起始位置
+   * @param finalOffset 目标位置
+   * @param velocity    起始速度，松手时的速度会延续到滑动中
+   * @param startTime   开始的时间
+   */
+  void start(int startOffset, int finalOffset, float velocity, long startTime);
+
+  /**
+   * 计算指定时间的位置
+   *
+   * @return 还没有到达目标位置时返回 true；到达目标位置时返回 false，此时 {@link #getCurrentOffset()} 等于目标位置
+   */
+  boolean computeOffset(long currentTime);
+
+  /**
+   * 停止滑动，停在当前位置
+   */
+  void abort();
+
+  boolean isFinished();
+
+  int getCurrentOffset();
+
+  int getFinalOffset();
+
+  /**
+   * @return 当前的速度
+   */
+  float getCurrentVelocity();
+}
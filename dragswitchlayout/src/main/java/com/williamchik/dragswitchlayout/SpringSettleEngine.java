@@ -0,0 +1,112 @@
+package com.williamchik.dragswitchlayout;
+
+/**
+ * 临界阻尼弹簧滑动引擎，松手速度作为弹簧的初速度。临界阻尼的弹簧最多越过目标位置一次，越过时直接停在目标位置，
+ * 不会出现回弹的帧。超过最长时长时也直接停在目标位置，保证滑动在有限时间内结束。
+ */
+public class SpringSettleEngine implements SettleEngine {
+
+  // 默认的弹簧刚度
+  private static final float DEFAULT_STIFFNESS = 400f;
+  // 默认的最长滑动时长
+  private static final int DEFAULT_MAX_DURATION = 800;
+  // 距离目标位置小于这个值（像素）时认为已经到达
+  private static final float REST_DISTANCE = 0.5f;
+
+  // 弹簧的固有角频率，等于刚度的平方根
+  private final float mOmega;
+  private final int mMaxDuration;
+
+  private int mFinalOffset;
+  private int mCurrentOffset;
+  private long mStartTime;
+  // 起始时相对于目标位置的位移
+  private float mStartDisplacement;
+  private float mStartVelocity;
+  private float mCurrentVelocity;
+  private boolean mFinished = true;
+
+  public SpringSettleEngine() {
+    this(DEFAULT_STIFFNESS, DEFAULT_MAX_DURATION);
+  }
+
+  /**
+   * @param stiffness   弹簧刚度，越大滑动越快
+   * @param maxDuration 最长滑动时长
+   */
+  public SpringSettleEngine(float stiffness, int maxDuration) {
+    mOmega = (float) Math.sqrt(stiffness);
+    mMaxDuration = maxDuration;
+  }
+
+  @Override
+  public void start(int startOffset, int finalOffset, float velocity, long startTime) {
+    mFinalOffset = finalOffset;
+    mCurrentOffset = startOffset;
+    mStartTime = startTime;
+    mStartDisplacement = startOffset - finalOffset;
+    mStartVelocity = velocity;
+    mCurrentVelocity = velocity;
+    mFinished = startOffset == finalOffset;
+  }
+
+  @Override
+  public boolean computeOffset(long currentTime) {
+    if (mFinished) {
+      return false;
+    }
+
+    long elapsed = Math.max(0, currentTime - mStartTime);
+    if (elapsed >= mMaxDuration) {
+      return finish();
+    }
+
+    // 临界阻尼弹簧：x(t) = (x0 + (v0 + ω·x0)·t)·e^(-ω·t)
+    float t = elapsed / 1000f;
+    float b = mStartVelocity + mOmega * mStartDisplacement;
+    float decay = (float) Math.exp(-mOmega * t);
+    float displacement = (mStartDisplacement + b * t) * decay;
+    mCurrentVelocity = (b - mOmega * (mStartDisplacement + b * t)) * decay;
+
+    boolean crossed = mStartDisplacement != 0 && Math.signum(displacement) != Math.signum(mStartDisplacement);
+    if (crossed || (Math.abs(displacement) < REST_DISTANCE && Math.abs(mCurrentVelocity) < mOmega * REST_DISTANCE * 2)) {
+      // 越过目标位置或者已经静止在目标位置附近
+      return finish();
+    }
+    mCurrentOffset = mFinalOffset + Math.round(displacement);
+    return true;
+  }
+
+  private boolean finish() {
+    mCurrentOffset = mFinalOffset;
+    mCurrentVelocity = 0;
+    mFinished = true;
+    return false;
+  }
+
+  @Override
+  public void abort() {
+    mFinished = true;
+    mCurrentVelocity = 0;
+  }
+
+  @Override
+  public boolean isFinished() {
+    return mFinished;
+  }
+
+  @Override
+  public int getCurrentOffset() {
+    return mCurrentOffset;
+  }
+
+  @Override
+  public int getFinalOffset() {
+    return mFinalOffset;
+  }
+
+  @Override
+  public float getCurrentVelocity() {
+    return mCurrentVelocity;
+  }
+}
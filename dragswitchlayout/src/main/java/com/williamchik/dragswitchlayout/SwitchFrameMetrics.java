@@ -0,0 +1,124 @@
+package com.williamchik.dragswitchlayout;
+
+/**
+ * 一次拖拽、滑动或视图切换过程的帧统计数据。
+ * <p/>
+ * 同一个布局的每次统计都复用同一个实例，{@link Sink#onSessionFinished(SwitchFrameMetrics)} 返回后数据就会被下一次统计覆盖，
+ * 需要保存时请自行拷贝。
+ */
+public final class SwitchFrameMetrics {
+
+  // DragSwitchLayout 的手指拖拽过程
+  public static final int SESSION_DRAG = 0;
+  // DragSwitchLayout 松手后滑动到目标页的过程
+  public static final int SESSION_SETTLE = 1;
+  // AutoSwitchLayout 的视图切换动画
+  public static final int SESSION_AUTO_SWITCH = 2;
+
+  // 帧间隔超过时间预算的这个倍数时认为是掉帧，避开 vsync 时间的抖动
+  static final float JANK_FACTOR = 1.5f;
+
+  int mSessionType;
+  long mDurationNanos;
+  int mFrameCount;
+  int mJankFrameCount;
+  long mLongestFrameNanos;
+  long mComputeTimeNanos;
+  int mLayeredPageCount;
+  // 上一帧的时间，这次统计还没有帧时为 0
+  private long mLastFrameNanos;
+
+  SwitchFrameMetrics() {
+  }
+
+  void reset(int sessionType) {
+    mSessionType = sessionType;
+    mDurationNanos = 0;
+    mFrameCount = 0;
+    mJankFrameCount = 0;
+    mLongestFrameNanos = 0;
+    mComputeTimeNanos = 0;
+    mLayeredPageCount = 0;
+    mLastFrameNanos = 0;
+  }
+
+  /**
+   * 记录一帧。和上一帧的间隔超过时间预算的 {@link #JANK_FACTOR} 倍时记为掉帧，这次统计的第一帧只计数
+   *
+   * @param frameTimeNanos   这一帧的 vsync 时间
+   * @param frameBudgetNanos 一帧的时间预算
+   */
+  void onFrame(long frameTimeNanos, long frameBudgetNanos) {
+    mFrameCount++;
+    if (mLastFrameNanos != 0) {
+      long frameNanos = frameTimeNanos - mLastFrameNanos;
+      if (frameNanos > mLongestFrameNanos) {
+        mLongestFrameNanos = frameNanos;
+      }
+      if (frameNanos > frameBudgetNanos * JANK_FACTOR) {
+        mJankFrameCount++;
+      }
+    }
+    mLastFrameNanos = frameTimeNanos;
+  }
+
+  /**
+   * @return 统计的过程，{@link #SESSION_DRAG}、{@link #SESSION_SETTLE} 或 {@link #SESSION_AUTO_SWITCH}
+   */
+  public int getSessionType() {
+    return mSessionType;
+  }
+
+  /**
+   * @return 整个过程的时长，单位是纳秒
+   */
+  public long getDurationNanos() {
+    return mDurationNanos;
+  }
+
+  /**
+   * @return 过程中产生的帧数
+   */
+  public int getFrameCount() {
+    return mFrameCount;
+  }
+
+  /**
+   * @return 超过一帧时间预算的帧数
+   */
+  public int getJankFrameCount() {
+    return mJankFrameCount;
+  }
+
+  /**
+   * @return 最长的一帧的时长，单位是纳秒
+   */
+  public long getLongestFrameNanos() {
+    return mLongestFrameNanos;
+  }
+
+  /**
+   * @return computeScroll() 中计算位置的总耗时，单位是纳秒
+   */
+  public long getComputeTimeNanos() {
+    return mComputeTimeNanos;
+  }
+
+  /**
+   * @return 过程中被切换为硬件层的页面数，用于对比打开和关闭 DragSwitchLayout 的硬件层时的掉帧情况
+   */
+  public int getLayeredPageCount() {
+    return mLayeredPageCount;
+  }
+
+  /**
+   * 帧统计数据的接收者
+   */
+  public interface Sink {
+
+    /**
+     * 一次拖拽、滑动或视图切换结束时的回调，在主线程中调用
+     */
+    void onSessionFinished(SwitchFrameMetrics metrics);
+  }
+}
@@ -0,0 +1,36 @@
+package com.williamchik.dragswitchlayout;
+
+/**
+ * DragSwitchLayout 和 AutoSwitchLayout 共用的切换方向，取值和 LinearLayout.HORIZONTAL、LinearLayout.VERTICAL 一致，
+ * 两个控件传入同一个常量时切换方向相同。
+ */
+final class SwitchOrientation {
+
+  // 左右切换
+  static final int HORIZONTAL = 0;
+  // 上下切换
+  static final int VERTICAL = 1;
+
+  private SwitchOrientation() {
+  }
+
+  /**
+   * @throws IllegalArgumentException 不是 {@link #HORIZONTAL} 或 {@link #VERTICAL}
+   */
+  static void checkOrientation(int orientation) {
+    if (orientation != HORIZONTAL && orientation != VERTICAL) {
+      throw new IllegalArgumentException("orientation must be HORIZONTAL or VERTICAL, but is " + orientation);
+    }
+  }
+
+  /**
+   * @return 切换方向上的分量，横向切换时是 x，纵向切换时是 y
+   */
+  static int along(int orientation, int x, int y) {
+    return orientation == HORIZONTAL ? x : y;
+  }
+
+  static float along(int orientation, float x, float y) {
+    return orientation == HORIZONTAL ? x : y;
+  }
+}
\ No newline at end of file
@@ -0,0 +1,99 @@
+package com.williamchik.dragswitchlayout;
+
+/**
+ * AutoSwitchLayout 切换进度的动画，减速插值，效果和使用 DecelerateInterpolator(2.0f) 的 Scroller 一致。
+ * 只根据传入的时间计算进度，不依赖真实的帧回调，到达终点的那一帧直接结束，不会在终点多停一帧。
+ */
+final class SwitchProgressAnimator {
+
+  private int mStartValue;
+  private int mDelta;
+  private int mCurrentValue;
+  private long mStartTime;
+  private int mDuration;
+  private boolean mFinished = true;
+
+  /**
+   * @param startValue 起始进度
+   * @param delta      要变化的进度
+   * @param duration   时长，单位是毫秒
+   * @param startTime  开始的时间
+   */
+  void start(int startValue, int delta, int duration, long startTime) {
+    mStartValue = startValue;
+    mDelta = delta;
+    mCurrentValue = startValue;
+    mDuration = duration;
+    mStartTime = startTime;
+    mFinished = false;
+  }
+
+  /**
+   * 计算指定时间的进度
+   *
+   * @return 还没有到达终点时返回 true；到达终点时返回 false，此时 {@link #getCurrentValue()} 等于终点
+   */
+  boolean computeValue(long currentTime) {
+    if (mFinished) {
+      return false;
+    }
+    long elapsed = currentTime - mStartTime;
+    if (elapsed >= mDuration) {
+      return finish();
+    }
+    // DecelerateInterpolator(2.0f)：1 - (1 - t)^4
+    float remaining = 1.0f - (float) Math.max(0, elapsed) / mDuration;
+    float remainingSquare = remaining * remaining;
+    mCurrentValue = mStartValue + Math.round(mDelta * (1.0f - remainingSquare * remainingSquare));
+    if (mCurrentValue == mStartValue + mDelta) {
+      // 剩余的进度已经不到 1 像素，直接结束
+      return finish();
+    }
+    return true;
+  }
+
+  private boolean finish() {
+    mCurrentValue = mStartValue + mDelta;
+    mFinished = true;
+    return false;
+  }
+
+  /**
+   * 从当前位置掉头：原来的起点变为终点，已经走过的进度变为剩下的进度，时长取已经经过的时长
+   *
+   * @param endValue    掉头后的终点
+   * @param minDuration 掉头后的最短时长
+   * @param maxDuration 掉头后的最长时长
+   */
+  void reverse(int endValue, int minDuration, int maxDuration, long currentTime) {
+    int startValue = endValue - mCurrentValue;
+    int duration = Math.max(minDuration, Math.min(maxDuration, getTimePassed(currentTime)));
+    start(startValue, endValue - startValue, duration, currentTime);
+  }
+
+  /**
+   * 停止动画，停在当前进度
+   */
+  void abort() {
+    mFinished = true;
+  }
+
+  boolean isFinished() {
+    return mFinished;
+  }
+
+  int getCurrentValue() {
+    return mCurrentValue;
+  }
+
+  int getDuration() {
+    return mDuration;
+  }
+
+  /**
+   * @return 从开始到指定时间经过的时长
+   */
+  int getTimePassed(long currentTime) {
+    return (int) Math.max(0, Math.min(Integer.MAX_VALUE, currentTime - mStartTime));
+  }
+}
\ No newline at end of file
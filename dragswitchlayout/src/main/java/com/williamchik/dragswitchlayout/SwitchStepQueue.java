@@ -0,0 +1,204 @@
+package com.williamchik.dragswitchlayout;
+
+/**
+ * {@link AutoSwitchLayout} 的切换队列：当前显示哪个视图、正在切换到哪个视图、还有几次排队的切换，以及切换途中改变目标时是否掉头。
+ * <p/>
+ * 纯计算，不依赖 View，视图数量、切换方向上的尺寸和时间都由调用方传入。切换的进度由 {@link SwitchProgressAnimator} 计算，
+ * 正在离开的视图位于 -direction * progress，正在进入的视图位于 direction * (size - progress)。
+ */
+final class SwitchStepQueue {
+
+  // 视图切换时的滚动时长
+  static final int SWITCH_DURATION = 600;
+  // 有排队的切换时，每一次切换的最短时长
+  static final int MIN_SWITCH_DURATION = 150;
+
+  // 这一帧之后切换仍在进行
+  static final int FRAME_MOVED = 0;
+  // 这一帧结束了一次切换，接着开始了排队的下一次切换
+  static final int FRAME_NEXT_STEP = 1;
+  // 这一帧结束了最后一次切换，已经静止
+  static final int FRAME_FINISHED = 2;
+
+  // 切换进度的动画
+  private final SwitchProgressAnimator mAnimator = new SwitchProgressAnimator();
+  // 静止时显示的视图，动画进行中是正在离开的视图
+  private int mCurrentIndex;
+  // 动画进行中正在进入的视图
+  private int mNextIndex;
+  // 动画的方向，1 表示切换到下一个，-1 表示切换到上一个
+  private int mDirection;
+  // 是否正在切换
+  private boolean mSwitching;
+  // 当前动画结束后还需要继续切换的次数，正数表示向后切换，负数表示向前切换
+  private int mPendingSteps;
+
+  /**
+   * @return 静止时显示的视图，动画进行中是正在离开的视图
+   */
+  int getCurrentIndex() {
+    return mCurrentIndex;
+  }
+
+  /**
+   * 静止时直接显示指定的视图
+   */
+  void setCurrentIndex(int index) {
+    mCurrentIndex = index;
+  }
+
+  /**
+   * @return 动画进行中正在进入的视图
+   */
+  int getNextIndex() {
+    return mNextIndex;
+  }
+
+  /**
+   * @return 当前显示的视图，动画进行中返回即将显示的视图
+   */
+  int getTargetIndex() {
+    return mSwitching ? mNextIndex : mCurrentIndex;
+  }
+
+  int getDirection() {
+    return mDirection;
+  }
+
+  boolean isSwitching() {
+    return mSwitching;
+  }
+
+  int getPendingSteps() {
+    return mPendingSteps;
+  }
+
+  /**
+   * @return 已经切换的距离，取值 [0, 切换方向上的尺寸]
+   */
+  int getProgress() {
+    return mAnimator.getCurrentValue();
+  }
+
+  /**
+   * 排队向后（steps 为正）或向前切换，动画进行中时在当前动画结束后再切换
+   */
+  void enqueue(int steps) {
+    mPendingSteps += steps;
+  }
+
+  /**
+   * 切换到指定的视图，中间的视图依次经过。动画进行中调用时，之前排队的切换被取消，改为切换到这个视图，
+   * 如果方向相反，当前动画从当前位置直接掉头
+   *
+   * @return 当前动画是否掉头，掉头后正在离开和正在进入的视图互换
+   */
+  boolean switchTo(int index, int size, long now) {
+    if (!mSwitching) {
+      mPendingSteps = index - mCurrentIndex;
+      return false;
+    }
+
+    if (index == mNextIndex) {
+      mPendingSteps = 0;
+      return false;
+    }
+    // 不考虑首尾相接时，正在进入的视图的位置
+    int unwrappedNextIndex = mCurrentIndex + mDirection;
+    int steps = index - unwrappedNextIndex;
+    if (index == mCurrentIndex || steps * mDirection < 0) {
+      // 目标在相反的方向，当前动画掉头，回到正在离开的视图后再继续
+      reverse(size, now);
+      mPendingSteps = index - mNextIndex;
+      return true;
+    }
+    mPendingSteps = steps;
+    return false;
+  }
+
+  /**
+   * 没有正在进行的切换时，开始排队的切换
+   *
+   * @return 是否开始了切换
+   */
+  boolean startIfIdle(int childCount, int size, long now) {
+    if (mSwitching) {
+      return false;
+    }
+    startNextStep(childCount, size, now);
+    return mSwitching;
+  }
+
+  /**
+   * 计算一帧的进度，当前的切换结束时，有排队的切换就直接开始下一次切换
+   *
+   * @return {@link #FRAME_MOVED}、{@link #FRAME_NEXT_STEP} 或 {@link #FRAME_FINISHED}
+   */
+  int computeFrame(int childCount, int size, long now) {
+    if (mAnimator.computeValue(now)) {
+      return FRAME_MOVED;
+    }
+    // 当前这一次切换结束，进入的视图成为当前视图
+    mCurrentIndex = mNextIndex;
+    startNextStep(childCount, size, now);
+    return mSwitching ? FRAME_NEXT_STEP : FRAME_FINISHED;
+  }
+
+  /**
+   * 切换方向上的尺寸变化，正在进行的切换按新的尺寸重新计算进度，剩余的时长不变
+   */
+  void resize(int oldSize, int size, long now) {
+    if (!mSwitching || oldSize <= 0 || size == oldSize) {
+      return;
+    }
+    int progress = Math.round((float) mAnimator.getCurrentValue() * size / oldSize);
+    int remainingDuration = Math.max(0, mAnimator.getDuration() - mAnimator.getTimePassed(now));
+    mAnimator.start(progress, size - progress, remainingDuration, now);
+  }
+
+  /**
+   * 直接结束正在进行的切换和所有排队的切换
+   *
+   * @return 是否有正在进行的切换被结束
+   */
+  boolean finish() {
+    mPendingSteps = 0;
+    if (!mSwitching) {
+      return false;
+    }
+    mAnimator.abort();
+    mCurrentIndex = mNextIndex;
+    mSwitching = false;
+    return true;
+  }
+
+  /**
+   * 从排队的切换中取出一次开始动画，没有排队的切换时结束
+   */
+  private void startNextStep(int childCount, int size, long now) {
+    if (mPendingSteps == 0 || childCount < 2) {
+      mPendingSteps = 0;
+      mSwitching = false;
+      return;
+    }
+    mDirection = mPendingSteps > 0 ? 1 : -1;
+    mPendingSteps -= mDirection;
+    mNextIndex = (mCurrentIndex + mDirection + childCount) % childCount;
+    // 还有排队的切换时缩短时长，尽快追上
+    int duration = Math.max(MIN_SWITCH_DURATION, SWITCH_DURATION / (Math.abs(mPendingSteps) + 1));
+    mAnimator.start(0, size, duration, now);
+    mSwitching = true;
+  }
+
+  /**
+   * 当前动画掉头，正在进入的视图变为正在离开的视图，从当前位置滑回去
+   */
+  private void reverse(int size, long now) {
+    // 滑回去的距离就是已经滑过的距离，时长也取已经经过的时长
+    mAnimator.reverse(size, MIN_SWITCH_DURATION, SWITCH_DURATION, now);
+    int leavingIndex = mCurrentIndex;
+    mCurrentIndex = mNextIndex;
+    mNextIndex = leavingIndex;
+    mDirection = -mDirection;
+  }
+}
\ No newline at end of file
@@ -0,0 +1,161 @@
+package com.williamchik.dragswitchlayout;
+
+import android.view.View;
+
+/**
+ * 跟随滑动比例修改视图透明度的渐变器，适合标题栏这类每一帧都会收到新的透明度、但肉眼分辨不出细微差别的场景。
+ * <p/>
+ * 1. 透明度被量化为 {@link #DEFAULT_STEPS} 级，量化后没有变化的更新直接忽略，不会触发重绘。
+ * 2. 完全透明时视图设为 INVISIBLE，不参与绘制；完全不透明时直接按不透明绘制，两端之间的重复更新同样被忽略。
+ * 3. 半透明的视图如果有重叠的内容（{@link View#hasOverlappingRendering()}），每一帧都要先绘制到离屏缓冲再混合。
+ * 渐变期间把这类视图切换为硬件层，透明度只在合成时生效，内容不变时不需要重新绘制；两端时恢复，不占用 layer 的内存。
+ */
+public class ViewAlphaFader {
+
+  // 默认的量化级数
+  public static final int DEFAULT_STEPS = 64;
+
+  private final Target mTarget;
+  private final int mSteps;
+  // 上一次生效的量化级别，-1 表示还没有设置过
+  private int mLevel = -1;
+  // 当前是否由渐变器切换为硬件层
+  private boolean mLayerEnabled;
+
+  public ViewAlphaFader(View view) {
+    this(view, DEFAULT_STEPS);
+  }
+
+  /**
+   * @param view  渐变的视图
+   * @param steps 透明度的量化级数，必须大于 0
+   */
+  public ViewAlphaFader(View view, int steps) {
+    this(new ViewTarget(view), steps);
+  }
+
+  ViewAlphaFader(Target target, int steps) {
+    if (steps <= 0) {
+      throw new IllegalArgumentException("steps must be positive");
+    }
+    mTarget = target;
+    mSteps = steps;
+  }
+
+  /**
+   * 设置视图的透明度，超出 [0, 1] 的值会被截断
+   *
+   * @return 视图是否真的被修改
+   */
+  public boolean setAlpha(float alpha) {
+    int level = Math.round(Math.max(0f, Math.min(1f, alpha)) * mSteps);
+    if (level == mLevel) {
+      return false;
+    }
+    mLevel = level;
+
+    if (level == 0) {
+      // 完全透明，不再参与绘制
+      setLayerEnabled(false);
+      mTarget.setAlpha(0f);
+      mTarget.setVisibility(View.INVISIBLE);
+      return true;
+    }
+    if (mTarget.getVisibility() != View.VISIBLE) {
+      mTarget.setVisibility(View.VISIBLE);
+    }
+    if (level == mSteps) {
+      // 完全不透明，直接绘制，不需要离屏缓冲
+      setLayerEnabled(false);
+      mTarget.setAlpha(1f);
+      return true;
+    }
+    if (mTarget.hasOverlappingRendering()) {
+      setLayerEnabled(true);
+    }
+    mTarget.setAlpha((float) level / mSteps);
+    return true;
+  }
+
+  /**
+   * 切换或恢复硬件层，只恢复由渐变器切换的 layer，不影响视图自己设置的 layer
+   */
+  private void setLayerEnabled(boolean enabled) {
+    if (enabled == mLayerEnabled) {
+      return;
+    }
+    if (enabled) {
+      if (mTarget.getLayerType() != View.LAYER_TYPE_NONE || !mTarget.isHardwareAccelerated()) {
+        return;
+      }
+      mTarget.setLayerType(View.LAYER_TYPE_HARDWARE);
+    } else {
+      mTarget.setLayerType(View.LAYER_TYPE_NONE);
+    }
+    mLayerEnabled = enabled;
+  }
+
+  /**
+   * 渐变器修改的视图属性，测试中可以代替 View
+   */
+  interface Target {
+
+    void setAlpha(float alpha);
+
+    int getVisibility();
+
+    void setVisibility(int visibility);
+
+    boolean hasOverlappingRendering();
+
+    int getLayerType();
+
+    void setLayerType(int layerType);
+
+    boolean isHardwareAccelerated();
+  }
+
+  private static final class ViewTarget implements Target {
+
+    private final View mView;
+
+    ViewTarget(View view) {
+      mView = view;
+    }
+
+    @Override
+    public void setAlpha(float alpha) {
+      mView.setAlpha(alpha);
+    }
+
+    @Override
+    public int getVisibility() {
+      return mView.getVisibility();
+    }
+
+    @Override
+    public void setVisibility(int visibility) {
+      mView.setVisibility(visibility);
+    }
+
+    @Override
+    public boolean hasOverlappingRendering() {
+      return mView.hasOverlappingRendering();
+    }
+
+    @Override
+    public int getLayerType() {
+      return mView.getLayerType();
+    }
+
+    @Override
+    public void setLayerType(int layerType) {
+      mView.setLayerType(layerType, null);
+    }
+
+    @Override
+    public boolean isHardwareAccelerated() {
+      return mView.isHardwareAccelerated();
+    }
+  }
+}
\ No newline at end of file
@@ -0,0 +1,104 @@
+package com.williamchik.dragswitchlayout;
+
+import android.support.v4.view.ViewCompat;
+import android.view.View;
+import android.view.ViewTreeObserver;
+
+/**
+ * 通过 View 自己的滚动位置（getScrollY()）实现 {@link ScrollablePage} 的包装类的基类，ScrollView、WebView 这类视图
+ * 滚动时会改变自己的 scrollY，并通过 ViewTreeObserver 通知滚动。子类只需要提供可滚动的范围。
+ */
+abstract class ViewScrollablePage implements ScrollablePage {
+
+  final View mView;
+  private OnPageScrollListener mOnPageScrollListener;
+  // 上一次通知时的滚动距离，窗口中其他视图的滚动也会触发 ViewTreeObserver，滚动距离没有变化时不通知
+  private int mLastScrollY;
+  private final ViewTreeObserver.OnScrollChangedListener mOnScrollChangedListener =
+      new ViewTreeObserver.OnScrollChangedListener() {
+
+        @Override
+        public void onScrollChanged() {
+          int scrollY = mView.getScrollY();
+          if (scrollY != mLastScrollY && mOnPageScrollListener != null) {
+            mLastScrollY = scrollY;
+            mOnPageScrollListener.onPageScrolled(ViewScrollablePage.this);
+          }
+        }
+      };
+  private final View.OnAttachStateChangeListener mOnAttachStateChangeListener = new View.OnAttachStateChangeListener() {
+
+    @Override
+    public void onViewAttachedToWindow(View v) {
+      mView.getViewTreeObserver().addOnScrollChangedListener(mOnScrollChangedListener);
+    }
+
+    @Override
+    public void onViewDetachedFromWindow(View v) {
+      mView.getViewTreeObserver().removeOnScrollChangedListener(mOnScrollChangedListener);
+    }
+  };
+
+  ViewScrollablePage(View view) {
+    mView = view;
+  }
+
+  /**
+   * @return 可滚动的范围，内容不足一屏时小于等于 0
+   */
+  abstract int getScrollRange();
+
+  @Override
+  public View getView() {
+    return mView;
+  }
+
+  @Override
+  public boolean isAtTop() {
+    return !ViewCompat.canScrollVertically(mView, -1);
+  }
+
+  @Override
+  public boolean isAtBottom() {
+    return !ViewCompat.canScrollVertically(mView, 1);
+  }
+
+  @Override
+  public int getPageScrollY() {
+    return mView.getScrollY();
+  }
+
+  @Override
+  public float getScrollFraction() {
+    int scrollRange = getScrollRange();
+    if (scrollRange <= 0) {
+      return 0;
+    }
+    return Math.max(0, Math.min(1, (float) mView.getScrollY() / scrollRange));
+  }
+
+  @Override
+  public void scrollPageTo(int scrollY) {
+    mView.scrollTo(mView.getScrollX(), scrollY);
+  }
+
+  @Override
+  public void setOnPageScrollListener(OnPageScrollListener listener) {
+    boolean wasListening = mOnPageScrollListener != null;
+    mOnPageScrollListener = listener;
+    if (wasListening == (listener != null)) {
+      return;
+    }
+    // 只在有监听时注册，不在窗口中时等到 attach 时注册
+    if (listener != null) {
+      mLastScrollY = mView.getScrollY();
+      mView.addOnAttachStateChangeListener(mOnAttachStateChangeListener);
+      if (ViewCompat.isAttachedToWindow(mView)) {
+        mView.getViewTreeObserver().addOnScrollChangedListener(mOnScrollChangedListener);
+      }
+    } else {
+      mView.removeOnAttachStateChangeListener(mOnAttachStateChangeListener);
+      mView.getViewTreeObserver().removeOnScrollChangedListener(mOnScrollChangedListener);
+    }
+  }
+}
\ No newline at end of file
@@ -0,0 +1,21 @@
+package com.williamchik.dragswitchlayout;
+
+import android.webkit.WebView;
+
+/**
+ * 把 WebView 包装为 {@link ScrollablePage}
+ */
+public class WebViewPage extends ViewScrollablePage {
+
+  public WebViewPage(WebView webView) {
+    super(webView);
+  }
+
+  @SuppressWarnings("deprecation")
+  @Override
+  int getScrollRange() {
+    WebView webView = (WebView) mView;
+    // getContentHeight() 的单位是 CSS 像素，按当前的缩放比例换算为屏幕像素
+    return (int) (webView.getContentHeight() * webView.getScale()) - webView.getHeight();
+  }
+}
\ No newline at end of file
@@ -0,0 +1,81 @@
+package com.williamchik.dragswitchlayout;
+
+/**
+ * 用虚拟帧时钟回放 AutoSwitchLayout 在两个子视图之间的一次切换，逐帧记录两个子视图的位置，可以在切换途中掉头。
+ * <p/>
+ * 和 AutoSwitchLayout 一样，进度由 {@link SwitchProgressAnimator} 逐帧计算，正在离开的子视图位于 -direction * progress，
+ * 正在进入的子视图位于 direction * (size - progress)。
+ */
+final class AutoSwitchReplay {
+
+  // 掉头的那一帧
+  static final String MARK_REVERSE = "reverse";
+  static final long FRAME_INTERVAL = 16;
+
+  private final int mSize;
+  private final int mDuration;
+  // 开始后多久掉头，小于 0 表示不掉头
+  private long mReverseAfter = -1;
+  private int mMinReverseDuration;
+  private int mMaxReverseDuration;
+
+  /**
+   * @param size     切换方向上的尺寸
+   * @param duration 切换的时长
+   */
+  AutoSwitchReplay(int size, int duration) {
+    mSize = size;
+    mDuration = duration;
+  }
+
+  /**
+   * 开始后经过指定的时长时掉头，切换回原来的子视图
+   */
+  AutoSwitchReplay reverseAfter(long elapsed, int minDuration, int maxDuration) {
+    mReverseAfter = elapsed;
+    mMinReverseDuration = minDuration;
+    mMaxReverseDuration = maxDuration;
+    return this;
+  }
+
+  /**
+   * @return 每一帧 child0 和 child1 的位置，开始时显示 child0
+   */
+  FrameTrace replay() {
+    FrameTrace trace = new FrameTrace("child0", "child1");
+    VirtualFrameClock clock = new VirtualFrameClock(FRAME_INTERVAL, 0);
+    SwitchProgressAnimator animator = new SwitchProgressAnimator();
+    long startTime = clock.getFrameTime();
+    animator.start(0, mSize, mDuration, startTime);
+    // 正在离开的子视图，以及切换的方向
+    int leaving = 0;
+    int direction = 1;
+    record(trace, startTime, leaving, direction, 0);
+
+    boolean reversed = mReverseAfter < 0;
+    while (true) {
+      long frameTime = clock.nextFrame();
+      if (!reversed && frameTime - startTime >= mReverseAfter) {
+        // 和 AutoSwitchLayout.reverseSwitching() 一样，正在进入的子视图变为正在离开的子视图
+        reversed = true;
+        animator.reverse(mSize, mMinReverseDuration, mMaxReverseDuration, frameTime);
+        leaving = 1 - leaving;
+        direction = -direction;
+        trace.mark(MARK_REVERSE);
+      }
+      // 绘制阶段：computeScroll()
+      boolean keepGoing = animator.computeValue(frameTime);
+      record(trace, frameTime, leaving, direction, animator.getCurrentValue());
+      if (!keepGoing) {
+        return trace;
+      }
+    }
+  }
+
+  private void record(FrameTrace trace, long frameTime, int leaving, int direction, int progress) {
+    int[] positions = new int[2];
+    positions[leaving] = -direction * progress;
+    positions[1 - leaving] = direction * (mSize - progress);
+    trace.record(frameTime, positions);
+  }
+}
\ No newline at end of file
@@ -0,0 +1,173 @@
+package com.williamchik.dragswitchlayout;
+
+/**
+ * 用虚拟帧时钟回放 DragSwitchLayout 的拖拽和松手后的滑动，逐帧记录每个页面的位置。
+ * <p/>
+ * 直接驱动 DragSwitchLayout 使用的 {@link PageSwitchController}：拖拽的换算、松手时目标页的决定、滑动的开始和逐帧计算都和布局中完全一致，
+ * 这里只负责把手势的事件和帧按时间排好顺序。每一帧先在输入阶段处理这一帧之前到达的事件，再在绘制阶段计算滑动，和 Choreographer 的顺序一致。
+ * 页面的位置就是 DragSwitchLayout 设置的 translationY（横向切换时是 translationX），即 {@link PageSwitchController#getPageOffset(int)}。
+ * <p/>
+ * 手势沿 {@link #setGestureOrientation(int)} 的方向移动，和布局一样通过 {@link SwitchOrientation#along(int, int, int)}
+ * 取出切换方向上的移动和速度，另一个方向上的移动不会拖拽页面。
+ */
+final class DragSwitchReplay {
+
+  // 松手的那一帧
+  static final String MARK_RELEASE = "release";
+  static final long FRAME_INTERVAL = 16;
+
+  private final int mPageCount;
+  private final int mPageHeight;
+  private final float mDensity;
+  private final RecordingSwitchHost mHost = new RecordingSwitchHost();
+  private DragResistance mResistance = new LinearDragResistance();
+  private SettleEngine mSettleEngine = new FlingSettleEngine();
+  private int mCurrentPage;
+  // 布局的切换方向
+  private int mOrientation = SwitchOrientation.VERTICAL;
+  // 手指移动的方向
+  private int mGestureOrientation = SwitchOrientation.VERTICAL;
+  // 在第几帧之后掉帧，以及掉几帧
+  private int mDropAfterFrame = -1;
+  private int mDroppedFrames;
+
+  /**
+   * @param density 屏幕密度，用于换算阈值
+   */
+  DragSwitchReplay(int pageCount, int pageHeight, float density) {
+    mPageCount = pageCount;
+    mPageHeight = pageHeight;
+    mDensity = density;
+  }
+
+  DragSwitchReplay setResistance(DragResistance resistance) {
+    mResistance = resistance;
+    return this;
+  }
+
+  DragSwitchReplay setSettleEngine(SettleEngine settleEngine) {
+    mSettleEngine = settleEngine;
+    return this;
+  }
+
+  DragSwitchReplay setCurrentPage(int currentPage) {
+    mCurrentPage = currentPage;
+    return this;
+  }
+
+  /**
+   * 布局的切换方向，默认是纵向
+   */
+  DragSwitchReplay setOrientation(int orientation) {
+    SwitchOrientation.checkOrientation(orientation);
+    mOrientation = orientation;
+    return this;
+  }
+
+  /**
+   * 手势的坐标沿哪个方向，默认是纵向
+   */
+  DragSwitchReplay setGestureOrientation(int gestureOrientation) {
+    SwitchOrientation.checkOrientation(gestureOrientation);
+    mGestureOrientation = gestureOrientation;
+    return this;
+  }
+
+  /**
+   * 模拟掉帧：记录第 afterFrame 帧之后，接下来的 count 帧没有回调
+   */
+  DragSwitchReplay dropFrames(int afterFrame, int count) {
+    mDropAfterFrame = afterFrame;
+    mDroppedFrames = count;
+    return this;
+  }
+
+  /**
+   * @return 上一次回放中 PageSwitchController 的回调
+   */
+  RecordingSwitchHost getHost() {
+    return mHost;
+  }
+
+  /**
+   * 回放手势直到滑动结束
+   *
+   * @return 每一帧每个页面的位置，松手的那一帧标记为 {@link #MARK_RELEASE}
+   */
+  FrameTrace replay(GestureScript gesture) {
+    String[] columns = new String[mPageCount];
+    for (int i = 0; i < mPageCount; i++) {
+      columns[i] = "page" + i;
+    }
+    FrameTrace trace = new FrameTrace(columns);
+    VirtualFrameClock clock = new VirtualFrameClock(FRAME_INTERVAL, gesture.getTime(0));
+    mHost.clear();
+    PageSwitchController controller = new PageSwitchController(mHost, mDensity);
+    controller.setPageCount(mPageCount);
+    controller.setPageSize(mPageHeight);
+    controller.setDragResistance(mResistance);
+    controller.setSettleEngine(mSettleEngine);
+    controller.resetToPage(mCurrentPage);
+    int event = 1;
+    // ACTION_DOWN 所在的帧，ViewDragHelper 捕获页面后开始拖拽
+    controller.startDrag();
+    record(trace, clock.getFrameTime(), controller);
+
+    while (true) {
+      long frameTime = nextFrame(clock, trace);
+      if (event < gesture.size()) {
+        // 输入阶段：处理这一帧之前到达的事件
+        while (event < gesture.size() && gesture.getTime(event) <= frameTime) {
+          controller.dragBy(alongSwitch(gesture.getY(event) - gesture.getY(event - 1)));
+          event++;
+        }
+        if (event < gesture.size()) {
+          record(trace, frameTime, controller);
+          continue;
+        }
+        // ACTION_UP：和 DragSwitchLayout 的 onViewReleased() 一样松手
+        trace.mark(MARK_RELEASE);
+        controller.release(alongSwitch(gesture.getReleaseVelocity()), frameTime);
+        if (controller.getScrollState() != PageSwitchController.SCROLL_STATE_SETTLING) {
+          record(trace, frameTime, controller);
+          return trace;
+        }
+      }
+      // 绘制阶段：computeScroll()
+      boolean keepGoing = controller.computeSettleOffset(frameTime);
+      record(trace, frameTime, controller);
+      if (!keepGoing) {
+        controller.finishSettle();
+        return trace;
+      }
+    }
+  }
+
+  /**
+   * 手势在切换方向上的分量
+   */
+  private int alongSwitch(int gestureDelta) {
+    boolean horizontal = mGestureOrientation == SwitchOrientation.HORIZONTAL;
+    return SwitchOrientation.along(mOrientation, horizontal ? gestureDelta : 0, horizontal ? 0 : gestureDelta);
+  }
+
+  private float alongSwitch(float gestureVelocity) {
+    boolean horizontal = mGestureOrientation == SwitchOrientation.HORIZONTAL;
+    return SwitchOrientation.along(mOrientation, horizontal ? gestureVelocity : 0, horizontal ? 0 : gestureVelocity);
+  }
+
+  private long nextFrame(VirtualFrameClock clock, FrameTrace trace) {
+    if (trace.size() - 1 == mDropAfterFrame) {
+      clock.dropFrames(mDroppedFrames);
+    }
+    return clock.nextFrame();
+  }
+
+  private void record(FrameTrace trace, long frameTime, PageSwitchController controller) {
+    int[] positions = new int[mPageCount];
+    for (int i = 0; i < mPageCount; i++) {
+      positions[i] = controller.getPageOffset(i);
+    }
+    trace.record(frameTime, positions);
+  }
+}
\ No newline at end of file
@@ -0,0 +1,213 @@
+package com.williamchik.dragswitchlayout;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 可滚动子视图的边缘交接判断的测试，用 {@link FakeParent} 记录每个手势中对父视图的 requestDisallowInterceptTouchEvent() 调用。
+ * 每个测试按视图 dispatchTouchEvent() 的顺序调用：ACTION_DOWN、每个 ACTION_MOVE，没有交给父视图时都请求父视图不拦截。
+ */
+public class EdgeHandoffTrackerTest {
+
+  private final FakeParent mParent = new FakeParent();
+
+  /**
+   * 滚动到底部后向上拖拽交给父视图，和 CustomScrollView 一致
+   */
+  private EdgeHandoffTracker newBottomEdgeTracker() {
+    return new EdgeHandoffTracker(true, mParent);
+  }
+
+  private static void down(EdgeHandoffTracker tracker, float y, boolean atEdge) {
+    tracker.onDown(y, 0, atEdge);
+    tracker.keepParentFromIntercepting();
+  }
+
+  /**
+   * @return 是否交给了父视图
+   */
+  private static boolean move(EdgeHandoffTracker tracker, float y) {
+    if (tracker.onMove(y)) {
+      return true;
+    }
+    tracker.keepParentFromIntercepting();
+    return false;
+  }
+
+  @Test
+  public void scrollingGesture_requestsDisallowOnce() {
+    EdgeHandoffTracker tracker = newBottomEdgeTracker();
+    down(tracker, 1000, false);
+    for (int y = 990; y > 500; y -= 10) {
+      assertFalse(move(tracker, y));
+    }
+    tracker.onGestureEnd();
+
+    assertEquals(Arrays.asList(true), mParent.mRequests);
+  }
+
+  @Test
+  public void atEdge_draggingOutHandsOffOnce() {
+    EdgeHandoffTracker tracker = newBottomEdgeTracker();
+    down(tracker, 1000, true);
+    // 先向边缘内拖拽，内容继续滚动
+    assertFalse(move(tracker, 1010));
+    assertFalse(move(tracker, 1020));
+    // 越过按下的位置后向边缘外拖拽，交给父视图
+    assertTrue(move(tracker, 990));
+    assertTrue(move(tracker, 980));
+
+    assertEquals(Arrays.asList(true, false), mParent.mRequests);
+  }
+
+  @Test
+  public void notAtEdgeOnDown_neverHandsOff() {
+    EdgeHandoffTracker tracker = newBottomEdgeTracker();
+    down(tracker, 1000, false);
+    assertFalse(move(tracker, 500));
+    assertFalse(move(tracker, 100));
+
+    assertEquals(Arrays.asList(true), mParent.mRequests);
+  }
+
+  @Test
+  public void eachGestureRequestsAgainAfterParentReset() {
+    EdgeHandoffTracker tracker = newBottomEdgeTracker();
+    for (int gesture = 0; gesture < 3; gesture++) {
+      down(tracker, 1000, false);
+      move(tracker, 900);
+      move(tracker, 800);
+      tracker.onGestureEnd();
+    }
+
+    // 父视图在每个 ACTION_DOWN 时重置状态，每个手势请求一次
+    assertEquals(Arrays.asList(true, true, true), mParent.mRequests);
+  }
+
+  @Test
+  public void handOffThenNextGestureStartsScrollingAgain() {
+    EdgeHandoffTracker tracker = newBottomEdgeTracker();
+    down(tracker, 1000, true);
+    assertTrue(move(tracker, 900));
+    tracker.onGestureEnd();
+    down(tracker, 1000, false);
+    assertFalse(move(tracker, 900));
+
+    assertEquals(Arrays.asList(true, false, true), mParent.mRequests);
+  }
+
+  @Test
+  public void pointerChange_keepsDragDirection() {
+    EdgeHandoffTracker tracker = newBottomEdgeTracker();
+    down(tracker, 1000, true);
+    assertFalse(move(tracker, 1010));
+    // 第二个手指在更高的位置接替，已经拖拽的距离不变，不会被当作向上拖拽
+    tracker.onPointerChanged(400);
+    tracker.keepParentFromIntercepting();
+    assertFalse(move(tracker, 405));
+    assertTrue(move(tracker, 385));
+
+    assertEquals(Arrays.asList(true, false), mParent.mRequests);
+  }
+
+  @Test
+  public void detachedView_retriesOnNextEvent() {
+    EdgeHandoffTracker tracker = newBottomEdgeTracker();
+    mParent.mAttached = false;
+    down(tracker, 1000, false);
+    move(tracker, 990);
+    mParent.mAttached = true;
+    move(tracker, 980);
+    move(tracker, 970);
+
+    // 没有父视图时的请求不算数，有了父视图后请求一次
+    assertEquals(Arrays.asList(true), mParent.mRequests);
+  }
+
+  @Test
+  public void topEdge_handsOffWhenDraggingDown() {
+    EdgeHandoffTracker tracker = new EdgeHandoffTracker(false, mParent);
+    down(tracker, 500, true);
+    assertFalse(move(tracker, 490));
+    assertTrue(move(tracker, 520));
+
+    assertEquals(Arrays.asList(true, false), mParent.mRequests);
+  }
+
+  @Test
+  public void nestedMove_keepsSubPixelRemainder() {
+    EdgeHandoffTracker tracker = newBottomEdgeTracker();
+    tracker.onDown(1000, 0, false);
+    int total = 0;
+    for (int i = 1; i <= 10; i++) {
+      total += tracker.onNestedMove(1000 - i * 0.4f);
+    }
+    assertEquals(4, total);
+  }
+
+  @Test
+  public void nestedOffset_cancelsConsumedMoveAndPageTranslation() {
+    EdgeHandoffTracker tracker = newBottomEdgeTracker();
+    // 视图在屏幕上的位置是 0，手指在视图中 500 的位置按下
+    tracker.onDown(500, 0, true);
+    // 手指上移 120 像素全部被父视图消费，页面经过阻力只上移了 30 像素，视图中的坐标变成 380 - (-30) = 410
+    assertEquals(120, tracker.onNestedMove(380));
+    tracker.addNestedConsumed(120);
+    float origin = -30;
+    float local = 380 - origin;
+
+    // 平移后视图看到的坐标和按下时一样，内容不滚动
+    assertEquals(90f, tracker.getNestedEventOffset(origin), 0);
+    assertEquals(500f, local + tracker.getNestedEventOffset(origin), 0);
+  }
+
+  @Test
+  public void nestedOffset_passesUnconsumedMoveToView() {
+    EdgeHandoffTracker tracker = newBottomEdgeTracker();
+    // 视图所在的页面已经被拖开了 -200
+    tracker.onDown(800, -200, false);
+    // 手指上移 100，父视图消费 40 把页面拖回 10 像素，剩下的 60 由视图滚动
+    tracker.onNestedMove(700);
+    tracker.addNestedConsumed(40);
+    float origin = -190;
+    float local = 700 - origin;
+
+    // 视图只看到 60 像素的移动：按下时视图中的坐标是 1000，现在是 940
+    assertEquals(940f, local + tracker.getNestedEventOffset(origin), 0);
+  }
+
+  @Test
+  public void nestedOffset_resetOnEachGesture() {
+    EdgeHandoffTracker tracker = newBottomEdgeTracker();
+    tracker.onDown(500, 0, true);
+    tracker.addNestedConsumed(120);
+    tracker.onDown(500, -30, true);
+
+    assertEquals(0f, tracker.getNestedEventOffset(-30), 0);
+  }
+
+  /**
+   * 记录收到的请求，mAttached 为 false 时模拟视图没有父视图
+   */
+  private static final class FakeParent implements EdgeHandoffTracker.Parent {
+
+    final List<Boolean> mRequests = new ArrayList<Boolean>();
+    boolean mAttached = true;
+
+    @Override
+    public boolean requestDisallowInterceptTouchEvent(boolean disallowIntercept) {
+      if (!mAttached) {
+        return false;
+      }
+      mRequests.add(disallowIntercept);
+      return true;
+    }
+  }
+}
\ No newline at end of file
@@ -0,0 +1,196 @@
+package com.williamchik.dragswitchlayout;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * 逐帧记录每个子视图的位置，并对记录的轨迹做平滑性的断言。轨迹可以导出为文本，在没有显示设备的 CI 机器上对比不同版本的差异。
+ */
+final class FrameTrace {
+
+  private final String[] mColumns;
+  private final ArrayList<Long> mTimes = new ArrayList<Long>();
+  private final ArrayList<int[]> mPositions = new ArrayList<int[]>();
+  // 有名字的帧，例如松手的那一帧
+  private final HashMap<String, Integer> mMarks = new HashMap<String, Integer>();
+
+  /**
+   * @param columns 每个子视图的名字
+   */
+  FrameTrace(String... columns) {
+    mColumns = columns;
+  }
+
+  /**
+   * 记录一帧中每个子视图的位置，顺序和构造时的名字一致
+   */
+  void record(long frameTime, int... positions) {
+    if (positions.length != mColumns.length) {
+      throw new IllegalArgumentException("expected " + mColumns.length + " positions, got " + positions.length);
+    }
+    mTimes.add(frameTime);
+    mPositions.add(positions.clone());
+  }
+
+  /**
+   * 把下一条记录标记为指定的名字
+   */
+  void mark(String name) {
+    mMarks.put(name, mPositions.size());
+  }
+
+  int getMark(String name) {
+    Integer frame = mMarks.get(name);
+    if (frame == null) {
+      throw new AssertionError("no frame marked " + name);
+    }
+    return frame;
+  }
+
+  int getColumnCount() {
+    return mColumns.length;
+  }
+
+  int size() {
+    return mPositions.size();
+  }
+
+  long getTime(int frame) {
+    return mTimes.get(frame);
+  }
+
+  int get(int frame, int column) {
+    return mPositions.get(frame)[column];
+  }
+
+  /**
+   * @return 指定时间那一帧的序号，没有这一帧时返回 -1
+   */
+  int indexOfTime(long frameTime) {
+    return mTimes.indexOf(frameTime);
+  }
+
+  /**
+   * 最后一帧停在目标位置
+   */
+  void assertEndsAt(int column, int target) {
+    int last = get(size() - 1, column);
+    if (last != target) {
+      throw new AssertionError(mColumns[column] + " ends at " + last + ", expected " + target + "\n" + toText());
+    }
+  }
+
+  /**
+   * 从指定的帧开始只朝一个方向移动，不会来回抖动
+   */
+  void assertMonotonic(int column, int fromFrame) {
+    int direction = 0;
+    for (int i = fromFrame + 1; i < size(); i++) {
+      int step = Integer.signum(get(i, column) - get(i - 1, column));
+      if (step == 0) {
+        continue;
+      }
+      if (direction != 0 && step != direction) {
+        throw new AssertionError(mColumns[column] + " changes direction at frame " + i + "\n" + toText());
+      }
+      direction = step;
+    }
+  }
+
+  /**
+   * 从指定的帧开始，离最后的位置还远时每一帧都在移动，到达最后的位置后不再多停一帧。
+   * 减速曲线在接近终点时每一帧的移动不到 1 像素，离终点不超过 tolerance 时允许停顿
+   *
+   * @param tolerance 允许停顿的离终点的距离
+   */
+  void assertNoStalls(int column, int fromFrame, int tolerance) {
+    int target = get(size() - 1, column);
+    for (int i = fromFrame + 1; i < size(); i++) {
+      int position = get(i, column);
+      if (i < size() - 1 && position == target && get(i - 1, column) == target) {
+        throw new AssertionError(mColumns[column] + " stays at the end after frame " + i + "\n" + toText());
+      }
+      if (position == get(i - 1, column) && Math.abs(position - target) > tolerance) {
+        throw new AssertionError(mColumns[column] + " stalls at frame " + i + "\n" + toText());
+      }
+    }
+  }
+
+  /**
+   * 从指定的帧开始，每一帧的移动不超过指定的距离，不会跳跃
+   */
+  void assertMaxStep(int column, int fromFrame, int maxStep) {
+    for (int i = fromFrame + 1; i < size(); i++) {
+      int step = Math.abs(get(i, column) - get(i - 1, column));
+      if (step > maxStep) {
+        throw new AssertionError(mColumns[column] + " jumps " + step + "px at frame " + i + "\n" + toText());
+      }
+    }
+  }
+
+  /**
+   * 两个子视图在每一帧都保持固定的距离，一起移动
+   */
+  void assertLocked(int column, int otherColumn, int distance) {
+    for (int i = 0; i < size(); i++) {
+      if (get(i, otherColumn) - get(i, column) != distance) {
+        throw new AssertionError(mColumns[column] + " and " + mColumns[otherColumn] + " drift apart at frame " + i
+            + "\n" + toText());
+      }
+    }
+  }
+
+  /**
+   * @return 和另一条轨迹第一处不同的帧，完全相同时返回 -1
+   */
+  int firstDifference(FrameTrace other) {
+    int count = Math.min(size(), other.size());
+    for (int i = 0; i < count; i++) {
+      if (getTime(i) != other.getTime(i) || !Arrays.equals(mPositions.get(i), other.mPositions.get(i))) {
+        return i;
+      }
+    }
+    return size() == other.size() ? -1 : count;
+  }
+
+  /**
+   * @return 每行一帧，依次是帧的时间和每个子视图的位置，用制表符分隔
+   */
+  String toText() {
+    StringBuilder builder = new StringBuilder("time");
+    for (String column : mColumns) {
+      builder.append('\t').append(column);
+    }
+    builder.append('\n');
+    for (int i = 0; i < size(); i++) {
+      builder.append(getTime(i));
+      for (int position : mPositions.get(i)) {
+        builder.append('\t').append(position);
+      }
+      builder.append('\n');
+    }
+    return builder.toString();
+  }
+
+  /**
+   * 导出轨迹，供 CI 对比不同版本
+   */
+  void writeTo(File file) throws IOException {
+    File parent = file.getParentFile();
+    if (parent != null && !parent.exists() && !parent.mkdirs()) {
+      throw new IOException("can not create " + parent);
+    }
+    Writer writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+    try {
+      writer.write(toText());
+    } finally {
+      writer.close();
+    }
+  }
+}
\ No newline at end of file
@@ -0,0 +1,255 @@
+package com.williamchik.dragswitchlayout;
+
+import android.widget.LinearLayout;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 用虚拟帧时钟回放手势，对逐帧的位置做平滑性的断言：页面一起移动、单向接近目标、没有停顿的帧、没有跳跃、准确停在目标位置。
+ * 每条轨迹导出到 build/frame-traces 目录，CI 可以对比不同版本的轨迹。
+ */
+public class GestureReplayTest {
+
+  private static final int PAGE_HEIGHT = 1920;
+  private static final float DENSITY = 3;
+  // 接近终点时允许停顿的距离
+  private static final int STALL_TOLERANCE = 3;
+  private static final File TRACE_DIR = new File("build/frame-traces");
+
+  // 录制的快速上滑手势，8ms 一个事件
+  private static final GestureScript RECORDED_SWIPE_UP = GestureScript.recorded(1000, 8,
+      1520, 1516, 1505, 1484, 1452, 1405, 1344, 1270, 1187, 1098, 1006, 915, 829, 751, 683, 627, 583, 550, 527, 512);
+
+  @Test
+  public void recordedSwipe_settlesOnNextPage() throws IOException {
+    FrameTrace trace = new DragSwitchReplay(2, PAGE_HEIGHT, DENSITY).replay(RECORDED_SWIPE_UP);
+    export("recordedSwipe", trace);
+    assertSmoothSettle(trace, -PAGE_HEIGHT);
+  }
+
+  @Test
+  public void fling_settlesOnNextPageWithSpring() throws IOException {
+    GestureScript fling = GestureScript.fling(0, 1500, 1100, 120, 8);
+    FrameTrace trace = new DragSwitchReplay(3, PAGE_HEIGHT, DENSITY).setSettleEngine(new SpringSettleEngine())
+        .replay(fling);
+    export("springFling", trace);
+    assertSmoothSettle(trace, -PAGE_HEIGHT);
+  }
+
+  @Test
+  public void slowShortDrag_snapsBack() throws IOException {
+    GestureScript drag = GestureScript.swipe(0, 1000, 700, 800, 8);
+    FrameTrace trace = new DragSwitchReplay(2, PAGE_HEIGHT, DENSITY).setResistance(new RubberBandDragResistance())
+        .replay(drag);
+    export("snapBack", trace);
+    assertSmoothSettle(trace, 0);
+  }
+
+  @Test
+  public void dragDownOnLastPage_switchesToPreviousPage() throws IOException {
+    GestureScript drag = GestureScript.swipe(0, 300, 1500, 300, 8);
+    FrameTrace trace = new DragSwitchReplay(2, PAGE_HEIGHT, DENSITY).setCurrentPage(1).replay(drag);
+    export("dragDown", trace);
+    assertSmoothSettle(trace, 0);
+  }
+
+  @Test
+  public void droppedFrames_doNotChangeLaterPositions() {
+    FrameTrace expected = new DragSwitchReplay(2, PAGE_HEIGHT, DENSITY).replay(RECORDED_SWIPE_UP);
+    int dropAfter = expected.getMark(DragSwitchReplay.MARK_RELEASE) + 3;
+    FrameTrace janky = new DragSwitchReplay(2, PAGE_HEIGHT, DENSITY).dropFrames(dropAfter, 4).replay(RECORDED_SWIPE_UP);
+
+    // 位置只由帧时间决定，掉帧之后的每一帧和没有掉帧时同一时间的位置一致
+    for (int i = dropAfter + 1; i < janky.size(); i++) {
+      int frame = expected.indexOfTime(janky.getTime(i));
+      assertTrue("no frame at " + janky.getTime(i), frame >= 0);
+      assertEquals("frame at " + janky.getTime(i), expected.get(frame, 0), janky.get(i, 0));
+    }
+    janky.assertEndsAt(0, -PAGE_HEIGHT);
+    janky.assertMonotonic(0, janky.getMark(DragSwitchReplay.MARK_RELEASE));
+  }
+
+  @Test
+  public void horizontalSwipe_switchesPageInHorizontalMode() throws IOException {
+    // 通过公开的常量设置方向，和 DragSwitchLayout.setOrientation() 的调用方式一致
+    FrameTrace trace = new DragSwitchReplay(2, PAGE_HEIGHT, DENSITY).setOrientation(DragSwitchLayout.HORIZONTAL)
+        .setGestureOrientation(DragSwitchLayout.HORIZONTAL).replay(RECORDED_SWIPE_UP);
+    export("horizontalSwipe", trace);
+    assertSmoothSettle(trace, -PAGE_HEIGHT);
+  }
+
+  @Test
+  public void horizontalSwipe_doesNotMovePagesInVerticalMode() {
+    FrameTrace trace = new DragSwitchReplay(2, PAGE_HEIGHT, DENSITY).setOrientation(DragSwitchLayout.VERTICAL)
+        .setGestureOrientation(DragSwitchLayout.HORIZONTAL).replay(RECORDED_SWIPE_UP);
+    for (int i = 0; i < trace.size(); i++) {
+      assertEquals("frame " + i, 0, trace.get(i, 0));
+    }
+  }
+
+  @Test
+  public void orientationConstants_matchAutoSwitchLayoutAndLinearLayout() {
+    // 同一个常量传给两个控件时方向相同，传入 LinearLayout 的常量也不会被当成另一个方向
+    assertEquals(AutoSwitchLayout.HORIZONTAL, DragSwitchLayout.HORIZONTAL);
+    assertEquals(AutoSwitchLayout.VERTICAL, DragSwitchLayout.VERTICAL);
+    assertEquals(LinearLayout.HORIZONTAL, DragSwitchLayout.HORIZONTAL);
+    assertEquals(LinearLayout.VERTICAL, DragSwitchLayout.VERTICAL);
+  }
+
+  @Test
+  public void replay_isDeterministic() {
+    FrameTrace first = new DragSwitchReplay(2, PAGE_HEIGHT, DENSITY).replay(RECORDED_SWIPE_UP);
+    FrameTrace second = new DragSwitchReplay(2, PAGE_HEIGHT, DENSITY).replay(RECORDED_SWIPE_UP);
+    assertEquals(-1, first.firstDifference(second));
+  }
+
+  @Test
+  public void autoSwitch_movesEveryFrameAndEndsExactly() throws IOException {
+    int size = 150;
+    FrameTrace trace = new AutoSwitchReplay(size, 600).replay();
+    export("autoSwitch", trace);
+    trace.assertLocked(0, 1, size);
+    trace.assertMonotonic(0, 0);
+    trace.assertEndsAt(0, -size);
+    trace.assertEndsAt(1, 0);
+    // 到达终点的那一帧就结束，不会在终点多停一帧
+    trace.assertNoStalls(0, 0, STALL_TOLERANCE);
+  }
+
+  @Test
+  public void autoSwitch_reverseIsContinuous() throws IOException {
+    int size = 150;
+    FrameTrace trace = new AutoSwitchReplay(size, 600).reverseAfter(200, 150, 600).replay();
+    export("autoSwitchReverse", trace);
+    int reverse = trace.getMark(AutoSwitchReplay.MARK_REVERSE);
+    trace.assertLocked(0, 1, size);
+    // 掉头的那一帧停在原地，没有跳跃
+    trace.assertMaxStep(0, 0, size / 4);
+    trace.assertMonotonic(0, reverse);
+    trace.assertNoStalls(0, reverse, STALL_TOLERANCE);
+    trace.assertEndsAt(0, 0);
+    trace.assertEndsAt(1, size);
+  }
+
+  @Test
+  public void autoSwitch_queuedNextStartsWhereCurrentSwitchEnds() throws IOException {
+    int size = 150;
+    FrameTrace trace = new SwitchQueueReplay(3, size)
+        .switchToNextAt(0, "first")
+        .switchToNextAt(200, "queued")
+        .replay();
+    export("autoSwitchQueued", trace);
+    // 排队的切换不打断当前的切换：child1 完整地滑入，停在 0 的那一帧 child2 开始滑入
+    int arrived = indexOf(trace, 1, 0);
+    assertTrue(trace.getTime(arrived) > trace.getTime(trace.getMark("queued")));
+    assertTrue(trace.getTime(arrived) <= SwitchStepQueue.SWITCH_DURATION);
+    assertEquals(size, trace.get(arrived, 2));
+    assertSlidesIn(trace, 1, arrived, size / 4);
+    trace.assertMonotonic(2, 0);
+    trace.assertNoStalls(2, arrived, STALL_TOLERANCE);
+    trace.assertEndsAt(2, 0);
+    // 第一次切换结束时只剩一次排队的切换，不缩短时长（减速曲线在剩余不到 1 像素时提前结束）
+    long secondDuration = trace.getTime(trace.size() - 1) - trace.getTime(arrived);
+    assertTrue(secondDuration > SwitchStepQueue.SWITCH_DURATION / 2);
+    assertTrue(secondDuration <= SwitchStepQueue.SWITCH_DURATION);
+  }
+
+  @Test
+  public void autoSwitch_retargetToPreviousChildReversesWithoutJump() throws IOException {
+    int size = 150;
+    FrameTrace trace = new SwitchQueueReplay(3, size)
+        .switchToNextAt(0, "first")
+        .switchToAt(200, 0, "back")
+        .replay();
+    export("autoSwitchRetargetBack", trace);
+    int back = trace.getMark("back");
+    trace.assertLocked(0, 1, size);
+    // 掉头的那一帧停在原地，没有跳跃，之后单向滑回 child0
+    trace.assertMaxStep(0, 0, size / 4);
+    trace.assertMonotonic(0, back);
+    trace.assertNoStalls(0, back, STALL_TOLERANCE);
+    trace.assertEndsAt(0, 0);
+    trace.assertEndsAt(1, size);
+    // 没有经过 child2，滑回去的时长不超过已经滑过的时长
+    for (int i = 0; i < trace.size(); i++) {
+      assertEquals(size, trace.get(i, 2));
+    }
+    assertTrue(trace.getTime(trace.size() - 1) <= 2 * trace.getTime(back));
+  }
+
+  @Test
+  public void autoSwitch_retargetAheadContinuesCurrentSwitch() throws IOException {
+    int size = 150;
+    FrameTrace trace = new SwitchQueueReplay(3, size)
+        .switchToNextAt(0, "first")
+        .switchToAt(200, 2, "ahead")
+        .replay();
+    export("autoSwitchRetargetAhead", trace);
+    int arrived = indexOf(trace, 1, 0);
+    assertSlidesIn(trace, 1, arrived, size / 4);
+    assertEquals(size, trace.get(arrived, 2));
+    trace.assertEndsAt(2, 0);
+  }
+
+  @Test
+  public void autoSwitch_switchToDistantChildShortensQueuedStep() throws IOException {
+    int size = 150;
+    FrameTrace trace = new SwitchQueueReplay(3, size).switchToAt(0, 2, "target").replay();
+    export("autoSwitchDistant", trace);
+    // 经过 child1 时后面还排着一次切换，只用一半的时长；最后一次切换使用完整的时长
+    int arrived = indexOf(trace, 1, 0);
+    assertTrue(trace.getTime(arrived) <= SwitchStepQueue.SWITCH_DURATION / 2);
+    assertEquals(size, trace.get(arrived, 2));
+    trace.assertEndsAt(2, 0);
+    assertTrue(trace.getTime(trace.size() - 1) - trace.getTime(arrived) > SwitchStepQueue.SWITCH_DURATION / 2);
+  }
+
+  /**
+   * 页面一起移动；松手之后单向接近目标，离目标还远时每一帧都在移动，不超过半个页面的跳跃，最后准确停在目标位置。
+   * 松手的那一帧滑动刚开始，位置和上一帧相同，从下一帧开始检查停顿
+   */
+  private static void assertSmoothSettle(FrameTrace trace, int target) {
+    int release = trace.getMark(DragSwitchReplay.MARK_RELEASE);
+    for (int column = 1; column < trace.getColumnCount(); column++) {
+      trace.assertLocked(column - 1, column, PAGE_HEIGHT);
+    }
+    trace.assertEndsAt(0, target);
+    trace.assertMonotonic(0, release);
+    trace.assertNoStalls(0, release, STALL_TOLERANCE);
+    trace.assertMaxStep(0, release, PAGE_HEIGHT / 2);
+  }
+
+  /**
+   * @return 子视图第一次到达指定位置的帧
+   */
+  private static int indexOf(FrameTrace trace, int column, int position) {
+    for (int i = 0; i < trace.size(); i++) {
+      if (trace.get(i, column) == position) {
+        return i;
+      }
+    }
+    throw new AssertionError("column " + column + " never reaches " + position + "\n" + trace.toText());
+  }
+
+  /**
+   * 子视图从开始到指定的帧一直朝 0 移动，每一帧的移动不超过 maxStep。之后它会继续滑出，静止时被移到布局之外，不再检查
+   */
+  private static void assertSlidesIn(FrameTrace trace, int column, int toFrame, int maxStep) {
+    for (int i = 1; i <= toFrame; i++) {
+      int step = trace.get(i - 1, column) - trace.get(i, column);
+      if (step < 0 || step > maxStep) {
+        throw new AssertionError("column " + column + " moves " + step + "px at frame " + i + "\n" + trace.toText());
+      }
+    }
+  }
+
+  private static void export(String name, FrameTrace trace) throws IOException {
+    trace.writeTo(new File(TRACE_DIR, name + ".tsv"));
+  }
+}
\ No newline at end of file
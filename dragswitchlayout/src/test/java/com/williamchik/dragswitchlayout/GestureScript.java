@@ -0,0 +1,95 @@
+package com.williamchik.dragswitchlayout;
+
+/**
+ * 回放用的手势：按时间排列的一个方向上的坐标，默认是 Y 轴（见 {@link DragSwitchReplay#setGestureOrientation(int)}），
+ * 第一个是 ACTION_DOWN，最后一个是 ACTION_UP，中间都是 ACTION_MOVE。可以直接使用录制的坐标，也可以按参数生成。
+ */
+final class GestureScript {
+
+  // 计算松手速度时使用的时间窗口，和 VelocityTracker 的做法一致，只看最近的一段
+  private static final long VELOCITY_WINDOW = 100;
+
+  private final long[] mTimes;
+  private final int[] mYs;
+
+  GestureScript(long[] times, int[] ys) {
+    if (times.length != ys.length || times.length < 2) {
+      throw new IllegalArgumentException("a gesture needs at least a down and an up event");
+    }
+    mTimes = times;
+    mYs = ys;
+  }
+
+  /**
+   * 录制的手势，事件间隔固定
+   */
+  static GestureScript recorded(long startTime, long eventInterval, int... ys) {
+    long[] times = new long[ys.length];
+    for (int i = 0; i < ys.length; i++) {
+      times[i] = startTime + i * eventInterval;
+    }
+    return new GestureScript(times, ys);
+  }
+
+  /**
+   * 先加速再减速的滑动
+   *
+   * @param duration      手势的时长
+   * @param eventInterval 事件的间隔，触摸屏的采样间隔
+   */
+  static GestureScript swipe(long startTime, int fromY, int toY, long duration, long eventInterval) {
+    int count = (int) (duration / eventInterval) + 1;
+    long[] times = new long[count];
+    int[] ys = new int[count];
+    for (int i = 0; i < count; i++) {
+      float t = (float) i / (count - 1);
+      float eased = t * t * (3 - 2 * t);
+      times[i] = startTime + i * eventInterval;
+      ys[i] = fromY + Math.round((toY - fromY) * eased);
+    }
+    return new GestureScript(times, ys);
+  }
+
+  /**
+   * 在最后加速的滑动，松手时速度最大，模拟快速的 fling
+   */
+  static GestureScript fling(long startTime, int fromY, int toY, long duration, long eventInterval) {
+    int count = (int) (duration / eventInterval) + 1;
+    long[] times = new long[count];
+    int[] ys = new int[count];
+    for (int i = 0; i < count; i++) {
+      float t = (float) i / (count - 1);
+      times[i] = startTime + i * eventInterval;
+      ys[i] = fromY + Math.round((toY - fromY) * t * t);
+    }
+    return new GestureScript(times, ys);
+  }
+
+  int size() {
+    return mYs.length;
+  }
+
+  long getTime(int index) {
+    return mTimes[index];
+  }
+
+  int getY(int index) {
+    return mYs[index];
+  }
+
+  /**
+   * @return 松手时的速度，单位是像素每秒，向下为正
+   */
+  float getReleaseVelocity() {
+    int last = mYs.length - 1;
+    int first = last;
+    while (first > 0 && mTimes[last] - mTimes[first - 1] <= VELOCITY_WINDOW) {
+      first--;
+    }
+    long duration = mTimes[last] - mTimes[first];
+    if (duration <= 0) {
+      return 0;
+    }
+    return (mYs[last] - mYs[first]) * 1000f / duration;
+  }
+}
\ No newline at end of file
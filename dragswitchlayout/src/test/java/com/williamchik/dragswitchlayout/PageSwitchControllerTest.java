@@ -0,0 +1,311 @@
+package com.williamchik.dragswitchlayout;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * DragSwitchLayout 的页面切换状态机的测试，用 {@link RecordingSwitchHost} 代替布局，时间由测试传入。
+ */
+public class PageSwitchControllerTest {
+
+  private static final int PAGE_SIZE = 1000;
+  private static final long FRAME_INTERVAL = 16;
+
+  private final RecordingSwitchHost mHost = new RecordingSwitchHost();
+
+  private PageSwitchController newController(int pageCount) {
+    // 密度为 1 时速度阈值是 75 像素/秒，距离阈值是 60 像素
+    PageSwitchController controller = new PageSwitchController(mHost, 1);
+    controller.setPageCount(pageCount);
+    controller.setPageSize(PAGE_SIZE);
+    return controller;
+  }
+
+  /**
+   * 逐帧滑动到结束，每一帧都朝目标位置移动，不越过目标位置
+   *
+   * @return 滑动结束的时间
+   */
+  private static long settleToEnd(PageSwitchController controller, long time) {
+    int finalOffset = (controller.getCurrentPage() - controller.getTargetPage()) * controller.getPageSize();
+    int lastOffset = controller.getDragOffset();
+    boolean keepGoing = true;
+    for (int frame = 0; keepGoing; frame++) {
+      assertTrue("settle did not finish", frame < 1000);
+      time += FRAME_INTERVAL;
+      keepGoing = controller.computeSettleOffset(time);
+      int offset = controller.getDragOffset();
+      assertTrue("moved away from " + finalOffset + ": " + lastOffset + " -> " + offset,
+          Math.abs(finalOffset - offset) <= Math.abs(finalOffset - lastOffset));
+      lastOffset = offset;
+    }
+    assertEquals(finalOffset, lastOffset);
+    controller.finishSettle();
+    return time;
+  }
+
+  @Test
+  public void resize_firstLayoutKeepsOffset() {
+    PageSwitchController controller = new PageSwitchController(mHost, 1);
+    controller.setPageCount(2);
+    controller.resize(PAGE_SIZE, 0);
+    assertEquals(PAGE_SIZE, controller.getPageSize());
+    assertEquals(0, controller.getDragOffset());
+    assertEquals(PAGE_SIZE, controller.getPageOffset(1));
+  }
+
+  @Test
+  public void resize_midDragScalesOffset() {
+    PageSwitchController controller = newController(2);
+    controller.startDrag();
+    controller.setDragOffset(-300);
+
+    controller.resize(600, 0);
+
+    // 页面移动过的比例不变，拖拽没有被打断
+    assertEquals(-180, controller.getDragOffset());
+    assertEquals(420, controller.getPageOffset(1));
+    assertEquals(PageSwitchController.SCROLL_STATE_DRAGGING, controller.getScrollState());
+
+    // 松手后按新的尺寸滑动到下一页
+    controller.release(0, 0);
+    assertEquals(1, controller.getTargetPage());
+    settleToEnd(controller, 0);
+    assertEquals(1, controller.getCurrentPage());
+    assertEquals(0, controller.getDragOffset());
+    assertEquals(0, controller.getPageOffset(1));
+  }
+
+  @Test
+  public void resize_midSettleRestartsTowardNewTarget() {
+    PageSwitchController controller = newController(2);
+    controller.startDrag();
+    controller.setDragOffset(-400);
+    controller.release(0, 0);
+    long time = 0;
+    for (int i = 0; i < 3; i++) {
+      time += FRAME_INTERVAL;
+      assertTrue(controller.computeSettleOffset(time));
+    }
+    int offsetBeforeResize = controller.getDragOffset();
+    assertTrue(offsetBeforeResize < -400 && offsetBeforeResize > -PAGE_SIZE);
+
+    controller.resize(PAGE_SIZE / 2, time);
+
+    // 位置按比例换算，滑动继续朝新尺寸下的目标位置进行，不会被取消
+    assertEquals(Math.round(offsetBeforeResize / 2f), controller.getDragOffset());
+    assertEquals(PageSwitchController.SCROLL_STATE_SETTLING, controller.getScrollState());
+    assertEquals(1, controller.getTargetPage());
+    settleToEnd(controller, time);
+    assertEquals(1, controller.getCurrentPage());
+    assertEquals(0, controller.getPageOffset(1));
+    assertEquals(-PAGE_SIZE / 2, controller.getPageOffset(0));
+    assertFalse(mHost.getEvents().contains("settleCancelled 0"));
+    assertEquals("settleFinished 1", mHost.getEvents().get(mHost.getEvents().size() - 1));
+  }
+
+  @Test
+  public void resize_whileIdleOnSecondPageKeepsPageAligned() {
+    PageSwitchController controller = newController(3);
+    controller.jumpToPage(1);
+
+    controller.resize(1500, 0);
+
+    assertEquals(0, controller.getDragOffset());
+    assertEquals(-1500, controller.getPageOffset(0));
+    assertEquals(1500, controller.getPageOffset(2));
+  }
+
+  @Test
+  public void switchToPage_animatedDispatchesInOrder() {
+    PageSwitchController controller = newController(3);
+    controller.switchToPage(1, true, 0);
+    settleToEnd(controller, 0);
+
+    assertEquals(Arrays.asList("releaseDecided 0->1", "settleStarted 1", "settleFinished 1"), settleEvents());
+    assertEquals(1, controller.getCurrentPage());
+    assertEquals(0, controller.getDragOffset());
+  }
+
+  @Test
+  public void switchToPage_withoutAnimationJumpsAndFinishes() {
+    PageSwitchController controller = newController(3);
+    controller.switchToPage(2, false, 0);
+
+    // 没有滑动动画，不回调 onSettleStarted()
+    assertEquals(Arrays.asList("releaseDecided 0->2", "jumped", "settleFinished 2"), settleEvents());
+    assertEquals(2, controller.getCurrentPage());
+    assertEquals(PageSwitchController.SCROLL_STATE_IDLE, controller.getScrollState());
+  }
+
+  @Test
+  public void switchToPage_whileSettlingRetargetsWithoutCancel() {
+    PageSwitchController controller = newController(3);
+    controller.switchToPage(1, true, 0);
+    controller.computeSettleOffset(FRAME_INTERVAL);
+    assertTrue(controller.isSettledAt(1));
+
+    controller.switchToPage(2, true, FRAME_INTERVAL);
+    settleToEnd(controller, FRAME_INTERVAL);
+
+    assertEquals(Arrays.asList("releaseDecided 0->1", "settleStarted 1", "releaseDecided 1->2", "settleStarted 2",
+        "settleFinished 2"), settleEvents());
+  }
+
+  @Test
+  public void newDrag_cancelsSettle() {
+    PageSwitchController controller = newController(2);
+    controller.switchToPage(1, true, 0);
+    controller.computeSettleOffset(FRAME_INTERVAL);
+    controller.computeSettleOffset(2 * FRAME_INTERVAL);
+    int offset = controller.getDragOffset();
+
+    // 滑动途中手指按下重新拖拽，页面停在当前位置，回调 onSettleCancelled()
+    controller.startDrag();
+    assertEquals(PageSwitchController.SCROLL_STATE_DRAGGING, controller.getScrollState());
+    assertEquals(offset, controller.getDragOffset());
+    assertEquals(0, controller.getCurrentPage());
+    assertFalse(controller.computeSettleOffset(3 * FRAME_INTERVAL));
+    assertEquals(offset, controller.getDragOffset());
+
+    // 拖回原处松手，滑回第一页
+    controller.setDragOffset(-10);
+    controller.release(0, 3 * FRAME_INTERVAL);
+    settleToEnd(controller, 3 * FRAME_INTERVAL);
+    assertEquals(Arrays.asList("releaseDecided 0->1", "settleStarted 1", "settleCancelled 0", "releaseDecided 0->0",
+        "settleStarted 0", "settleFinished 0"), settleEvents());
+  }
+
+  @Test
+  public void abort_cancelsSettleOnce() {
+    PageSwitchController controller = newController(2);
+    controller.switchToPage(1, true, 0);
+    controller.computeSettleOffset(FRAME_INTERVAL);
+    int offset = controller.getPageOffset(0);
+    controller.abort();
+    controller.abort();
+
+    // 停止后目标页成为当前页，页面停在原来的位置
+    assertEquals(Arrays.asList("releaseDecided 0->1", "settleStarted 1", "settleCancelled 1"), settleEvents());
+    assertEquals(1, controller.getCurrentPage());
+    assertEquals(offset, controller.getPageOffset(0));
+  }
+
+  @Test
+  public void idleTasks_doNotRunDuringSettle() {
+    PageSwitchController controller = newController(2);
+    CountingTask task = new CountingTask();
+    controller.switchToPage(1, true, 0);
+    controller.runWhenIdle(task);
+
+    // 滑动中不安排执行，之前安排的执行在滑动中到来时也不执行
+    assertTrue(mHost.getEvents("idle").isEmpty());
+    controller.computeSettleOffset(FRAME_INTERVAL);
+    controller.runIdleTasks();
+    assertEquals(0, task.mRunCount);
+
+    long time = settleToEnd(controller, FRAME_INTERVAL);
+    assertEquals(Arrays.asList("idleTasksPending"), mHost.getEvents("idle"));
+    assertEquals(0, task.mRunCount);
+    controller.runIdleTasks();
+    assertEquals(1, task.mRunCount);
+    assertTrue(time > FRAME_INTERVAL);
+  }
+
+  @Test
+  public void idleTasks_scheduledImmediatelyWhenIdleAndRunOnce() {
+    PageSwitchController controller = newController(2);
+    CountingTask task = new CountingTask();
+    controller.runWhenIdle(task);
+    controller.runWhenIdle(task);
+
+    assertEquals(Arrays.asList("idleTasksPending", "idleTasksPending"), mHost.getEvents("idle"));
+    controller.runIdleTasks();
+    controller.runIdleTasks();
+    assertEquals(1, task.mRunCount);
+  }
+
+  @Test
+  public void idleTasks_waitWhenSettleIsCancelledByDrag() {
+    PageSwitchController controller = newController(2);
+    CountingTask task = new CountingTask();
+    controller.switchToPage(1, true, 0);
+    controller.runWhenIdle(task);
+    controller.computeSettleOffset(FRAME_INTERVAL);
+
+    // 滑动被新的拖拽取消，拖拽中任务继续等待
+    controller.startDrag();
+    controller.runIdleTasks();
+    assertEquals(0, task.mRunCount);
+    assertTrue(mHost.getEvents("idle").isEmpty());
+
+    controller.release(0, 2 * FRAME_INTERVAL);
+    settleToEnd(controller, 2 * FRAME_INTERVAL);
+    controller.runIdleTasks();
+    assertEquals(1, task.mRunCount);
+  }
+
+  @Test
+  public void idleTasks_taskStartingNewSettleDefersTheRest() {
+    final PageSwitchController controller = newController(3);
+    CountingTask second = new CountingTask();
+    controller.runWhenIdle(new Runnable() {
+
+      @Override
+      public void run() {
+        controller.switchToPage(1, true, 0);
+      }
+    });
+    controller.runWhenIdle(second);
+
+    controller.runIdleTasks();
+    assertEquals(0, second.mRunCount);
+    settleToEnd(controller, 0);
+    controller.runIdleTasks();
+    assertEquals(1, second.mRunCount);
+  }
+
+  @Test
+  public void idleTasks_cancelledTaskDoesNotRun() {
+    PageSwitchController controller = newController(2);
+    CountingTask task = new CountingTask();
+    controller.switchToPage(1, true, 0);
+    controller.runWhenIdle(task);
+    controller.cancelIdleTask(task);
+    settleToEnd(controller, 0);
+
+    controller.runIdleTasks();
+    assertEquals(0, task.mRunCount);
+    assertTrue(mHost.getEvents("idle").isEmpty());
+  }
+
+  private static final class CountingTask implements Runnable {
+
+    int mRunCount;
+
+    @Override
+    public void run() {
+      mRunCount++;
+    }
+  }
+
+  /**
+   * @return 页面切换相关的回调，不包括拖拽状态的变化
+   */
+  private List<String> settleEvents() {
+    List<String> events = new ArrayList<String>();
+    for (String event : mHost.getEvents()) {
+      if (event.startsWith("releaseDecided") || event.startsWith("settle") || event.equals("jumped")) {
+        events.add(event);
+      }
+    }
+    return events;
+  }
+}
\ No newline at end of file
@@ -0,0 +1,156 @@
+package com.williamchik.dragswitchlayout;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 底部视图预加载状态机的测试：预加载在滑动比例处只开始一次，只有底部视图从来没有显示过时才取消，耗时只回调一次。
+ */
+public class PreloadTrackerTest {
+
+  private static final float PRELOAD_FRACTION = 0.5f;
+
+  private final List<String> mEvents = new ArrayList<String>();
+  private final PreloadTracker mTracker = new PreloadTracker();
+
+  @Before
+  public void setUp() {
+    mTracker.setListener(PRELOAD_FRACTION, newListener());
+  }
+
+  @Test
+  public void preload_firesOnceAtFraction() {
+    mTracker.onTopScrolled(false, 0.2f);
+    mTracker.onTopScrolled(false, 0.49f);
+    assertEquals(Collections.<String>emptyList(), mEvents);
+
+    mTracker.onTopScrolled(false, 0.5f);
+    mTracker.onTopScrolled(false, 0.8f);
+    // 滑回比例以下再滑过去也不会重复预加载
+    mTracker.onTopScrolled(false, 0.1f);
+    mTracker.onTopScrolled(false, 0.9f);
+    assertEquals(Arrays.asList("preload"), mEvents);
+    assertTrue(mTracker.hasPreloaded());
+  }
+
+  @Test
+  public void preload_firesAtBottomOfShortTopView() {
+    // 顶部视图不够长，不能滚动时比例一直是 0
+    mTracker.onTopScrolled(true, 0);
+    assertEquals(Arrays.asList("preload"), mEvents);
+  }
+
+  @Test
+  public void preload_disabledByNegativeFraction() {
+    mTracker.setListener(-1, newListener());
+    mTracker.onTopScrolled(true, 1);
+    assertEquals(Collections.<String>emptyList(), mEvents);
+  }
+
+  @Test
+  public void switchToBottom_startsPreloadWhenNotTriggered() {
+    mTracker.onSwitchToBottom(1000);
+    mTracker.onTopScrolled(false, 0.9f);
+    assertEquals(Arrays.asList("preload"), mEvents);
+  }
+
+  @Test
+  public void cancel_firesWhenBottomWasNeverShown() {
+    mTracker.onTopScrolled(false, 0.6f);
+    mTracker.onLeave();
+    assertEquals(Arrays.asList("preload", "cancelled"), mEvents);
+
+    // 已经取消过，再次离开不重复回调
+    mTracker.onLeave();
+    assertEquals(Arrays.asList("preload", "cancelled"), mEvents);
+    // 重新回到布局后可以再次预加载
+    assertFalse(mTracker.hasPreloaded());
+    mTracker.onTopScrolled(false, 0.6f);
+    assertEquals(Arrays.asList("preload", "cancelled", "preload"), mEvents);
+  }
+
+  @Test
+  public void cancel_doesNotFireAfterBottomWasShown() {
+    mTracker.onTopScrolled(false, 0.6f);
+    mTracker.onSwitchToBottom(1000);
+    mTracker.onLeave();
+    assertEquals(Arrays.asList("preload"), mEvents);
+  }
+
+  @Test
+  public void cancel_doesNotFireWithoutPreload() {
+    mTracker.onTopScrolled(false, 0.1f);
+    mTracker.onLeave();
+    assertEquals(Collections.<String>emptyList(), mEvents);
+  }
+
+  @Test
+  public void latency_isReportedOnceWhenContentIsReadyAfterSwitch() {
+    mTracker.onTopScrolled(false, 0.6f);
+    mTracker.onSwitchToBottom(1000);
+    assertTrue(mTracker.onBottomContentReady(1350));
+    assertFalse(mTracker.onBottomContentReady(1500));
+    // 切换回顶部视图再切换到底部视图
+    mTracker.onSwitchToBottom(2000);
+    assertEquals(Arrays.asList("preload", "shown 350"), mEvents);
+  }
+
+  @Test
+  public void latency_isZeroWhenContentIsReadyBeforeSwitch() {
+    mTracker.onTopScrolled(false, 0.6f);
+    assertTrue(mTracker.onBottomContentReady(800));
+    mTracker.onSwitchToBottom(1000);
+    mTracker.onSwitchToBottom(2000);
+    assertEquals(Arrays.asList("preload", "shown 0"), mEvents);
+  }
+
+  @Test
+  public void restore_afterShownDoesNotPreloadOrReportAgain() {
+    mTracker.restore(true, true);
+    mTracker.onTopScrolled(true, 1);
+    mTracker.onSwitchToBottom(1000);
+    assertFalse(mTracker.onBottomContentReady(1200));
+    mTracker.onLeave();
+    assertEquals(Collections.<String>emptyList(), mEvents);
+  }
+
+  @Test
+  public void restore_afterPreloadStillCancels() {
+    mTracker.restore(true, false);
+    mTracker.onTopScrolled(true, 1);
+    mTracker.onLeave();
+    assertEquals(Arrays.asList("cancelled"), mEvents);
+  }
+
+  /**
+   * 每个回调记为一条文本，例如 "shown 350"
+   */
+  private DragSwitchLayout.PreloadListener newListener() {
+    return new DragSwitchLayout.PreloadListener() {
+
+      @Override
+      public void onPreload() {
+        mEvents.add("preload");
+      }
+
+      @Override
+      public void onPreloadCancelled() {
+        mEvents.add("cancelled");
+      }
+
+      @Override
+      public void onBottomContentShown(long latencyMillis) {
+        mEvents.add("shown " + latencyMillis);
+      }
+    };
+  }
+}
\ No newline at end of file
@@ -0,0 +1,79 @@
+package com.williamchik.dragswitchlayout;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 记录 {@link PageSwitchController} 的回调，代替 DragSwitchLayout 作为 Host。每个回调记为一条文本，例如 "settleStarted 1"，
+ * 测试中可以直接断言回调的顺序。
+ */
+final class RecordingSwitchHost implements PageSwitchController.Host {
+
+  private final List<String> mEvents = new ArrayList<String>();
+
+  List<String> getEvents() {
+    return mEvents;
+  }
+
+  /**
+   * @return 只包含以 prefix 开头的回调，保持原来的顺序
+   */
+  List<String> getEvents(String prefix) {
+    List<String> events = new ArrayList<String>();
+    for (String event : mEvents) {
+      if (event.startsWith(prefix)) {
+        events.add(event);
+      }
+    }
+    return events;
+  }
+
+  void clear() {
+    mEvents.clear();
+  }
+
+  @Override
+  public void onDragOffsetChanged() {
+    // 每一帧都会回调，不记录
+  }
+
+  @Override
+  public void onScrollStateChanged(int oldState, int newState) {
+    mEvents.add("state " + oldState + "->" + newState);
+  }
+
+  @Override
+  public void onCurrentPageChanged(int page) {
+    mEvents.add("pageChanged " + page);
+  }
+
+  @Override
+  public void onPageJumped() {
+    mEvents.add("jumped");
+  }
+
+  @Override
+  public void onPageSwitchDecided(int fromPage, int toPage) {
+    mEvents.add("releaseDecided " + fromPage + "->" + toPage);
+  }
+
+  @Override
+  public void onSettleStarted(int targetPage) {
+    mEvents.add("settleStarted " + targetPage);
+  }
+
+  @Override
+  public void onSettleFinished(int page) {
+    mEvents.add("settleFinished " + page);
+  }
+
+  @Override
+  public void onSettleCancelled(int page) {
+    mEvents.add("settleCancelled " + page);
+  }
+
+  @Override
+  public void onIdleTasksPending() {
+    mEvents.add("idleTasksPending");
+  }
+}
\ No newline at end of file
@@ -0,0 +1,219 @@
+package com.williamchik.dragswitchlayout;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link RotationScheduler} 的测试，用手动推进的 {@link FakeTimer} 代替视图的 postDelayed() 和 SystemClock。
+ */
+public class RotationSchedulerTest {
+
+  private static final long INTERVAL = 3000;
+
+  private final FakeTimer mTimer = new FakeTimer();
+  private int mRotations;
+  private final RotationScheduler mScheduler = new RotationScheduler(mTimer, new Runnable() {
+
+    @Override
+    public void run() {
+      mRotations++;
+    }
+  });
+
+  private void startAttached() {
+    mScheduler.setAttached(true);
+    mScheduler.start(INTERVAL);
+  }
+
+  @Test
+  public void pauseResume_keepsRemainingTime() {
+    startAttached();
+    mTimer.advanceTo(1000);
+    mScheduler.setVisible(false);
+    assertFalse(mScheduler.isRunning());
+
+    // 暂停期间不轮播，远超过一个间隔也不会在恢复时补发
+    mTimer.advanceTo(20000);
+    assertEquals(0, mRotations);
+    mScheduler.setVisible(true);
+    assertEquals(0, mRotations);
+
+    // 暂停前还剩 2000 毫秒，恢复后按剩余的时间继续，不重新计时
+    mTimer.advanceTo(21999);
+    assertEquals(0, mRotations);
+    mTimer.advanceTo(22000);
+    assertEquals(1, mRotations);
+    // 之后按完整的间隔轮播
+    mTimer.advanceTo(24999);
+    assertEquals(1, mRotations);
+    mTimer.advanceTo(25000);
+    assertEquals(2, mRotations);
+  }
+
+  @Test
+  public void pauseResume_acrossSources() {
+    startAttached();
+    mTimer.advanceTo(500);
+    mScheduler.setWindowFocused(false);
+    mTimer.advanceTo(1000);
+    mScheduler.setAttached(false);
+    mTimer.advanceTo(1500);
+    mScheduler.setWindowFocused(true);
+    // 还没有 attach，仍然暂停
+    assertFalse(mScheduler.isRunning());
+    mTimer.advanceTo(2000);
+    mScheduler.setAttached(true);
+    assertTrue(mScheduler.isRunning());
+
+    // 只在 500 时暂停了一次，剩余 2500 毫秒
+    mTimer.advanceTo(4499);
+    assertEquals(0, mRotations);
+    mTimer.advanceTo(4500);
+    assertEquals(1, mRotations);
+  }
+
+  @Test
+  public void singlePendingCallback() {
+    assertEquals(0, mTimer.getPendingCount());
+    startAttached();
+    assertEquals(1, mTimer.getPendingCount());
+
+    // 重复开始、暂停和恢复，任何时候最多只有一个回调
+    mScheduler.start(INTERVAL);
+    assertEquals(1, mTimer.getPendingCount());
+    mScheduler.setVisible(false);
+    assertEquals(0, mTimer.getPendingCount());
+    mScheduler.setVisible(false);
+    mScheduler.setWindowFocused(false);
+    assertEquals(0, mTimer.getPendingCount());
+    mScheduler.setWindowFocused(true);
+    mScheduler.setVisible(true);
+    assertEquals(1, mTimer.getPendingCount());
+    mScheduler.setAttached(true);
+    assertEquals(1, mTimer.getPendingCount());
+
+    // 每次轮播后只重新安排下一次
+    for (int i = 1; i <= 5; i++) {
+      mTimer.advanceTo(i * INTERVAL);
+      assertEquals(i, mRotations);
+      assertEquals(1, mTimer.getPendingCount());
+    }
+
+    mScheduler.stop();
+    assertEquals(0, mTimer.getPendingCount());
+    assertFalse(mScheduler.isStarted());
+    mTimer.advanceTo(100 * INTERVAL);
+    assertEquals(5, mRotations);
+  }
+
+  @Test
+  public void mainThreadStall_skipsMissedRotations() {
+    startAttached();
+    // 主线程卡住了三个多间隔，回调 10000 才执行，只轮播一次
+    mTimer.stallTo(10000);
+    assertEquals(1, mRotations);
+    assertEquals(1, mTimer.getPendingCount());
+
+    // 下一次从现在重新计时，不连续补发错过的轮播
+    mTimer.advanceTo(12999);
+    assertEquals(1, mRotations);
+    mTimer.advanceTo(13000);
+    assertEquals(2, mRotations);
+  }
+
+  @Test
+  public void lateCallbacks_doNotAccumulateDelay() {
+    startAttached();
+    // 每次回调都晚 100 毫秒执行，下一次轮播仍然按预定的时刻计算
+    for (int i = 1; i <= 5; i++) {
+      mTimer.stallTo(i * INTERVAL + 100);
+      assertEquals(i, mRotations);
+      assertEquals((i + 1) * INTERVAL, mTimer.getNextDueTime());
+    }
+  }
+
+  /**
+   * 手动推进的时钟，回调按预定的时刻依次执行
+   */
+  private static final class FakeTimer implements RotationScheduler.Timer {
+
+    private final ArrayList<Runnable> mRunnables = new ArrayList<Runnable>();
+    private final ArrayList<Long> mDueTimes = new ArrayList<Long>();
+    private long mNow;
+
+    @Override
+    public long uptimeMillis() {
+      return mNow;
+    }
+
+    @Override
+    public void postDelayed(Runnable runnable, long delayMillis) {
+      mRunnables.add(runnable);
+      mDueTimes.add(mNow + delayMillis);
+    }
+
+    @Override
+    public void removeCallbacks(Runnable runnable) {
+      for (int i = mRunnables.size() - 1; i >= 0; i--) {
+        if (mRunnables.get(i) == runnable) {
+          mRunnables.remove(i);
+          mDueTimes.remove(i);
+        }
+      }
+    }
+
+    int getPendingCount() {
+      return mRunnables.size();
+    }
+
+    long getNextDueTime() {
+      return mDueTimes.get(nextIndex());
+    }
+
+    /**
+     * 推进到指定时刻，每个回调都在它预定的时刻执行
+     */
+    void advanceTo(long time) {
+      runDue(time, false);
+      mNow = time;
+    }
+
+    /**
+     * 主线程卡住直到指定时刻，期间到期的回调都在这个时刻才执行
+     */
+    void stallTo(long time) {
+      mNow = time;
+      runDue(time, true);
+    }
+
+    private void runDue(long time, boolean late) {
+      while (!mRunnables.isEmpty()) {
+        int index = nextIndex();
+        long dueTime = mDueTimes.get(index);
+        if (dueTime > time) {
+          return;
+        }
+        if (!late) {
+          mNow = dueTime;
+        }
+        mDueTimes.remove(index);
+        mRunnables.remove(index).run();
+      }
+    }
+
+    private int nextIndex() {
+      int index = 0;
+      for (int i = 1; i < mDueTimes.size(); i++) {
+        if (mDueTimes.get(i) < mDueTimes.get(index)) {
+          index = i;
+        }
+      }
+      return index;
+    }
+  }
+}
\ No newline at end of file
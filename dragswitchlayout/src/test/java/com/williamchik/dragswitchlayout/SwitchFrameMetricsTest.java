@@ -0,0 +1,93 @@
+package com.williamchik.dragswitchlayout;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * 帧统计的测试：用 {@link VirtualFrameClock} 产生帧时间，掉帧的位置和数量都是已知的，对比统计出的掉帧数和最长的一帧。
+ * 和 FrameMetricsTracker 的 doFrame() 一样，每一帧把 vsync 时间交给 {@link SwitchFrameMetrics#onFrame(long, long)}。
+ */
+public class SwitchFrameMetricsTest {
+
+  private static final long NANOS_PER_MILLI = 1000000L;
+  private static final long FRAME_INTERVAL = 16;
+  // 60Hz 屏幕的时间预算，掉帧的阈值是 1.5 倍，即 25ms
+  private static final long FRAME_BUDGET_NANOS = 16666667L;
+
+  private final SwitchFrameMetrics mMetrics = new SwitchFrameMetrics();
+
+  @Test
+  public void smoothFrames_haveNoJank() {
+    VirtualFrameClock clock = new VirtualFrameClock(FRAME_INTERVAL, 1000);
+    mMetrics.reset(SwitchFrameMetrics.SESSION_SETTLE);
+    frame(clock.getFrameTime());
+    for (int i = 0; i < 30; i++) {
+      frame(clock.nextFrame());
+    }
+    assertEquals(31, mMetrics.getFrameCount());
+    assertEquals(0, mMetrics.getJankFrameCount());
+    assertEquals(FRAME_INTERVAL * NANOS_PER_MILLI, mMetrics.getLongestFrameNanos());
+  }
+
+  @Test
+  public void droppedFrames_areCountedOncePerGap() {
+    VirtualFrameClock clock = new VirtualFrameClock(FRAME_INTERVAL, 1000);
+    mMetrics.reset(SwitchFrameMetrics.SESSION_DRAG);
+    frame(clock.getFrameTime());
+    frame(clock.nextFrame());
+    // 掉 1 帧：间隔 32ms
+    clock.dropFrames(1);
+    frame(clock.nextFrame());
+    frame(clock.nextFrame());
+    // 掉 3 帧：间隔 64ms，是最长的一帧
+    clock.dropFrames(3);
+    frame(clock.nextFrame());
+    frame(clock.nextFrame());
+
+    // 掉帧之后只收到一次回调，一段连续的掉帧只记为一次
+    assertEquals(6, mMetrics.getFrameCount());
+    assertEquals(2, mMetrics.getJankFrameCount());
+    assertEquals(4 * FRAME_INTERVAL * NANOS_PER_MILLI, mMetrics.getLongestFrameNanos());
+  }
+
+  @Test
+  public void replayedSettle_reportsKnownDroppedFrames() {
+    GestureScript swipe = GestureScript.swipe(1000, 1500, 900, 160, 8);
+    FrameTrace trace = new DragSwitchReplay(2, 1920, 3).dropFrames(12, 2).replay(swipe);
+    mMetrics.reset(SwitchFrameMetrics.SESSION_SETTLE);
+    for (int i = 0; i < trace.size(); i++) {
+      frame(trace.getTime(i));
+    }
+    assertEquals(trace.size(), mMetrics.getFrameCount());
+    assertEquals(1, mMetrics.getJankFrameCount());
+    assertEquals(3 * FRAME_INTERVAL * NANOS_PER_MILLI, mMetrics.getLongestFrameNanos());
+  }
+
+  @Test
+  public void reset_startsNewSessionFromScratch() {
+    VirtualFrameClock clock = new VirtualFrameClock(FRAME_INTERVAL, 1000);
+    mMetrics.reset(SwitchFrameMetrics.SESSION_DRAG);
+    frame(clock.getFrameTime());
+    clock.dropFrames(5);
+    frame(clock.nextFrame());
+    mMetrics.mLayeredPageCount = 2;
+    assertEquals(1, mMetrics.getJankFrameCount());
+
+    // 两次统计之间隔了很久，新的统计的第一帧不和上一次统计的最后一帧比较
+    clock.dropFrames(100);
+    mMetrics.reset(SwitchFrameMetrics.SESSION_SETTLE);
+    assertEquals(SwitchFrameMetrics.SESSION_SETTLE, mMetrics.getSessionType());
+    assertEquals(0, mMetrics.getFrameCount());
+    assertEquals(0, mMetrics.getLayeredPageCount());
+    frame(clock.nextFrame());
+    frame(clock.nextFrame());
+    assertEquals(2, mMetrics.getFrameCount());
+    assertEquals(0, mMetrics.getJankFrameCount());
+    assertEquals(FRAME_INTERVAL * NANOS_PER_MILLI, mMetrics.getLongestFrameNanos());
+  }
+
+  private void frame(long frameTimeMillis) {
+    mMetrics.onFrame(frameTimeMillis * NANOS_PER_MILLI, FRAME_BUDGET_NANOS);
+  }
+}
\ No newline at end of file
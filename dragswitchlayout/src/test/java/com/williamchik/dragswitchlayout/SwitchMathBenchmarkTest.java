@@ -0,0 +1,411 @@
+package com.williamchik.dragswitchlayout;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * 拖拽和切换的计算的性能回归测试，直接在 JVM 上运行。
+ * <p/>
+ * 把录制的手势（每个 MotionEvent 的 Y 轴坐标）回放到 DragSwitchLayout 使用的 {@link DragStepCalculator}、
+ * {@link PageSwitchController} 和可滚动子视图使用的 {@link EdgeHandoffTracker} 中，用 16ms 的虚拟帧驱动各个 {@link SettleEngine}
+ * 和 AutoSwitchLayout 使用的 {@link SwitchProgressAnimator}，检查每个手势的内存分配以及滑动到终点需要的帧数，这两项和机器无关，总是检查。
+ * <p/>
+ * 每个事件和每一帧的耗时受机器负载影响，默认只测量不检查，系统属性 switchbench.timingGates 为 true 时超过阈值才失败
+ * （gradle 中通过 -PswitchbenchTimingGates 打开），适合在固定的性能测试机器上运行。耗时的阈值远高于正常值，只用来发现数量级的退化。
+ */
+public class SwitchMathBenchmarkTest {
+
+  private static final int PAGE_HEIGHT = 1920;
+  private static final long FRAME_INTERVAL = 16;
+  private static final int WARMUP_ITERATIONS = 5000;
+  private static final int MEASURE_ITERATIONS = 20000;
+  // 是否检查耗时的阈值
+  private static final boolean TIMING_GATES = Boolean.getBoolean("switchbench.timingGates");
+  // 每个 MotionEvent 的换算耗时上限
+  private static final long MAX_NANOS_PER_EVENT = 1000;
+  // 每一帧滑动计算的耗时上限
+  private static final long MAX_NANOS_PER_FRAME = 2000;
+  // 每个手势平均允许分配的字节数，计算过程不应该分配对象
+  private static final long MAX_BYTES_PER_GESTURE = 1;
+
+  // 录制的快速上滑手势，60Hz 的 MotionEvent 的 Y 轴坐标
+  private static final int[] FAST_SWIPE_UP = {
+      1520, 1516, 1505, 1484, 1452, 1405, 1344, 1270, 1187, 1098, 1006, 915, 829, 751, 683, 627, 583, 550, 527, 512,
+      503, 498
+  };
+  // 录制的慢速拖拽手势，每个事件只移动 1 到 2 个像素，阻力换算后都不足 1 像素
+  private static final int[] SLOW_DRAG_UP = {
+      1200, 1199, 1197, 1196, 1195, 1193, 1192, 1191, 1189, 1188, 1187, 1185, 1184, 1183, 1181, 1180, 1179, 1177,
+      1176, 1175, 1173, 1172, 1171, 1169, 1168, 1167, 1165, 1164, 1163, 1161
+  };
+
+  // AutoSwitchLayout 切换的尺寸和时长
+  private static final int SWITCH_SIZE = 120;
+  private static final int SWITCH_DURATION = 600;
+  private static final int REVERSE_MIN_DURATION = 150;
+  private static final int REVERSE_MAX_DURATION = 600;
+
+  private static final PageSwitchController.Host NO_OP_HOST = new PageSwitchController.Host() {
+
+    @Override
+    public void onDragOffsetChanged() {
+    }
+
+    @Override
+    public void onScrollStateChanged(int oldState, int newState) {
+    }
+
+    @Override
+    public void onCurrentPageChanged(int page) {
+    }
+
+    @Override
+    public void onPageJumped() {
+    }
+
+    @Override
+    public void onPageSwitchDecided(int fromPage, int toPage) {
+    }
+
+    @Override
+    public void onSettleStarted(int targetPage) {
+    }
+
+    @Override
+    public void onSettleFinished(int page) {
+    }
+
+    @Override
+    public void onSettleCancelled(int page) {
+    }
+
+    @Override
+    public void onIdleTasksPending() {
+    }
+  };
+
+  private static final EdgeHandoffTracker.Parent NO_OP_PARENT = new EdgeHandoffTracker.Parent() {
+
+    @Override
+    public boolean requestDisallowInterceptTouchEvent(boolean disallowIntercept) {
+      return true;
+    }
+  };
+
+  // 防止计算结果被 JIT 优化掉
+  private static long sSink;
+
+  @Test
+  public void dragReplay_linearResistance() {
+    benchmarkDrag("linear", new LinearDragResistance());
+  }
+
+  @Test
+  public void dragReplay_rubberBandResistance() {
+    benchmarkDrag("rubberBand", new RubberBandDragResistance());
+  }
+
+  @Test
+  public void slowDrag_doesNotLosePixels() {
+    // 线性阻力下，慢速拖拽的移动距离累加后和手指的总移动距离按比例一致
+    int offset = replayDrag(new DragStepCalculator(), new LinearDragResistance(), SLOW_DRAG_UP);
+    int fingerDistance = SLOW_DRAG_UP[SLOW_DRAG_UP.length - 1] - SLOW_DRAG_UP[0];
+    int expected = (int) (fingerDistance * 0.25f);
+    assertTrue("slow drag moved " + offset + "px, expected " + expected + "px", Math.abs(offset - expected) <= 1);
+  }
+
+  @Test
+  public void settle_flingEngine() {
+    // 拖过距离阈值后慢速松手、快速 fling 松手、回到原来的页面
+    benchmarkSettle("fling/slowRelease", new FlingSettleEngine(), -80, -PAGE_HEIGHT, 0, 38);
+    benchmarkSettle("fling/fastRelease", new FlingSettleEngine(), -300, -PAGE_HEIGHT, -8000, 38);
+    benchmarkSettle("fling/snapBack", new FlingSettleEngine(), -40, 0, 0, 38);
+  }
+
+  @Test
+  public void settle_springEngine() {
+    benchmarkSettle("spring/slowRelease", new SpringSettleEngine(), -80, -PAGE_HEIGHT, 0, 51);
+    benchmarkSettle("spring/fastRelease", new SpringSettleEngine(), -300, -PAGE_HEIGHT, -8000, 51);
+    benchmarkSettle("spring/snapBack", new SpringSettleEngine(), -40, 0, 0, 51);
+  }
+
+  @Test
+  public void switchController_dragReleaseAndSettle() {
+    // DragSwitchLayout 的完整路径：拖拽的换算、松手的判断、逐帧的滑动和静止后的回调
+    PageSwitchController controller = new PageSwitchController(NO_OP_HOST, 3);
+    controller.setPageCount(2);
+    controller.setPageSize(PAGE_HEIGHT);
+    int frames = replaySwitch(controller, FAST_SWIPE_UP);
+    assertEquals("switch did not reach the next page", 1, controller.getCurrentPage());
+    for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+      sSink += replaySwitch(controller, FAST_SWIPE_UP);
+    }
+
+    long bytesBefore = getAllocatedBytes();
+    long begin = System.nanoTime();
+    for (int i = 0; i < MEASURE_ITERATIONS; i++) {
+      sSink += replaySwitch(controller, FAST_SWIPE_UP);
+    }
+    long elapsed = System.nanoTime() - begin;
+    long bytes = getAllocatedBytes() - bytesBefore;
+
+    assertTrue("switch took " + frames + " frames", frames <= 38);
+    long steps = (long) MEASURE_ITERATIONS * (FAST_SWIPE_UP.length - 1 + frames);
+    assertTiming("switchController", elapsed / steps, MAX_NANOS_PER_FRAME);
+    assertAllocation("switchController", bytes, MEASURE_ITERATIONS);
+  }
+
+  @Test
+  public void edgeHandoff_interceptDecision() {
+    // 子视图每个 touch 事件都要经过的判断：滚动内容的手势，以及在边缘交给父视图的手势
+    EdgeHandoffTracker tracker = new EdgeHandoffTracker(true, NO_OP_PARENT);
+    for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+      sSink += replayHandoff(tracker, FAST_SWIPE_UP, false);
+      sSink += replayHandoff(tracker, FAST_SWIPE_UP, true);
+      sSink += replayNestedHandoff(tracker, SLOW_DRAG_UP);
+    }
+
+    long bytesBefore = getAllocatedBytes();
+    long begin = System.nanoTime();
+    for (int i = 0; i < MEASURE_ITERATIONS; i++) {
+      sSink += replayHandoff(tracker, FAST_SWIPE_UP, false);
+      sSink += replayHandoff(tracker, FAST_SWIPE_UP, true);
+      sSink += replayNestedHandoff(tracker, SLOW_DRAG_UP);
+    }
+    long elapsed = System.nanoTime() - begin;
+    long bytes = getAllocatedBytes() - bytesBefore;
+
+    long events = (long) MEASURE_ITERATIONS * (FAST_SWIPE_UP.length * 2 + SLOW_DRAG_UP.length);
+    assertTiming("edgeHandoff", elapsed / events, MAX_NANOS_PER_EVENT);
+    assertAllocation("edgeHandoff", bytes, MEASURE_ITERATIONS * 3);
+  }
+
+  @Test
+  public void switchProgressAnimator_switchAndReverse() {
+    // AutoSwitchLayout 的一次切换，以及切换到一半时掉头
+    SwitchProgressAnimator animator = new SwitchProgressAnimator();
+    int frames = animateSwitch(animator, false);
+    int reverseFrames = animateSwitch(animator, true);
+    for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+      sSink += animateSwitch(animator, false);
+      sSink += animateSwitch(animator, true);
+    }
+
+    long bytesBefore = getAllocatedBytes();
+    long begin = System.nanoTime();
+    for (int i = 0; i < MEASURE_ITERATIONS; i++) {
+      sSink += animateSwitch(animator, false);
+      sSink += animateSwitch(animator, true);
+    }
+    long elapsed = System.nanoTime() - begin;
+    long bytes = getAllocatedBytes() - bytesBefore;
+
+    // 到达终点的那一帧直接结束，帧数不超过时长对应的帧数
+    assertTrue("switch took " + frames + " frames", frames <= SWITCH_DURATION / FRAME_INTERVAL + 1);
+    assertTrue("reversed switch took " + reverseFrames + " frames",
+        reverseFrames <= (SWITCH_DURATION + REVERSE_MAX_DURATION) / FRAME_INTERVAL + 1);
+    assertTiming("switchProgress", elapsed / ((long) MEASURE_ITERATIONS * (frames + reverseFrames)),
+        MAX_NANOS_PER_FRAME);
+    assertAllocation("switchProgress", bytes, MEASURE_ITERATIONS * 2);
+  }
+
+  private static void benchmarkDrag(String name, DragResistance resistance) {
+    DragStepCalculator calculator = new DragStepCalculator();
+    for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+      sSink += replayDrag(calculator, resistance, FAST_SWIPE_UP);
+      sSink += replayDrag(calculator, resistance, SLOW_DRAG_UP);
+    }
+
+    long bytesBefore = getAllocatedBytes();
+    long begin = System.nanoTime();
+    for (int i = 0; i < MEASURE_ITERATIONS; i++) {
+      sSink += replayDrag(calculator, resistance, FAST_SWIPE_UP);
+      sSink += replayDrag(calculator, resistance, SLOW_DRAG_UP);
+    }
+    long elapsed = System.nanoTime() - begin;
+    long bytes = getAllocatedBytes() - bytesBefore;
+
+    int gestures = MEASURE_ITERATIONS * 2;
+    long events = (long) MEASURE_ITERATIONS * (FAST_SWIPE_UP.length + SLOW_DRAG_UP.length - 2);
+    assertTiming("drag/" + name, elapsed / events, MAX_NANOS_PER_EVENT);
+    assertAllocation("drag/" + name, bytes, gestures);
+  }
+
+  private static void benchmarkSettle(String name, SettleEngine engine, int startOffset, int finalOffset,
+      float velocity, int maxFrames) {
+    int frames = settle(engine, startOffset, finalOffset, velocity);
+    for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+      sSink += settle(engine, startOffset, finalOffset, velocity);
+    }
+
+    long bytesBefore = getAllocatedBytes();
+    long begin = System.nanoTime();
+    for (int i = 0; i < MEASURE_ITERATIONS; i++) {
+      sSink += settle(engine, startOffset, finalOffset, velocity);
+    }
+    long elapsed = System.nanoTime() - begin;
+    long bytes = getAllocatedBytes() - bytesBefore;
+
+    assertTrue("settle/" + name + " took " + frames + " frames", frames <= maxFrames);
+    assertTiming("settle/" + name, elapsed / ((long) MEASURE_ITERATIONS * frames), MAX_NANOS_PER_FRAME);
+    assertAllocation("settle/" + name, bytes, MEASURE_ITERATIONS);
+  }
+
+  private static void assertTiming(String name, long nanos, long maxNanos) {
+    if (TIMING_GATES) {
+      assertTrue(name + " took " + nanos + " ns per step, max " + maxNanos, nanos <= maxNanos);
+    }
+  }
+
+  private static void assertAllocation(String name, long bytes, long gestures) {
+    if (bytes >= 0) {
+      assertTrue(name + " allocated " + bytes + " bytes", bytes <= MAX_BYTES_PER_GESTURE * gestures);
+    }
+  }
+
+  /**
+   * 回放一个手势，页面在第一页，只能向上拖
+   *
+   * @return 手势结束时的拖拽偏移量
+   */
+  private static int replayDrag(DragStepCalculator calculator, DragResistance resistance, int[] eventYs) {
+    calculator.reset();
+    int dragOffset = 0;
+    for (int i = 1; i < eventYs.length; i++) {
+      dragOffset += calculator.computeDy(resistance, eventYs[i] - eventYs[i - 1], dragOffset, PAGE_HEIGHT, true,
+          false);
+    }
+    return dragOffset;
+  }
+
+  /**
+   * 用虚拟帧驱动滑动直到结束
+   *
+   * @return 滑动到目标位置用的帧数
+   */
+  private static int settle(SettleEngine engine, int startOffset, int finalOffset, float velocity) {
+    long frameTime = 0;
+    engine.start(startOffset, finalOffset, velocity, frameTime);
+    int frames = 0;
+    boolean keepGoing = true;
+    while (keepGoing) {
+      frameTime += FRAME_INTERVAL;
+      keepGoing = engine.computeOffset(frameTime);
+      frames++;
+    }
+    if (engine.getCurrentOffset() != finalOffset) {
+      // 只在失败时拼接消息，测量过程中不分配对象
+      fail("settle stopped at " + engine.getCurrentOffset() + ", expected " + finalOffset);
+    }
+    return frames;
+  }
+
+  /**
+   * 从第一页拖拽、松手并滑动到结束
+   *
+   * @return 滑动用的帧数
+   */
+  private static int replaySwitch(PageSwitchController controller, int[] eventYs) {
+    controller.jumpToPage(0);
+    controller.startDrag();
+    for (int i = 1; i < eventYs.length; i++) {
+      controller.dragBy(eventYs[i] - eventYs[i - 1]);
+    }
+    long frameTime = 0;
+    controller.release(-8000, frameTime);
+    int frames = 0;
+    boolean keepGoing = true;
+    while (keepGoing) {
+      frameTime += FRAME_INTERVAL;
+      keepGoing = controller.computeSettleOffset(frameTime);
+      frames++;
+    }
+    controller.finishSettle();
+    return frames;
+  }
+
+  /**
+   * 非嵌套滑动的手势：按下、逐个移动、抬起
+   *
+   * @return 交给父视图的事件数
+   */
+  private static int replayHandoff(EdgeHandoffTracker tracker, int[] eventYs, boolean atEdge) {
+    tracker.onDown(eventYs[0], 0, atEdge);
+    tracker.keepParentFromIntercepting();
+    int handedOff = 0;
+    for (int i = 1; i < eventYs.length; i++) {
+      if (tracker.onMove(eventYs[i])) {
+        handedOff++;
+      } else {
+        tracker.keepParentFromIntercepting();
+      }
+    }
+    tracker.onGestureEnd();
+    return handedOff;
+  }
+
+  /**
+   * 嵌套滑动的手势：每次移动的一半被父视图消费，页面随之移动，计算交给视图的 touch 事件的平移
+   *
+   * @return 最后一个事件的平移
+   */
+  private static int replayNestedHandoff(EdgeHandoffTracker tracker, int[] eventYs) {
+    tracker.onDown(eventYs[0], 0, true);
+    float origin = 0;
+    float offset = 0;
+    for (int i = 1; i < eventYs.length; i++) {
+      int delta = tracker.onNestedMove(eventYs[i]);
+      tracker.addNestedConsumed(delta / 2);
+      origin -= delta / 8f;
+      offset = tracker.getNestedEventOffset(origin);
+      tracker.keepParentFromIntercepting();
+    }
+    tracker.onGestureEnd();
+    return (int) offset;
+  }
+
+  /**
+   * 用虚拟帧驱动 AutoSwitchLayout 的一次切换，reverse 为 true 时在一半的时长掉头
+   *
+   * @return 切换用的帧数
+   */
+  private static int animateSwitch(SwitchProgressAnimator animator, boolean reverse) {
+    long frameTime = 0;
+    animator.start(0, SWITCH_SIZE, SWITCH_DURATION, frameTime);
+    int frames = 0;
+    boolean keepGoing = true;
+    while (keepGoing) {
+      frameTime += FRAME_INTERVAL;
+      if (reverse && frameTime == SWITCH_DURATION / 2) {
+        animator.reverse(SWITCH_SIZE, REVERSE_MIN_DURATION, REVERSE_MAX_DURATION, frameTime);
+      }
+      keepGoing = animator.computeValue(frameTime);
+      frames++;
+    }
+    if (animator.getCurrentValue() != SWITCH_SIZE) {
+      fail("switch stopped at " + animator.getCurrentValue() + ", expected " + SWITCH_SIZE);
+    }
+    return frames;
+  }
+
+  /**
+   * @return 当前线程累计分配的字节数，JVM 不支持统计时返回 -1
+   */
+  private static long getAllocatedBytes() {
+    ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+    if (!(bean instanceof com.sun.management.ThreadMXBean)) {
+      return -1;
+    }
+    com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+    if (!sunBean.isThreadAllocatedMemorySupported() || !sunBean.isThreadAllocatedMemoryEnabled()) {
+      return -1;
+    }
+    return sunBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+  }
+}
\ No newline at end of file
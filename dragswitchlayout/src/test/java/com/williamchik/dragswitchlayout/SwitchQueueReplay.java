@@ -0,0 +1,117 @@
+package com.williamchik.dragswitchlayout;
+
+import java.util.ArrayList;
+
+/**
+ * 用虚拟帧时钟回放 AutoSwitchLayout 的一连串切换，逐帧记录每个子视图的位置，切换可以在前一次动画的途中发出。
+ * <p/>
+ * 直接驱动 AutoSwitchLayout 使用的 {@link SwitchStepQueue}：排队、掉头和逐帧计算都和布局中完全一致，子视图的位置也和
+ * AutoSwitchLayout 一样摆放：正在离开的视图位于 -direction * progress，正在进入的视图位于 direction * (size - progress)，
+ * 其他视图都在布局之外的 size 处。每一帧先在输入阶段处理这一帧之前发出的切换，再在绘制阶段计算进度。
+ */
+final class SwitchQueueReplay {
+
+  static final long FRAME_INTERVAL = 16;
+
+  private final int mChildCount;
+  private final int mSize;
+  private final ArrayList<Command> mCommands = new ArrayList<Command>();
+
+  /**
+   * @param childCount 子视图数量
+   * @param size       切换方向上的尺寸
+   */
+  SwitchQueueReplay(int childCount, int size) {
+    mChildCount = childCount;
+    mSize = size;
+  }
+
+  /**
+   * 开始后经过 elapsed 时调用 switchToNext()，发出的那一帧标记为 mark
+   */
+  SwitchQueueReplay switchToNextAt(long elapsed, String mark) {
+    mCommands.add(new Command(elapsed, Command.NEXT, mark));
+    return this;
+  }
+
+  /**
+   * 开始后经过 elapsed 时调用 switchTo(index)，发出的那一帧标记为 mark
+   */
+  SwitchQueueReplay switchToAt(long elapsed, int index, String mark) {
+    mCommands.add(new Command(elapsed, index, mark));
+    return this;
+  }
+
+  /**
+   * 回放所有的切换直到静止，命令需要按时间排列
+   *
+   * @return 每一帧每个子视图的位置，开始时显示 child0
+   */
+  FrameTrace replay() {
+    String[] columns = new String[mChildCount];
+    for (int i = 0; i < mChildCount; i++) {
+      columns[i] = "child" + i;
+    }
+    FrameTrace trace = new FrameTrace(columns);
+    VirtualFrameClock clock = new VirtualFrameClock(FRAME_INTERVAL, 0);
+    SwitchStepQueue queue = new SwitchStepQueue();
+    long startTime = clock.getFrameTime();
+    int command = 0;
+    long frameTime = startTime;
+    while (true) {
+      // 输入阶段：发出这一帧之前的切换
+      while (command < mCommands.size() && startTime + mCommands.get(command).mElapsed <= frameTime) {
+        Command current = mCommands.get(command++);
+        trace.mark(current.mMark);
+        if (current.mIndex == Command.NEXT) {
+          queue.enqueue(1);
+        } else {
+          queue.switchTo(current.mIndex, mSize, frameTime);
+        }
+        queue.startIfIdle(mChildCount, mSize, frameTime);
+      }
+      // 绘制阶段：computeScroll()
+      if (queue.isSwitching()) {
+        queue.computeFrame(mChildCount, mSize, frameTime);
+      }
+      record(trace, frameTime, queue);
+      if (!queue.isSwitching() && command == mCommands.size()) {
+        return trace;
+      }
+      frameTime = clock.nextFrame();
+    }
+  }
+
+  private void record(FrameTrace trace, long frameTime, SwitchStepQueue queue) {
+    int[] positions = new int[mChildCount];
+    for (int i = 0; i < mChildCount; i++) {
+      positions[i] = i == queue.getCurrentIndex() ? 0 : mSize;
+    }
+    if (queue.isSwitching()) {
+      int direction = queue.getDirection();
+      int progress = queue.getProgress();
+      positions[queue.getCurrentIndex()] = -direction * progress;
+      positions[queue.getNextIndex()] = direction * (mSize - progress);
+    }
+    trace.record(frameTime, positions);
+  }
+
+  /**
+   * 在指定时间发出的一次切换
+   */
+  private static final class Command {
+
+    // switchToNext()
+    static final int NEXT = -1;
+
+    final long mElapsed;
+    final int mIndex;
+    final String mMark;
+
+    Command(long elapsed, int index, String mark) {
+      mElapsed = elapsed;
+      mIndex = index;
+      mMark = mark;
+    }
+  }
+}
\ No newline at end of file
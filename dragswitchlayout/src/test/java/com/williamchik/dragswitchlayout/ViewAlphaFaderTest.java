@@ -0,0 +1,191 @@
+package com.williamchik.dragswitchlayout;
+
+import android.view.View;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * {@link ViewAlphaFader} 的测试，用记录属性修改的 {@link FakeTarget} 代替视图。
+ */
+public class ViewAlphaFaderTest {
+
+  private static final int STEPS = 4;
+
+  private final FakeTarget mTarget = new FakeTarget();
+  private final ViewAlphaFader mFader = new ViewAlphaFader(mTarget, STEPS);
+
+  @Test
+  public void setAlpha_quantizesAndSkipsUnchangedLevels() {
+    assertTrue(mFader.setAlpha(0.5f));
+    assertEquals(0.5f, mTarget.mAlpha, 0);
+    // 0.52 和 0.6 都量化为第 2 级，不修改视图
+    assertFalse(mFader.setAlpha(0.52f));
+    assertFalse(mFader.setAlpha(0.6f));
+    assertEquals(1, mTarget.mAlphaChanges);
+    // 0.65 量化为第 3 级
+    assertTrue(mFader.setAlpha(0.65f));
+    assertEquals(0.75f, mTarget.mAlpha, 0);
+    assertEquals(2, mTarget.mAlphaChanges);
+  }
+
+  @Test
+  public void setAlpha_clampsOutOfRange() {
+    assertTrue(mFader.setAlpha(-0.3f));
+    assertEquals(0f, mTarget.mAlpha, 0);
+    assertFalse(mFader.setAlpha(-1f));
+    assertTrue(mFader.setAlpha(1.7f));
+    assertEquals(1f, mTarget.mAlpha, 0);
+    assertFalse(mFader.setAlpha(2f));
+    assertEquals(2, mTarget.mAlphaChanges);
+  }
+
+  @Test
+  public void setAlpha_firstCallAlwaysApplies() {
+    // 还没有设置过时，即使视图本来就是不透明的也要设置一次
+    assertTrue(mFader.setAlpha(1f));
+    assertEquals(1f, mTarget.mAlpha, 0);
+    assertFalse(mFader.setAlpha(1f));
+  }
+
+  @Test
+  public void transparentEnd_hidesViewOnce() {
+    mFader.setAlpha(0.5f);
+    assertTrue(mFader.setAlpha(0.1f));
+    assertEquals(0f, mTarget.mAlpha, 0);
+    assertEquals(View.INVISIBLE, mTarget.mVisibility);
+    // 停在完全透明的一端时，重复的更新不再修改视图
+    int changes = mTarget.mAlphaChanges;
+    assertFalse(mFader.setAlpha(0f));
+    assertFalse(mFader.setAlpha(0.05f));
+    assertEquals(changes, mTarget.mAlphaChanges);
+    assertEquals(1, mTarget.mVisibilityChanges);
+  }
+
+  @Test
+  public void leavingTransparentEnd_showsViewAgain() {
+    mFader.setAlpha(0f);
+    assertTrue(mFader.setAlpha(0.25f));
+    assertEquals(View.VISIBLE, mTarget.mVisibility);
+    assertEquals(0.25f, mTarget.mAlpha, 0);
+    // 已经可见，之后不再修改可见性
+    mFader.setAlpha(0.5f);
+    mFader.setAlpha(1f);
+    assertEquals(2, mTarget.mVisibilityChanges);
+  }
+
+  @Test
+  public void overlappingView_usesHardwareLayerOnlyBetweenEnds() {
+    mFader.setAlpha(0f);
+    assertEquals(View.LAYER_TYPE_NONE, mTarget.mLayerType);
+    mFader.setAlpha(0.25f);
+    assertEquals(View.LAYER_TYPE_HARDWARE, mTarget.mLayerType);
+    // 渐变过程中保持同一个 layer，不重复切换
+    mFader.setAlpha(0.5f);
+    mFader.setAlpha(0.75f);
+    assertEquals(1, mTarget.mLayerChanges);
+    // 完全不透明时恢复
+    mFader.setAlpha(1f);
+    assertEquals(View.LAYER_TYPE_NONE, mTarget.mLayerType);
+    // 再次渐变到完全透明时，中间切换为硬件层，透明时恢复
+    mFader.setAlpha(0.5f);
+    assertEquals(View.LAYER_TYPE_HARDWARE, mTarget.mLayerType);
+    mFader.setAlpha(0f);
+    assertEquals(View.LAYER_TYPE_NONE, mTarget.mLayerType);
+    assertEquals(4, mTarget.mLayerChanges);
+  }
+
+  @Test
+  public void nonOverlappingView_neverUsesLayer() {
+    mTarget.mOverlapping = false;
+    mFader.setAlpha(0.5f);
+    mFader.setAlpha(1f);
+    mFader.setAlpha(0f);
+    assertEquals(0, mTarget.mLayerChanges);
+  }
+
+  @Test
+  public void softwareRenderedView_neverUsesLayer() {
+    mTarget.mHardwareAccelerated = false;
+    mFader.setAlpha(0.5f);
+    mFader.setAlpha(1f);
+    assertEquals(0, mTarget.mLayerChanges);
+  }
+
+  @Test
+  public void viewOwnLayer_isLeftUntouched() {
+    mTarget.mLayerType = View.LAYER_TYPE_SOFTWARE;
+    mFader.setAlpha(0.5f);
+    mFader.setAlpha(1f);
+    mFader.setAlpha(0f);
+    assertEquals(View.LAYER_TYPE_SOFTWARE, mTarget.mLayerType);
+    assertEquals(0, mTarget.mLayerChanges);
+  }
+
+  @Test
+  public void steps_mustBePositive() {
+    try {
+      new ViewAlphaFader(mTarget, 0);
+      fail("steps 0 should be rejected");
+    } catch (IllegalArgumentException expected) {
+      // 量化级数为 0 时无法计算透明度
+    }
+  }
+
+  /**
+   * 记录属性和修改次数的视图，默认可见、有重叠的内容、开启硬件加速
+   */
+  private static final class FakeTarget implements ViewAlphaFader.Target {
+
+    private float mAlpha = 1f;
+    private int mVisibility = View.VISIBLE;
+    private int mLayerType = View.LAYER_TYPE_NONE;
+    private boolean mOverlapping = true;
+    private boolean mHardwareAccelerated = true;
+    private int mAlphaChanges;
+    private int mVisibilityChanges;
+    private int mLayerChanges;
+
+    @Override
+    public void setAlpha(float alpha) {
+      mAlpha = alpha;
+      mAlphaChanges++;
+    }
+
+    @Override
+    public int getVisibility() {
+      return mVisibility;
+    }
+
+    @Override
+    public void setVisibility(int visibility) {
+      mVisibility = visibility;
+      mVisibilityChanges++;
+    }
+
+    @Override
+    public boolean hasOverlappingRendering() {
+      return mOverlapping;
+    }
+
+    @Override
+    public int getLayerType() {
+      return mLayerType;
+    }
+
+    @Override
+    public void setLayerType(int layerType) {
+      mLayerType = layerType;
+      mLayerChanges++;
+    }
+
+    @Override
+    public boolean isHardwareAccelerated() {
+      return mHardwareAccelerated;
+    }
+  }
+}
\ No newline at end of file
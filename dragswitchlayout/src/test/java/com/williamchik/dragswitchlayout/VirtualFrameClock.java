@@ -0,0 +1,41 @@
+package com.williamchik.dragswitchlayout;
+
+/**
+ * 可控的虚拟帧时钟，代替真实的 Choreographer。每一帧的时间等于 AnimationUtils.currentAnimationTimeMillis() 在这一帧中的返回值，
+ * 可以模拟掉帧。
+ */
+final class VirtualFrameClock {
+
+  private final long mFrameInterval;
+  private long mFrameTime;
+
+  /**
+   * @param frameInterval 帧间隔，单位是毫秒
+   * @param startTime     第一帧的时间
+   */
+  VirtualFrameClock(long frameInterval, long startTime) {
+    mFrameInterval = frameInterval;
+    mFrameTime = startTime;
+  }
+
+  long getFrameTime() {
+    return mFrameTime;
+  }
+
+  /**
+   * 前进到下一帧
+   *
+   * @return 下一帧的时间
+   */
+  long nextFrame() {
+    mFrameTime += mFrameInterval;
+    return mFrameTime;
+  }
+
+  /**
+   * 模拟掉帧，接下来的若干帧没有回调
+   */
+  void dropFrames(int count) {
+    mFrameTime += mFrameInterval * count;
+  }
+}
\ No newline at end of file